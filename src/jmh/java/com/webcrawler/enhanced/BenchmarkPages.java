@@ -0,0 +1,43 @@
+package com.webcrawler.enhanced;
+
+// Realistic PageData records for the benchmarks: a few hundred words, dozens of links,
+// titles and descriptions with quotes and line breaks that need escaping
+final class BenchmarkPages {
+    private BenchmarkPages() {
+    }
+
+    // Pages of `hosts` distinct domains, crawled about five a second so timestamps vary
+    static PageData[] create(int count, int hosts) {
+        PageData[] pages = new PageData[count];
+        long start = 1_700_000_000_000L;
+        for (int i = 0; i < count; i++) {
+            String host = "site" + (i % hosts) + ".example.com";
+            PageData page = new PageData("https://" + host + "/articles/" + i + "?ref=\"home\"");
+            page.setTitle("Article " + i + ": \"Quoted\" title, with commas");
+            page.setDescription("A description that spans\nmore than one line and has a tab\there");
+            StringBuilder content = new StringBuilder();
+            for (int w = 0; w < 400; w++) {
+                content.append("word").append(w % 37).append(' ');
+            }
+            page.setContent(content.toString());
+            page.setLinkCount(40);
+            page.setImageCount(6);
+            for (int h = 0; h < 5; h++) {
+                page.addHeading("h2: Section " + h);
+            }
+            page.addEmail("contact" + (i % 50) + "@" + host);
+            page.addPhoneNumber("555-010-" + (1000 + i % 100));
+            for (int l = 0; l < 40; l++) {
+                page.addLink("https://" + host + "/articles/" + (i + l));
+            }
+            for (int m = 0; m < 6; m++) {
+                page.addImage("https://" + host + "/img/" + i + "-" + m + ".png");
+            }
+            page.setHasContactForm(i % 3 == 0);
+            page.setDepth(i % 4);
+            page.setCrawlTime(start + i * 200L);
+            pages[i] = page;
+        }
+        return pages;
+    }
+}
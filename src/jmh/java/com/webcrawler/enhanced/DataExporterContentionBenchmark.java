@@ -0,0 +1,160 @@
+package com.webcrawler.enhanced;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * DataExporter.addPageData from 1, 4, 16 and 64 sink threads at once: the striped shards
+ * and concurrent sets it uses now, against the synchronized list and sets it used before
+ * ({@link LockedIngest}). Pages are built up front so only ingestion is measured, and
+ * both collectors are replaced every iteration to keep the heap steady. Thread counts
+ * above the machine's core count only measure time-slicing, so compare the two at each
+ * count up to the number of cores.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class DataExporterContentionBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Shared {
+        PageData[] pages;
+        Path outputDir;
+        DataExporter exporter;
+        LockedIngest locked;
+
+        @Setup(Level.Trial)
+        public void createPages() throws IOException {
+            pages = BenchmarkPages.create(4096, 32);
+            outputDir = Files.createTempDirectory("exporter-bench");
+        }
+
+        @Setup(Level.Iteration)
+        public void resetCollectors() {
+            exporter = new DataExporter(outputDir.toString());
+            locked = new LockedIngest();
+        }
+
+        @TearDown(Level.Trial)
+        public void deleteOutput() throws IOException {
+            try (Stream<Path> files = Files.walk(outputDir)) {
+                files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+
+        @Setup
+        public void spread() {
+            next = (int) (Thread.currentThread().getId() * 61);
+        }
+
+        PageData nextPage(Shared shared) {
+            next = (next + 1) & (shared.pages.length - 1);
+            return shared.pages[next];
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void striped01(Shared shared, Cursor cursor) {
+        striped(shared, cursor);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void striped04(Shared shared, Cursor cursor) {
+        striped(shared, cursor);
+    }
+
+    @Benchmark
+    @Threads(16)
+    public void striped16(Shared shared, Cursor cursor) {
+        striped(shared, cursor);
+    }
+
+    @Benchmark
+    @Threads(64)
+    public void striped64(Shared shared, Cursor cursor) {
+        striped(shared, cursor);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void locked01(Shared shared, Cursor cursor) {
+        locked(shared, cursor);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void locked04(Shared shared, Cursor cursor) {
+        locked(shared, cursor);
+    }
+
+    @Benchmark
+    @Threads(16)
+    public void locked16(Shared shared, Cursor cursor) {
+        locked(shared, cursor);
+    }
+
+    @Benchmark
+    @Threads(64)
+    public void locked64(Shared shared, Cursor cursor) {
+        locked(shared, cursor);
+    }
+
+    private static void striped(Shared shared, Cursor cursor) {
+        shared.exporter.addPageData(cursor.nextPage(shared));
+    }
+
+    private static void locked(Shared shared, Cursor cursor) {
+        shared.locked.addPageData(cursor.nextPage(shared));
+    }
+
+    // DataExporter's ingestion before it was sharded: one synchronized list and synchronized sets
+    static final class LockedIngest {
+        private final Map<String, ContentAggregate> statsByDomain = new ConcurrentHashMap<>();
+        private final ContentAggregate totals = new ContentAggregate();
+        private final List<PageData> allPageData = Collections.synchronizedList(new ArrayList<>());
+        private final Set<String> allEmails = Collections.synchronizedSet(new HashSet<>());
+        private final Set<String> allPhoneNumbers = Collections.synchronizedSet(new HashSet<>());
+
+        void addPageData(PageData pageData) {
+            allPageData.add(pageData);
+            statsByDomain.computeIfAbsent(pageData.getDomain(), k -> new ContentAggregate()).add(pageData);
+            totals.add(pageData);
+            allEmails.addAll(pageData.getEmails());
+            allPhoneNumbers.addAll(pageData.getPhoneNumbers());
+        }
+    }
+}
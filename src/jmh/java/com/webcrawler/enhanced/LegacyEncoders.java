@@ -0,0 +1,82 @@
+package com.webcrawler.enhanced;
+
+import java.util.List;
+
+// PageData.toCSV/toJSON as they were before RecordEncoder, kept as the benchmark baseline
+final class LegacyEncoders {
+    private LegacyEncoders() {
+    }
+
+    static String toCSV(PageData page) {
+        return String.format("\"%s\",\"%s\",\"%s\",%d,%d,%d,%d,%d,%d,\"%s\",%b,%d,%s",
+            escapeCSV(page.getUrl()),
+            escapeCSV(page.getTitle()),
+            escapeCSV(page.getDescription()),
+            page.getWordCount(),
+            page.getLinkCount(),
+            page.getImageCount(),
+            page.getHeadings().size(),
+            page.getEmails().size(),
+            page.getPhoneNumbers().size(),
+            escapeCSV(page.getDomain()),
+            page.hasContactForm(),
+            page.getDepth(),
+            new java.util.Date(page.getCrawlTime()).toString()
+        );
+    }
+
+    private static String escapeCSV(String value) {
+        if (value == null) return "";
+        return value.replace("\"", "\"\"").replace("\n", " ").replace("\r", " ");
+    }
+
+    static String toJSON(PageData page) {
+        StringBuilder json = new StringBuilder();
+        json.append("{\n");
+        json.append(String.format("  \"url\": \"%s\",\n", escapeJSON(page.getUrl())));
+        json.append(String.format("  \"title\": \"%s\",\n", escapeJSON(page.getTitle())));
+        json.append(String.format("  \"description\": \"%s\",\n", escapeJSON(page.getDescription())));
+        json.append(String.format("  \"domain\": \"%s\",\n", escapeJSON(page.getDomain())));
+        json.append(String.format("  \"depth\": %d,\n", page.getDepth()));
+        json.append(String.format("  \"wordCount\": %d,\n", page.getWordCount()));
+        json.append(String.format("  \"linkCount\": %d,\n", page.getLinkCount()));
+        json.append(String.format("  \"imageCount\": %d,\n", page.getImageCount()));
+        json.append(String.format("  \"headingCount\": %d,\n", page.getHeadings().size()));
+        json.append(String.format("  \"emailCount\": %d,\n", page.getEmails().size()));
+        json.append(String.format("  \"phoneCount\": %d,\n", page.getPhoneNumbers().size()));
+        json.append(String.format("  \"hasContactForm\": %b,\n", page.hasContactForm()));
+        json.append(String.format("  \"contentLength\": %d,\n", page.getContentLength()));
+        json.append(String.format("  \"crawlTime\": \"%s\",\n", new java.util.Date(page.getCrawlTime())));
+        if (page.getLastModified() > 0) {
+            json.append(String.format("  \"lastModified\": \"%s\",\n", java.time.Instant.ofEpochMilli(page.getLastModified())));
+        }
+
+        json.append("  \"headings\": [" + listToJSON(page.getHeadings()) + "],\n");
+        json.append("  \"emails\": [" + listToJSON(page.getEmails()) + "],\n");
+        json.append("  \"phoneNumbers\": [" + listToJSON(page.getPhoneNumbers()) + "],\n");
+        json.append("  \"links\": [" + listToJSON(page.getLinks()) + "],\n");
+        json.append("  \"images\": [" + listToJSON(page.getImages()) + "]\n");
+
+        json.append("}");
+        return json.toString();
+    }
+
+    private static String escapeJSON(String value) {
+        if (value == null) return "";
+        return value.replace("\\", "\\\\")
+                   .replace("\"", "\\\"")
+                   .replace("\n", "\\n")
+                   .replace("\r", "\\r")
+                   .replace("\t", "\\t");
+    }
+
+    private static String listToJSON(List<String> list) {
+        if (list.isEmpty()) return "";
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < list.size(); i++) {
+            if (i > 0) sb.append(", ");
+            sb.append("\"").append(escapeJSON(list.get(i))).append("\"");
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,106 @@
+package com.webcrawler.enhanced;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.webcrawler.RecordEncoder;
+
+/**
+ * Per-record cost of the crawl_results CSV and JSON encoders: PageData streaming through
+ * one RecordEncoder, as DataExporter does, against the String.format encoders it replaced
+ * ({@link LegacyEncoders}). Run with {@code -prof gc} and compare gc.alloc.rate.norm,
+ * the bytes allocated per record.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PageDataEncodingBenchmark {
+    private PageData[] pages;
+    private CountingWriter writer;
+    private RecordEncoder encoder;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        pages = BenchmarkPages.create(256, 8);
+        writer = new CountingWriter();
+        encoder = new RecordEncoder(writer);
+    }
+
+    private PageData nextPage() {
+        PageData page = pages[next];
+        next = (next + 1) & (pages.length - 1);
+        return page;
+    }
+
+    @Benchmark
+    public long streamCsv() throws IOException {
+        nextPage().writeCSV(encoder);
+        return writer.count;
+    }
+
+    @Benchmark
+    public long streamJson() throws IOException {
+        nextPage().writeJSON(encoder);
+        return writer.count;
+    }
+
+    @Benchmark
+    public String legacyCsv() {
+        return LegacyEncoders.toCSV(nextPage());
+    }
+
+    @Benchmark
+    public String legacyJson() {
+        return LegacyEncoders.toJSON(nextPage());
+    }
+
+    // Stands in for the exporter's BufferedWriter without allocating or growing a buffer
+    static final class CountingWriter extends Writer {
+        long count;
+
+        @Override
+        public void write(int c) {
+            count++;
+        }
+
+        @Override
+        public void write(char[] buffer, int offset, int length) {
+            count += length;
+        }
+
+        @Override
+        public void write(String text, int offset, int length) {
+            count += length;
+        }
+
+        @Override
+        public Writer append(CharSequence text, int start, int end) {
+            count += end - start;
+            return this;
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
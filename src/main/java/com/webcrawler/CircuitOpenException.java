@@ -0,0 +1,19 @@
+package com.webcrawler;
+
+import java.io.IOException;
+
+// Thrown instead of connecting while a host's circuit breaker is open
+public class CircuitOpenException extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    private final long retryAfterMillis;
+
+    public CircuitOpenException(String host, long retryAfterMillis) {
+        super("Circuit open for " + host + ", retry in " + retryAfterMillis + "ms");
+        this.retryAfterMillis = retryAfterMillis;
+    }
+
+    public long getRetryAfterMillis() {
+        return retryAfterMillis;
+    }
+}
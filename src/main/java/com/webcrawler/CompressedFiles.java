@@ -0,0 +1,79 @@
+package com.webcrawler;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Per-file gzip storage for crawl output. Writers append ".gz" when compression is on;
+ * readers accept either name and decompress transparently.
+ */
+public final class CompressedFiles {
+    public static final String GZIP_SUFFIX = ".gz";
+
+    private CompressedFiles() {
+    }
+
+    // Writes the bytes to path (or path + ".gz") and returns the file actually written
+    public static Path write(Path path, byte[] data, boolean compress) throws IOException {
+        if (!compress) {
+            // Straight to the channel: no stream wrappers or intermediate copies of the body
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer buffer = ByteBuffer.wrap(data);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            }
+            return path;
+        }
+        Path target = path.resolveSibling(path.getFileName() + GZIP_SUFFIX);
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(target), 8192)) {
+            out.write(data);
+        }
+        return target;
+    }
+
+    public static Path writeString(Path path, String text, boolean compress) throws IOException {
+        return write(path, text.getBytes(StandardCharsets.UTF_8), compress);
+    }
+
+    // Opens path, falling back to path + ".gz", and unwraps gzip by magic bytes
+    public static InputStream newInputStream(Path path) throws IOException {
+        Path source = path;
+        if (!Files.exists(source)) {
+            Path gz = path.resolveSibling(path.getFileName() + GZIP_SUFFIX);
+            if (Files.exists(gz)) {
+                source = gz;
+            }
+        }
+        BufferedInputStream in = new BufferedInputStream(Files.newInputStream(source));
+        in.mark(2);
+        int b1 = in.read();
+        int b2 = in.read();
+        in.reset();
+        if (b1 == 0x1f && b2 == 0x8b) {
+            return new GZIPInputStream(in, 8192);
+        }
+        return in;
+    }
+
+    public static byte[] readAllBytes(Path path) throws IOException {
+        try (InputStream in = newInputStream(path)) {
+            return in.readAllBytes();
+        }
+    }
+
+    public static String readString(Path path) throws IOException {
+        return new String(readAllBytes(path), StandardCharsets.UTF_8);
+    }
+}
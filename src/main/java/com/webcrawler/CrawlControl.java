@@ -0,0 +1,121 @@
+package com.webcrawler;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Runtime controls shared by a crawler and its workers: cooperative cancel, pause/resume,
+ * and the live worker count and politeness delay. Workers check in between tasks, so
+ * in-flight fetches always finish and the frontier is kept across pauses.
+ */
+public class CrawlControl {
+    private final CountDownLatch cancelled = new CountDownLatch(1);
+    private final ReentrantLock pauseLock = new ReentrantLock();
+    private final Condition unpaused = pauseLock.newCondition();
+    private volatile boolean paused;
+
+    private final AtomicInteger targetWorkers;
+    private final AtomicInteger liveWorkers = new AtomicInteger(0);
+    private final AtomicLong delayBetweenRequests;
+
+    public CrawlControl(CrawlerConfig config) {
+        this.targetWorkers = new AtomicInteger(config.getMaxThreads());
+        this.delayBetweenRequests = new AtomicLong(config.getDelayBetweenRequests());
+    }
+
+    public void cancel() {
+        cancelled.countDown();
+        resume(); // release paused workers so they can exit
+    }
+
+    public boolean isCancelled() {
+        return cancelled.getCount() == 0;
+    }
+
+    // Sleeps up to the timeout; returns true as soon as the crawl is cancelled
+    public boolean awaitCancellation(long timeoutMillis) throws InterruptedException {
+        return cancelled.await(timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public void pause() {
+        paused = true;
+    }
+
+    public void resume() {
+        pauseLock.lock();
+        try {
+            paused = false;
+            unpaused.signalAll();
+        } finally {
+            pauseLock.unlock();
+        }
+    }
+
+    public boolean isPaused() {
+        return paused;
+    }
+
+    public void awaitIfPaused() throws InterruptedException {
+        if (!paused) return;
+        pauseLock.lock();
+        try {
+            while (paused && !isCancelled()) {
+                unpaused.await();
+            }
+        } finally {
+            pauseLock.unlock();
+        }
+    }
+
+    public long getDelayBetweenRequests() {
+        return delayBetweenRequests.get();
+    }
+
+    public void setDelayBetweenRequests(long delay) {
+        delayBetweenRequests.set(Math.max(0, delay));
+    }
+
+    public int getTargetWorkers() {
+        return targetWorkers.get();
+    }
+
+    // Returns how many workers the caller must start to reach the new target (0 when shrinking)
+    public int setTargetWorkers(int target) {
+        targetWorkers.set(Math.max(1, target));
+        int missing = 0;
+        while (true) {
+            int live = liveWorkers.get();
+            if (live >= targetWorkers.get()) {
+                return missing;
+            }
+            if (liveWorkers.compareAndSet(live, live + 1)) {
+                missing++;
+            }
+        }
+    }
+
+    public int getLiveWorkers() {
+        return liveWorkers.get();
+    }
+
+    // A worker calls this between tasks; true means it has been retired and must exit
+    public boolean retireIfOverTarget() {
+        while (true) {
+            int live = liveWorkers.get();
+            if (live <= targetWorkers.get()) {
+                return false;
+            }
+            if (liveWorkers.compareAndSet(live, live - 1)) {
+                return true;
+            }
+        }
+    }
+
+    public void workerExited() {
+        liveWorkers.decrementAndGet();
+    }
+}
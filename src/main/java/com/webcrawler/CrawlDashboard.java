@@ -0,0 +1,189 @@
+package com.webcrawler;
+
+import javax.swing.*;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Element;
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Live crawl view driven by a fixed Swing timer. Each tick drains the log ring buffer and
+ * takes one stats snapshot, so EDT work is bounded by the tick rate, not by crawl speed.
+ */
+public class CrawlDashboard extends JPanel {
+    private static final long serialVersionUID = 1L;
+    private static final int REFRESH_MS = 500;
+    private static final int MAX_LOG_LINES = 2000;
+    private static final int CHART_POINTS = 120; // one minute of history at 500 ms
+
+    private final LogRingBuffer logBuffer;
+    private final JTextArea logArea;
+    private final JLabel statsLabel;
+    private final Chart throughputChart;
+    private final Chart latencyChart;
+    private final Timer timer;
+    private final List<String> drained = new ArrayList<>();
+
+    private Supplier<StatsSnapshot> statsSource;
+    private StatsSnapshot previous;
+
+    public CrawlDashboard(LogRingBuffer logBuffer) {
+        super(new BorderLayout());
+        this.logBuffer = logBuffer;
+
+        statsLabel = new JLabel(" ");
+        statsLabel.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 13));
+
+        throughputChart = new Chart("Pages/sec", new Color(46, 125, 50), CHART_POINTS);
+        latencyChart = new Chart("Fetch p95 (ms)", new Color(198, 40, 40), CHART_POINTS);
+        JPanel charts = new JPanel(new GridLayout(1, 2, 8, 0));
+        charts.add(throughputChart);
+        charts.add(latencyChart);
+        charts.setPreferredSize(new Dimension(0, 140));
+
+        JPanel top = new JPanel(new BorderLayout());
+        top.add(statsLabel, BorderLayout.NORTH);
+        top.add(charts, BorderLayout.CENTER);
+
+        logArea = new JTextArea();
+        logArea.setEditable(false);
+        logArea.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 14));
+
+        add(top, BorderLayout.NORTH);
+        add(new JScrollPane(logArea), BorderLayout.CENTER);
+
+        timer = new Timer(REFRESH_MS, e -> refresh());
+    }
+
+    public void start(Supplier<StatsSnapshot> statsSource) {
+        this.statsSource = statsSource;
+        this.previous = null;
+        logArea.setText("");
+        throughputChart.clear();
+        latencyChart.clear();
+        timer.start();
+    }
+
+    public void stop() {
+        refresh(); // flush whatever arrived since the last tick
+        timer.stop();
+    }
+
+    private void refresh() {
+        drained.clear();
+        logBuffer.drainTo(drained);
+        if (!drained.isEmpty()) {
+            appendLines(drained);
+        }
+
+        if (statsSource == null) return;
+        StatsSnapshot current = statsSource.get();
+        if (current == null) return;
+
+        if (previous != null) {
+            double seconds = Math.max(1, current.getTimestamp() - previous.getTimestamp()) / 1000.0;
+            throughputChart.add((current.getPagesCrawled() - previous.getPagesCrawled()) / seconds);
+            latencyChart.add(LatencyHistogram.percentile(current.latencySince(previous), 0.95));
+        }
+        statsLabel.setText(String.format(
+            " Crawled: %d   Queued: %d   Failed: %d   Skipped: %d   %.2f MB   %.2f pages/sec   Log dropped: %d",
+            current.getPagesCrawled(), current.getPagesQueued(), current.getFailedPages(),
+            current.getSkippedResources(), current.getTotalBytesDownloaded() / (1024.0 * 1024.0),
+            current.getPagesPerSecond(), logBuffer.getDropped()));
+        previous = current;
+    }
+
+    private void appendLines(List<String> lines) {
+        StringBuilder text = new StringBuilder();
+        for (String line : lines) {
+            text.append(line).append('\n');
+        }
+        logArea.append(text.toString());
+
+        // Keep the document bounded so it doesn't grow for the lifetime of the crawl
+        Element root = logArea.getDocument().getDefaultRootElement();
+        int excess = root.getElementCount() - MAX_LOG_LINES;
+        if (excess > 0) {
+            try {
+                logArea.getDocument().remove(0, root.getElement(excess - 1).getEndOffset());
+            } catch (BadLocationException e) {
+                logArea.setText("");
+            }
+        }
+        logArea.setCaretPosition(logArea.getDocument().getLength());
+    }
+
+    // Minimal line chart over a fixed-size ring of samples
+    static class Chart extends JComponent {
+        private static final long serialVersionUID = 1L;
+
+        private final String title;
+        private final Color color;
+        private final double[] values;
+        private int count;
+        private int head;
+
+        Chart(String title, Color color, int capacity) {
+            this.title = title;
+            this.color = color;
+            this.values = new double[capacity];
+            setBorder(BorderFactory.createEtchedBorder());
+        }
+
+        void add(double value) {
+            values[head] = value;
+            head = (head + 1) % values.length;
+            count = Math.min(count + 1, values.length);
+            repaint();
+        }
+
+        void clear() {
+            count = 0;
+            head = 0;
+            repaint();
+        }
+
+        @Override
+        protected void paintComponent(Graphics g) {
+            Graphics2D g2 = (Graphics2D) g.create();
+            g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            int w = getWidth();
+            int h = getHeight();
+            g2.setColor(Color.WHITE);
+            g2.fillRect(0, 0, w, h);
+
+            double max = 1;
+            for (int i = 0; i < count; i++) {
+                max = Math.max(max, values[i]);
+            }
+            double last = count > 0 ? values[(head - 1 + values.length) % values.length] : 0;
+
+            g2.setColor(Color.DARK_GRAY);
+            g2.drawString(String.format("%s: %.1f (max %.1f)", title, last, max), 6, 14);
+
+            if (count > 1) {
+                int top = 20;
+                int plotHeight = h - top - 4;
+                double step = (w - 8) / (double) (values.length - 1);
+                int start = (head - count + values.length) % values.length;
+                int offset = values.length - count;
+                g2.setColor(color);
+                int prevX = 0;
+                int prevY = 0;
+                for (int i = 0; i < count; i++) {
+                    double v = values[(start + i) % values.length];
+                    int x = 4 + (int) ((offset + i) * step);
+                    int y = top + plotHeight - (int) (v / max * plotHeight);
+                    if (i > 0) {
+                        g2.drawLine(prevX, prevY, x, y);
+                    }
+                    prevX = x;
+                    prevY = y;
+                }
+            }
+            g2.dispose();
+        }
+    }
+}
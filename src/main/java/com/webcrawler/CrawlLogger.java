@@ -0,0 +1,294 @@
+package com.webcrawler;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Asynchronous crawler log. Worker threads only enqueue a record into a lock-free ring;
+ * formatting, console output, subscribers and the rolling per-page event files all run
+ * on a single background thread. Each crawl opens its own {@link EventLog}, so crawls
+ * running side by side never write into each other's files. Disabled levels return before anything is allocated
+ * beyond the varargs array.
+ */
+public final class CrawlLogger {
+    public enum Level { DEBUG, INFO, WARN, ERROR }
+
+    private static final CrawlLogger INSTANCE = new CrawlLogger(16384);
+
+    private final MpscRingQueue<Record> ring;
+    private final List<Consumer<String>> subscribers = new CopyOnWriteArrayList<>();
+    private final AtomicLong dropped = new AtomicLong(0);
+    private final AtomicLong enqueued = new AtomicLong(0);
+    private final AtomicLong drained = new AtomicLong(0);
+    private final Thread drainThread;
+
+    private volatile Level level = Level.INFO;
+    private volatile boolean consoleEnabled = true;
+    private final List<EventLog> eventLogs = new CopyOnWriteArrayList<>();
+
+    private CrawlLogger(int capacity) {
+        this.ring = new MpscRingQueue<>(capacity);
+        this.drainThread = new Thread(this::drainLoop, "crawl-logger");
+        this.drainThread.setDaemon(true);
+        this.drainThread.start();
+    }
+
+    public static CrawlLogger get() {
+        return INSTANCE;
+    }
+
+    public void setLevel(Level level) { this.level = level; }
+    public Level getLevel() { return level; }
+    public void setConsoleEnabled(boolean enabled) { this.consoleEnabled = enabled; }
+
+    public boolean isEnabled(Level candidate) {
+        return candidate.ordinal() >= level.ordinal();
+    }
+
+    public void addSubscriber(Consumer<String> subscriber) { subscribers.add(subscriber); }
+    public void removeSubscriber(Consumer<String> subscriber) { subscribers.remove(subscriber); }
+
+    // Per-page events are written as JSON lines, rolling once a file exceeds maxBytes; the caller closes it
+    public EventLog openEventLog(Path directory, long maxBytes, int maxFiles) {
+        EventLog eventLog = new EventLog(directory.resolve("crawl-events.jsonl"), maxBytes, maxFiles);
+        eventLogs.add(eventLog);
+        return eventLog;
+    }
+
+    public void debug(String template, Object... args) { log(Level.DEBUG, template, args); }
+    public void info(String template, Object... args) { log(Level.INFO, template, args); }
+    public void warn(String template, Object... args) { log(Level.WARN, template, args); }
+    public void error(String template, Object... args) { log(Level.ERROR, template, args); }
+
+    public void log(Level recordLevel, String template, Object... args) {
+        if (!isEnabled(recordLevel)) {
+            return;
+        }
+        enqueue(new Record(recordLevel, template, args, null, null));
+    }
+
+    // Blocks (briefly) until everything enqueued so far has been written
+    public void flush() {
+        long target = enqueued.get();
+        long deadline = System.currentTimeMillis() + 5000;
+        while (drained.get() + dropped.get() < target && System.currentTimeMillis() < deadline) {
+            LockSupport.unpark(drainThread);
+            LockSupport.parkNanos(1_000_000);
+        }
+    }
+
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    private void enqueue(Record record) {
+        enqueued.incrementAndGet();
+        if (!ring.offer(record)) {
+            dropped.incrementAndGet(); // never block a crawl thread on logging
+        }
+    }
+
+    private void drainLoop() {
+        int idleSpins = 0;
+        while (true) {
+            Record record = ring.poll();
+            if (record == null) {
+                if (idleSpins == 0) {
+                    for (EventLog eventLog : eventLogs) {
+                        eventLog.flushFile();
+                    }
+                }
+                idleSpins++;
+                LockSupport.parkNanos(idleSpins < 100 ? 100_000 : 2_000_000);
+                continue;
+            }
+            idleSpins = 0;
+            try {
+                write(record);
+            } catch (RuntimeException e) {
+                System.err.println("Logger failed to write record: " + e);
+            }
+            drained.incrementAndGet();
+        }
+    }
+
+    private void write(Record record) {
+        if (record.event != null) {
+            record.eventLog.write(record.event.toJson());
+            return;
+        }
+
+        String message = record.args == null || record.args.length == 0
+            ? record.template
+            : String.format(record.template, record.args);
+
+        if (consoleEnabled) {
+            if (record.level.ordinal() >= Level.WARN.ordinal()) {
+                System.err.println(message);
+            } else {
+                System.out.println(message);
+            }
+        }
+        for (Consumer<String> subscriber : subscribers) {
+            subscriber.accept(message);
+        }
+    }
+
+    private static final class Record {
+        final Level level;
+        final String template;
+        final Object[] args;
+        final PageEvent event;
+        final EventLog eventLog;
+
+        Record(Level level, String template, Object[] args, PageEvent event, EventLog eventLog) {
+            this.level = level;
+            this.template = template;
+            this.args = args;
+            this.event = event;
+            this.eventLog = eventLog;
+        }
+    }
+
+    private static final class PageEvent {
+        final long time;
+        final String type;
+        final String url;
+        final int depth;
+        final int status;
+        final long bytes;
+        final long latencyMillis;
+
+        PageEvent(long time, String type, String url, int depth, int status, long bytes, long latencyMillis) {
+            this.time = time;
+            this.type = type;
+            this.url = url;
+            this.depth = depth;
+            this.status = status;
+            this.bytes = bytes;
+            this.latencyMillis = latencyMillis;
+        }
+
+        String toJson() {
+            StringBuilder sb = new StringBuilder(96 + url.length());
+            sb.append("{\"time\":").append(time)
+              .append(",\"type\":\"").append(type)
+              .append("\",\"url\":\"");
+            for (int i = 0; i < url.length(); i++) {
+                char c = url.charAt(i);
+                if (c == '"' || c == '\\') sb.append('\\');
+                if (c >= 0x20) sb.append(c);
+            }
+            sb.append("\",\"depth\":").append(depth)
+              .append(",\"status\":").append(status)
+              .append(",\"bytes\":").append(bytes)
+              .append(",\"latencyMs\":").append(latencyMillis)
+              .append('}');
+            return sb.toString();
+        }
+    }
+
+    // One crawl's event file. Crawl threads only enqueue; the drain thread does the writing.
+    public final class EventLog implements Closeable {
+        private final Path path;
+        private final long maxBytes;
+        private final int maxFiles;
+        private BufferedWriter writer;
+        private long written;
+        private volatile boolean closed;
+        private boolean released;
+
+        private EventLog(Path path, long maxBytes, int maxFiles) {
+            this.path = path;
+            this.maxBytes = maxBytes;
+            this.maxFiles = maxFiles;
+        }
+
+        public void pageEvent(String type, String url, int depth, int status, long bytes, long latencyMillis) {
+            if (closed) {
+                return;
+            }
+            enqueue(new Record(Level.INFO, null, null,
+                new PageEvent(System.currentTimeMillis(), type, url, depth, status, bytes, latencyMillis), this));
+        }
+
+        // Writes out the events queued so far, then releases the file
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            flush();
+            eventLogs.remove(this);
+            closeFile();
+        }
+
+        private synchronized void write(String line) {
+            if (released) {
+                return; // enqueued just before close() but drained after it
+            }
+            try {
+                if (writer == null) {
+                    Files.createDirectories(path.getParent());
+                    writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+                    written = Files.size(path);
+                }
+                writer.write(line);
+                writer.newLine();
+                written += line.length() + 1;
+                if (written >= maxBytes) {
+                    roll();
+                }
+            } catch (IOException e) {
+                System.err.println("⚠️ Failed to write crawl event: " + e.getMessage());
+            }
+        }
+
+        private synchronized void flushFile() {
+            if (writer == null) return;
+            try {
+                writer.flush();
+            } catch (IOException e) {
+                System.err.println("⚠️ Failed to flush crawl events: " + e.getMessage());
+            }
+        }
+
+        private synchronized void closeFile() {
+            released = true;
+            if (writer == null) return;
+            try {
+                writer.close();
+            } catch (IOException e) {
+                System.err.println("⚠️ Failed to close crawl events: " + e.getMessage());
+            }
+            writer = null;
+        }
+
+        private void roll() throws IOException {
+            writer.close();
+            writer = null;
+            for (int i = maxFiles - 1; i >= 1; i--) {
+                Path older = path.resolveSibling(path.getFileName() + "." + i);
+                if (Files.exists(older)) {
+                    Files.move(older, path.resolveSibling(path.getFileName() + "." + (i + 1)),
+                        StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+            Files.move(path, path.resolveSibling(path.getFileName() + ".1"), StandardCopyOption.REPLACE_EXISTING);
+            Files.deleteIfExists(path.resolveSibling(path.getFileName() + "." + (maxFiles + 1)));
+        }
+    }
+}
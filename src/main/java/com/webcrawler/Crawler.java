@@ -0,0 +1,27 @@
+package com.webcrawler;
+
+// What a front end (CLI, GUI, crawl server) needs from a crawler: run it and steer it while it runs
+public interface Crawler {
+    // Blocks until the crawl finishes or is cancelled, then drains the pipeline and writes results
+    void startCrawling(String seedUrl) throws InterruptedException;
+
+    void pause();
+
+    void resume();
+
+    void cancel();
+
+    boolean isPaused();
+
+    boolean isCancelled();
+
+    CrawlerStats getStats();
+
+    void setWorkerCount(int workers);
+
+    int getWorkerCount();
+
+    void setDelayBetweenRequests(long delayMillis);
+
+    long getDelayBetweenRequests();
+}
@@ -1,12 +1,67 @@
 package com.webcrawler;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.webcrawler.rules.ExtractionRule;
+
 public class CrawlerConfig {
+    // What to do with fetched resources that are not HTML
+    public enum NonHtmlPolicy { METADATA_ONLY, STREAM_TO_DISK }
+
+    // What the frontier does with new URLs once it is full or the heap is over the watermark
+    public enum FrontierOverflowPolicy { DROP_NEWEST, DROP_DEEPEST, SPILL_TO_DISK }
+
+    // FLAT keeps the legacy host+path file names; HASHED shards files by URL hash
+    public enum PageLayout { FLAT, HASHED }
+
     private final int maxThreads;
     private final int maxPages;
     private final int maxDepth;
     private final long delayBetweenRequests;
     private final int connectTimeout;
     private final String userAgent;
+    private final long maxBodySize;
+    private final NonHtmlPolicy nonHtmlPolicy;
+    private final boolean compressStorage;
+    private final long dnsCacheTtl;
+    private final long dnsNegativeTtl;
+    private final int dnsPrefetchThreads;
+    private final int maxFrontierSize;
+    private final FrontierOverflowPolicy frontierOverflowPolicy;
+    private final double heapHighWatermark;
+    private final long backpressureMaxWait;
+    private final int maxRetries;
+    private final long retryBaseDelay;
+    private final long retryMaxDelay;
+    private final int breakerFailureThreshold;
+    private final long breakerOpenDuration;
+    private final long breakerProbeTimeout;
+    private final CrawlLogger.Level logLevel;
+    private final boolean eventLogEnabled;
+    private final int parseThreads;
+    private final int extractThreads;
+    private final int sinkThreads;
+    private final int stageQueueCapacity;
+    private final boolean searchIndexEnabled;
+    private final boolean linkGraphEnabled;
+    private final boolean sitemapSeeding;
+    private final boolean downloadImages;
+    private final long maxImageBytes;
+    private final int imageThreads;
+    private final int imagesPerHost;
+    private final PageLayout pageLayout;
+    private final boolean trapDetection;
+    private final int trapTemplateBudget;
+    private final double trapMinYield;
+    private final boolean nearDuplicateDetection;
+    private final int nearDuplicateDistance;
+    private final boolean skipNearDuplicateStorage;
+    private final boolean adaptiveTimeouts;
+    private final boolean hedgeRequests;
+    private final double hedgeBudget;
+    private final List<ExtractionRule> extractionRules;
 
     private CrawlerConfig(Builder builder) {
         this.maxThreads = builder.maxThreads;
@@ -15,6 +70,98 @@ public class CrawlerConfig {
         this.delayBetweenRequests = builder.delayBetweenRequests;
         this.connectTimeout = builder.connectTimeout;
         this.userAgent = builder.userAgent;
+        this.maxBodySize = builder.maxBodySize;
+        this.nonHtmlPolicy = builder.nonHtmlPolicy;
+        this.compressStorage = builder.compressStorage;
+        this.dnsCacheTtl = builder.dnsCacheTtl;
+        this.dnsNegativeTtl = builder.dnsNegativeTtl;
+        this.dnsPrefetchThreads = builder.dnsPrefetchThreads;
+        this.maxFrontierSize = builder.maxFrontierSize;
+        this.frontierOverflowPolicy = builder.frontierOverflowPolicy;
+        this.heapHighWatermark = builder.heapHighWatermark;
+        this.backpressureMaxWait = builder.backpressureMaxWait;
+        this.maxRetries = builder.maxRetries;
+        this.retryBaseDelay = builder.retryBaseDelay;
+        this.retryMaxDelay = builder.retryMaxDelay;
+        this.breakerFailureThreshold = builder.breakerFailureThreshold;
+        this.breakerOpenDuration = builder.breakerOpenDuration;
+        this.breakerProbeTimeout = builder.breakerProbeTimeout;
+        this.logLevel = builder.logLevel;
+        this.eventLogEnabled = builder.eventLogEnabled;
+        this.parseThreads = builder.parseThreads;
+        this.extractThreads = builder.extractThreads;
+        this.sinkThreads = builder.sinkThreads;
+        this.stageQueueCapacity = builder.stageQueueCapacity;
+        this.searchIndexEnabled = builder.searchIndexEnabled;
+        this.linkGraphEnabled = builder.linkGraphEnabled;
+        this.sitemapSeeding = builder.sitemapSeeding;
+        this.downloadImages = builder.downloadImages;
+        this.maxImageBytes = builder.maxImageBytes;
+        this.imageThreads = builder.imageThreads;
+        this.imagesPerHost = builder.imagesPerHost;
+        this.pageLayout = builder.pageLayout;
+        this.trapDetection = builder.trapDetection;
+        this.trapTemplateBudget = builder.trapTemplateBudget;
+        this.trapMinYield = builder.trapMinYield;
+        this.nearDuplicateDetection = builder.nearDuplicateDetection;
+        this.nearDuplicateDistance = builder.nearDuplicateDistance;
+        this.skipNearDuplicateStorage = builder.skipNearDuplicateStorage;
+        this.adaptiveTimeouts = builder.adaptiveTimeouts;
+        this.hedgeRequests = builder.hedgeRequests;
+        this.hedgeBudget = builder.hedgeBudget;
+        this.extractionRules = Collections.unmodifiableList(new ArrayList<>(builder.extractionRules));
+    }
+
+    // A builder preset to this config, for deriving a variant that overrides a few settings
+    public Builder toBuilder() {
+        Builder builder = new Builder();
+        builder.maxThreads = maxThreads;
+        builder.maxPages = maxPages;
+        builder.maxDepth = maxDepth;
+        builder.delayBetweenRequests = delayBetweenRequests;
+        builder.connectTimeout = connectTimeout;
+        builder.userAgent = userAgent;
+        builder.maxBodySize = maxBodySize;
+        builder.nonHtmlPolicy = nonHtmlPolicy;
+        builder.compressStorage = compressStorage;
+        builder.dnsCacheTtl = dnsCacheTtl;
+        builder.dnsNegativeTtl = dnsNegativeTtl;
+        builder.dnsPrefetchThreads = dnsPrefetchThreads;
+        builder.maxFrontierSize = maxFrontierSize;
+        builder.frontierOverflowPolicy = frontierOverflowPolicy;
+        builder.heapHighWatermark = heapHighWatermark;
+        builder.backpressureMaxWait = backpressureMaxWait;
+        builder.maxRetries = maxRetries;
+        builder.retryBaseDelay = retryBaseDelay;
+        builder.retryMaxDelay = retryMaxDelay;
+        builder.breakerFailureThreshold = breakerFailureThreshold;
+        builder.breakerOpenDuration = breakerOpenDuration;
+        builder.breakerProbeTimeout = breakerProbeTimeout;
+        builder.logLevel = logLevel;
+        builder.eventLogEnabled = eventLogEnabled;
+        builder.parseThreads = parseThreads;
+        builder.extractThreads = extractThreads;
+        builder.sinkThreads = sinkThreads;
+        builder.stageQueueCapacity = stageQueueCapacity;
+        builder.searchIndexEnabled = searchIndexEnabled;
+        builder.linkGraphEnabled = linkGraphEnabled;
+        builder.sitemapSeeding = sitemapSeeding;
+        builder.downloadImages = downloadImages;
+        builder.maxImageBytes = maxImageBytes;
+        builder.imageThreads = imageThreads;
+        builder.imagesPerHost = imagesPerHost;
+        builder.pageLayout = pageLayout;
+        builder.trapDetection = trapDetection;
+        builder.trapTemplateBudget = trapTemplateBudget;
+        builder.trapMinYield = trapMinYield;
+        builder.nearDuplicateDetection = nearDuplicateDetection;
+        builder.nearDuplicateDistance = nearDuplicateDistance;
+        builder.skipNearDuplicateStorage = skipNearDuplicateStorage;
+        builder.adaptiveTimeouts = adaptiveTimeouts;
+        builder.hedgeRequests = hedgeRequests;
+        builder.hedgeBudget = hedgeBudget;
+        builder.extractionRules = new ArrayList<>(extractionRules);
+        return builder;
     }
 
     // Getters
@@ -24,6 +171,46 @@ public class CrawlerConfig {
     public long getDelayBetweenRequests() { return delayBetweenRequests; }
     public int getConnectTimeout() { return connectTimeout; }
     public String getUserAgent() { return userAgent; }
+    public long getMaxBodySize() { return maxBodySize; }
+    public NonHtmlPolicy getNonHtmlPolicy() { return nonHtmlPolicy; }
+    public boolean isCompressStorage() { return compressStorage; }
+    public long getDnsCacheTtl() { return dnsCacheTtl; }
+    public long getDnsNegativeTtl() { return dnsNegativeTtl; }
+    public int getDnsPrefetchThreads() { return dnsPrefetchThreads; }
+    public int getMaxFrontierSize() { return maxFrontierSize; }
+    public FrontierOverflowPolicy getFrontierOverflowPolicy() { return frontierOverflowPolicy; }
+    public double getHeapHighWatermark() { return heapHighWatermark; }
+    public long getBackpressureMaxWait() { return backpressureMaxWait; }
+    public int getMaxRetries() { return maxRetries; }
+    public long getRetryBaseDelay() { return retryBaseDelay; }
+    public long getRetryMaxDelay() { return retryMaxDelay; }
+    public int getBreakerFailureThreshold() { return breakerFailureThreshold; }
+    public long getBreakerOpenDuration() { return breakerOpenDuration; }
+    public long getBreakerProbeTimeout() { return breakerProbeTimeout; }
+    public CrawlLogger.Level getLogLevel() { return logLevel; }
+    public boolean isEventLogEnabled() { return eventLogEnabled; }
+    public int getParseThreads() { return parseThreads; }
+    public int getExtractThreads() { return extractThreads; }
+    public int getSinkThreads() { return sinkThreads; }
+    public int getStageQueueCapacity() { return stageQueueCapacity; }
+    public boolean isSearchIndexEnabled() { return searchIndexEnabled; }
+    public boolean isLinkGraphEnabled() { return linkGraphEnabled; }
+    public boolean isSitemapSeeding() { return sitemapSeeding; }
+    public boolean isDownloadImages() { return downloadImages; }
+    public long getMaxImageBytes() { return maxImageBytes; }
+    public int getImageThreads() { return imageThreads; }
+    public int getImagesPerHost() { return imagesPerHost; }
+    public PageLayout getPageLayout() { return pageLayout; }
+    public boolean isTrapDetection() { return trapDetection; }
+    public int getTrapTemplateBudget() { return trapTemplateBudget; }
+    public double getTrapMinYield() { return trapMinYield; }
+    public boolean isNearDuplicateDetection() { return nearDuplicateDetection; }
+    public int getNearDuplicateDistance() { return nearDuplicateDistance; }
+    public boolean isSkipNearDuplicateStorage() { return skipNearDuplicateStorage; }
+    public boolean isAdaptiveTimeouts() { return adaptiveTimeouts; }
+    public boolean isHedgeRequests() { return hedgeRequests; }
+    public double getHedgeBudget() { return hedgeBudget; }
+    public List<ExtractionRule> getExtractionRules() { return extractionRules; }
 
     public static class Builder {
         private int maxThreads = 5;
@@ -32,6 +219,46 @@ public class CrawlerConfig {
         private long delayBetweenRequests = 1000;
         private int connectTimeout = 10000;
         private String userAgent = "WebCrawler/1.0";
+        private long maxBodySize = 5 * 1024 * 1024;
+        private NonHtmlPolicy nonHtmlPolicy = NonHtmlPolicy.METADATA_ONLY;
+        private boolean compressStorage = false;
+        private long dnsCacheTtl = 30000; // matches the JVM's default networkaddress.cache.ttl
+        private long dnsNegativeTtl = 10000;
+        private int dnsPrefetchThreads = 2;
+        private int maxFrontierSize = 10000;
+        private FrontierOverflowPolicy frontierOverflowPolicy = FrontierOverflowPolicy.DROP_DEEPEST;
+        private double heapHighWatermark = 0.85;
+        private long backpressureMaxWait = 2000;
+        private int maxRetries = 2;
+        private long retryBaseDelay = 500;
+        private long retryMaxDelay = 8000;
+        private int breakerFailureThreshold = 5;
+        private long breakerOpenDuration = 30000;
+        private long breakerProbeTimeout = 60000; // a half-open probe silent this long is presumed lost
+        private CrawlLogger.Level logLevel = CrawlLogger.Level.INFO;
+        private boolean eventLogEnabled = true;
+        private int parseThreads = Runtime.getRuntime().availableProcessors(); // CPU stages: about one thread per core
+        private int extractThreads = Runtime.getRuntime().availableProcessors();
+        private int sinkThreads = 4; // I/O stage; fetch workers are maxThreads
+        private int stageQueueCapacity = 256;
+        private boolean searchIndexEnabled = false; // full-text index under crawler_output/index, rebuilt each crawl
+        private boolean linkGraphEnabled = true; // CSR link graph + PageRank under crawler_output/graph
+        private boolean sitemapSeeding = false; // seed the frontier from robots.txt / sitemap.xml
+        private boolean downloadImages = false; // optional image asset stage
+        private long maxImageBytes = 2 * 1024 * 1024;
+        private int imageThreads = 8;
+        private int imagesPerHost = 2;
+        private PageLayout pageLayout = PageLayout.FLAT; // HASHED names page files by URL hash in sharded directories
+        private boolean trapDetection = true; // generalize URLs into templates and stop expanding trap-like ones
+        private int trapTemplateBudget = 1000; // max URLs admitted per URL template
+        private double trapMinYield = 0.1; // min share of a template's pages with new content
+        private boolean nearDuplicateDetection = true; // SimHash pages and stop expanding near-duplicates
+        private int nearDuplicateDistance = 3; // max differing SimHash bits for a near-duplicate
+        private boolean skipNearDuplicateStorage = false; // also don't store near-duplicate pages
+        private boolean adaptiveTimeouts = true; // derive per-host deadlines from observed latency, capped at connectTimeout
+        private boolean hedgeRequests = false; // send a second attempt when a fetch runs past the host's p95
+        private double hedgeBudget = 0.05; // max share of fetches that may be hedged
+        private List<ExtractionRule> extractionRules = new ArrayList<>(); // custom fields the enhanced crawler extracts, see rules/ExtractionRules
 
         public Builder maxThreads(int maxThreads) {
             this.maxThreads = maxThreads;
@@ -63,6 +290,211 @@ public class CrawlerConfig {
             return this;
         }
 
+        public Builder maxBodySize(long bytes) {
+            this.maxBodySize = bytes;
+            return this;
+        }
+
+        public Builder nonHtmlPolicy(NonHtmlPolicy policy) {
+            this.nonHtmlPolicy = policy;
+            return this;
+        }
+
+        public Builder compressStorage(boolean compress) {
+            this.compressStorage = compress;
+            return this;
+        }
+
+        public Builder dnsCacheTtl(long ttl) {
+            this.dnsCacheTtl = ttl;
+            return this;
+        }
+
+        public Builder dnsNegativeTtl(long ttl) {
+            this.dnsNegativeTtl = ttl;
+            return this;
+        }
+
+        public Builder dnsPrefetchThreads(int threads) {
+            this.dnsPrefetchThreads = threads;
+            return this;
+        }
+
+        public Builder maxFrontierSize(int size) {
+            this.maxFrontierSize = size;
+            return this;
+        }
+
+        public Builder frontierOverflowPolicy(FrontierOverflowPolicy policy) {
+            this.frontierOverflowPolicy = policy;
+            return this;
+        }
+
+        public Builder heapHighWatermark(double fraction) {
+            this.heapHighWatermark = fraction;
+            return this;
+        }
+
+        public Builder backpressureMaxWait(long millis) {
+            this.backpressureMaxWait = millis;
+            return this;
+        }
+
+        public Builder maxRetries(int maxRetries) {
+            this.maxRetries = maxRetries;
+            return this;
+        }
+
+        public Builder retryBaseDelay(long retryBaseDelay) {
+            this.retryBaseDelay = retryBaseDelay;
+            return this;
+        }
+
+        public Builder retryMaxDelay(long retryMaxDelay) {
+            this.retryMaxDelay = retryMaxDelay;
+            return this;
+        }
+
+        public Builder breakerFailureThreshold(int breakerFailureThreshold) {
+            this.breakerFailureThreshold = breakerFailureThreshold;
+            return this;
+        }
+
+        public Builder breakerOpenDuration(long breakerOpenDuration) {
+            this.breakerOpenDuration = breakerOpenDuration;
+            return this;
+        }
+
+        public Builder breakerProbeTimeout(long breakerProbeTimeout) {
+            this.breakerProbeTimeout = breakerProbeTimeout;
+            return this;
+        }
+
+        public Builder logLevel(CrawlLogger.Level level) {
+            this.logLevel = level;
+            return this;
+        }
+
+        public Builder eventLogEnabled(boolean enabled) {
+            this.eventLogEnabled = enabled;
+            return this;
+        }
+
+        public Builder parseThreads(int parseThreads) {
+            this.parseThreads = parseThreads;
+            return this;
+        }
+
+        public Builder extractThreads(int extractThreads) {
+            this.extractThreads = extractThreads;
+            return this;
+        }
+
+        public Builder sinkThreads(int sinkThreads) {
+            this.sinkThreads = sinkThreads;
+            return this;
+        }
+
+        public Builder stageQueueCapacity(int stageQueueCapacity) {
+            this.stageQueueCapacity = stageQueueCapacity;
+            return this;
+        }
+
+        public Builder searchIndexEnabled(boolean searchIndexEnabled) {
+            this.searchIndexEnabled = searchIndexEnabled;
+            return this;
+        }
+
+        public Builder linkGraphEnabled(boolean linkGraphEnabled) {
+            this.linkGraphEnabled = linkGraphEnabled;
+            return this;
+        }
+
+        public Builder sitemapSeeding(boolean sitemapSeeding) {
+            this.sitemapSeeding = sitemapSeeding;
+            return this;
+        }
+
+        public Builder downloadImages(boolean downloadImages) {
+            this.downloadImages = downloadImages;
+            return this;
+        }
+
+        public Builder maxImageBytes(long maxImageBytes) {
+            this.maxImageBytes = maxImageBytes;
+            return this;
+        }
+
+        public Builder imageThreads(int imageThreads) {
+            this.imageThreads = imageThreads;
+            return this;
+        }
+
+        public Builder imagesPerHost(int imagesPerHost) {
+            this.imagesPerHost = imagesPerHost;
+            return this;
+        }
+
+        public Builder pageLayout(PageLayout pageLayout) {
+            this.pageLayout = pageLayout;
+            return this;
+        }
+
+        public Builder trapDetection(boolean trapDetection) {
+            this.trapDetection = trapDetection;
+            return this;
+        }
+
+        public Builder trapTemplateBudget(int trapTemplateBudget) {
+            this.trapTemplateBudget = trapTemplateBudget;
+            return this;
+        }
+
+        public Builder trapMinYield(double trapMinYield) {
+            this.trapMinYield = trapMinYield;
+            return this;
+        }
+
+        public Builder nearDuplicateDetection(boolean nearDuplicateDetection) {
+            this.nearDuplicateDetection = nearDuplicateDetection;
+            return this;
+        }
+
+        public Builder nearDuplicateDistance(int nearDuplicateDistance) {
+            this.nearDuplicateDistance = nearDuplicateDistance;
+            return this;
+        }
+
+        public Builder skipNearDuplicateStorage(boolean skipNearDuplicateStorage) {
+            this.skipNearDuplicateStorage = skipNearDuplicateStorage;
+            return this;
+        }
+
+        public Builder adaptiveTimeouts(boolean adaptiveTimeouts) {
+            this.adaptiveTimeouts = adaptiveTimeouts;
+            return this;
+        }
+
+        public Builder hedgeRequests(boolean hedgeRequests) {
+            this.hedgeRequests = hedgeRequests;
+            return this;
+        }
+
+        public Builder hedgeBudget(double hedgeBudget) {
+            this.hedgeBudget = hedgeBudget;
+            return this;
+        }
+
+        public Builder extractionRules(List<ExtractionRule> extractionRules) {
+            this.extractionRules = new ArrayList<>(extractionRules);
+            return this;
+        }
+
+        public Builder extractionRule(ExtractionRule extractionRule) {
+            this.extractionRules.add(extractionRule);
+            return this;
+        }
+
         public CrawlerConfig build() {
             return new CrawlerConfig(this);
         }
@@ -7,7 +7,10 @@ public class CrawlerStats {
     private final AtomicInteger pagesCrawled = new AtomicInteger(0);
     private final AtomicInteger pagesQueued = new AtomicInteger(0);
     private final AtomicInteger failedPages = new AtomicInteger(0);
+    private final AtomicInteger skippedResources = new AtomicInteger(0);
+    private final AtomicInteger nearDuplicates = new AtomicInteger(0);
     private final AtomicLong totalBytesDownloaded = new AtomicLong(0);
+    private final LatencyHistogram fetchLatency = new LatencyHistogram();
     private final long startTime;
 
     public CrawlerStats() {
@@ -22,14 +25,31 @@ public class CrawlerStats {
         pagesQueued.incrementAndGet();
     }
 
+    // A queued page the frontier dropped again before it was fetched
+    public void decrementPagesQueued() {
+        pagesQueued.decrementAndGet();
+    }
+
     public void incrementFailedPages() {
         failedPages.incrementAndGet();
     }
 
+    public void incrementSkippedResources() {
+        skippedResources.incrementAndGet();
+    }
+
+    public void incrementNearDuplicates() {
+        nearDuplicates.incrementAndGet();
+    }
+
     public void addBytesDownloaded(long bytes) {
         totalBytesDownloaded.addAndGet(bytes);
     }
 
+    public void recordFetchLatency(long millis) {
+        fetchLatency.record(millis);
+    }
+
     public int getPagesCrawled() {
         return pagesCrawled.get();
     }
@@ -42,6 +62,15 @@ public class CrawlerStats {
         return failedPages.get();
     }
 
+    public int getSkippedResources() {
+        return skippedResources.get();
+    }
+
+    // Pages whose links weren't followed because they nearly duplicate an earlier page
+    public int getNearDuplicates() {
+        return nearDuplicates.get();
+    }
+
     public long getTotalBytesDownloaded() {
         return totalBytesDownloaded.get();
     }
@@ -55,11 +84,19 @@ public class CrawlerStats {
         return elapsed > 0 ? (double) pagesCrawled.get() / (elapsed / 1000.0) : 0;
     }
 
+    public StatsSnapshot snapshot() {
+        return new StatsSnapshot(System.currentTimeMillis(), getPagesCrawled(), getPagesQueued(),
+            getFailedPages(), getSkippedResources(), getTotalBytesDownloaded(), getElapsedTime(),
+            fetchLatency.snapshot());
+    }
+
     public void printStats() {
-        System.out.printf("Stats - Crawled: %d, Queued: %d, Failed: %d, Bytes: %.2f MB, Speed: %.2f pages/sec%n",
+        CrawlLogger.get().info("Stats - Crawled: %d, Queued: %d, Failed: %d, Skipped: %d, Near-dups: %d, Bytes: %.2f MB, Speed: %.2f pages/sec",
             getPagesCrawled(),
             getPagesQueued(),
             getFailedPages(),
+            getSkippedResources(),
+            getNearDuplicates(),
             getTotalBytesDownloaded() / (1024.0 * 1024.0),
             getPagesPerSecond()
         );
@@ -0,0 +1,88 @@
+package com.webcrawler;
+
+import com.webcrawler.engine.PageContext;
+import com.webcrawler.engine.Sink;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+
+/**
+ * Sink stage: appends one {@link PageSummary} row per page to crawl_data.csv. The file is
+ * opened once and rows are written under a lock, so concurrent sink threads never
+ * interleave partial lines.
+ */
+public class CsvSummarySink implements Sink {
+    private static final String HEADER =
+        "URL,Title,Description,Word_Count,Link_Count,Image_Count,Heading_Count,Email_Count,Phone_Count,Emails,Phone_Numbers,Has_Contact_Form,Crawl_Time,Depth\n";
+
+    private final Path csvFile;
+    private BufferedWriter writer;
+    private RecordEncoder encoder;
+
+    public CsvSummarySink(Path csvFile) {
+        this.csvFile = csvFile;
+    }
+
+    @Override
+    public void accept(PageContext page) throws IOException {
+        PageSummary summary = page.get(PageSummary.class);
+        if (summary == null) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        synchronized (this) {
+            if (writer == null) {
+                Files.createDirectories(csvFile.getParent());
+                // Create CSV header if file doesn't exist
+                boolean writeHeader = !Files.exists(csvFile);
+                writer = Files.newBufferedWriter(csvFile, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+                encoder = new RecordEncoder(writer);
+                if (writeHeader) {
+                    writer.write(HEADER);
+                }
+            }
+            // Fields stream straight into the buffered writer; no per-row String is built
+            encoder.csvField(page.getUrl()).raw(',')
+                .csvField(summary.getTitle()).raw(',')
+                .csvField(summary.getDescription()).raw(',')
+                .number(summary.getWordCount()).raw(',')
+                .number(summary.getLinkCount()).raw(',')
+                .number(summary.getImageCount()).raw(',')
+                .number(summary.getHeadingCount()).raw(',')
+                .number(summary.getEmails().size()).raw(',')
+                .number(summary.getPhoneNumbers().size()).raw(',');
+            joined(summary.getEmails()).raw(',');
+            joined(summary.getPhoneNumbers()).raw(',');
+            encoder.bool(summary.hasContactForm()).raw(',')
+                .raw('"').timestamp(now).raw('"').raw(',')
+                .number(page.getDepth()).raw('\n');
+        }
+    }
+
+    private RecordEncoder joined(Collection<String> values) throws IOException {
+        encoder.raw('"');
+        boolean first = true;
+        for (String value : values) {
+            if (!first) encoder.raw("; ");
+            encoder.csvEscaped(value);
+            first = false;
+        }
+        return encoder.raw('"');
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (writer != null) {
+            writer.close();
+            writer = null;
+            encoder = null;
+        }
+    }
+}
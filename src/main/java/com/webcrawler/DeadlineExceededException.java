@@ -0,0 +1,13 @@
+package com.webcrawler;
+
+import java.net.SocketTimeoutException;
+
+// A fetch cut off by an adaptive per-host deadline tighter than the configured timeout:
+// the host was slower than usual, which is not evidence that it is failing
+public class DeadlineExceededException extends SocketTimeoutException {
+    private static final long serialVersionUID = 1L;
+
+    public DeadlineExceededException(String message) {
+        super(message);
+    }
+}
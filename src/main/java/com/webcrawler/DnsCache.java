@@ -0,0 +1,168 @@
+package com.webcrawler;
+
+import java.net.InetAddress;
+import java.net.URL;
+import java.net.UnknownHostException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * Crawler-level DNS cache with positive/negative TTLs and a background prefetcher.
+ * Hosts are resolved as soon as their URLs are queued, so by the time a worker
+ * connects the lookup is already cached (here and in the JVM's InetAddress cache).
+ */
+public class DnsCache {
+    private final HostResolver resolver;
+    private final long ttlMillis;
+    private final long negativeTtlMillis;
+    private final LongSupplier clock;
+    private final ExecutorService prefetchExecutor;
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, CompletableFuture<Entry>> inFlight = new ConcurrentHashMap<>();
+
+    private final AtomicInteger hits = new AtomicInteger(0);
+    private final AtomicInteger misses = new AtomicInteger(0);
+    private final AtomicInteger prefetches = new AtomicInteger(0);
+
+    public DnsCache(CrawlerConfig config) {
+        this(HostResolver.SYSTEM, config.getDnsCacheTtl(), config.getDnsNegativeTtl(),
+            config.getDnsPrefetchThreads(), System::currentTimeMillis);
+    }
+
+    public DnsCache(HostResolver resolver, long ttlMillis, long negativeTtlMillis,
+                    int prefetchThreads, LongSupplier clock) {
+        this.resolver = resolver;
+        this.ttlMillis = ttlMillis;
+        this.negativeTtlMillis = negativeTtlMillis;
+        this.clock = clock;
+        this.prefetchExecutor = prefetchThreads > 0
+            ? Executors.newFixedThreadPool(prefetchThreads, r -> {
+                Thread t = new Thread(r, "dns-prefetch");
+                t.setDaemon(true);
+                return t;
+            })
+            : null;
+    }
+
+    // Blocking lookup; joins an in-flight lookup (prefetch or another worker) for the same host
+    // instead of resolving twice, or registers its own so later callers join it
+    public InetAddress[] resolve(String host) throws UnknownHostException {
+        String key = host.toLowerCase();
+        Entry entry = entries.get(key);
+        if (entry != null && !entry.isExpired(clock.getAsLong())) {
+            hits.incrementAndGet();
+            return entry.get(key);
+        }
+        misses.incrementAndGet();
+
+        CompletableFuture<Entry> mine = new CompletableFuture<>();
+        CompletableFuture<Entry> pending = inFlight.computeIfAbsent(key, k -> mine);
+        if (pending == mine) {
+            lookup(key, mine);
+        }
+        try {
+            return pending.get().get(key);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UnknownHostException(key + " (interrupted)");
+        } catch (ExecutionException e) {
+            throw new UnknownHostException(key);
+        }
+    }
+
+    public void prefetchUrl(String url) {
+        try {
+            prefetch(new URL(url).getHost());
+        } catch (Exception e) {
+            // Malformed URLs are rejected later by the task itself
+        }
+    }
+
+    public void prefetch(String host) {
+        if (prefetchExecutor == null || host == null || host.isEmpty()) {
+            return;
+        }
+        String key = host.toLowerCase();
+        Entry entry = entries.get(key);
+        if (entry != null && !entry.isExpired(clock.getAsLong())) {
+            return;
+        }
+        CompletableFuture<Entry> mine = new CompletableFuture<>();
+        if (inFlight.computeIfAbsent(key, k -> mine) != mine) {
+            return; // already being resolved
+        }
+        prefetches.incrementAndGet();
+        try {
+            prefetchExecutor.execute(() -> lookup(key, mine));
+        } catch (RejectedExecutionException e) {
+            // Shutting down: release the slot so a blocking resolve doesn't wait on it
+            inFlight.remove(key, mine);
+            mine.completeExceptionally(e);
+        }
+    }
+
+    // Runs the lookup registered as key's in-flight future, then unregisters it
+    private void lookup(String key, CompletableFuture<Entry> future) {
+        try {
+            // Another lookup may have finished between the cache check and registering this one
+            Entry cached = entries.get(key);
+            future.complete(cached != null && !cached.isExpired(clock.getAsLong()) ? cached : doLookup(key));
+        } catch (Throwable t) {
+            future.completeExceptionally(t);
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    private Entry doLookup(String key) {
+        Entry entry;
+        try {
+            InetAddress[] addresses = resolver.resolve(key);
+            entry = new Entry(addresses, null, clock.getAsLong() + ttlMillis);
+        } catch (UnknownHostException e) {
+            entry = new Entry(null, e, clock.getAsLong() + negativeTtlMillis);
+        }
+        entries.put(key, entry);
+        return entry;
+    }
+
+    public int getHits() { return hits.get(); }
+    public int getMisses() { return misses.get(); }
+    public int getPrefetches() { return prefetches.get(); }
+    public int size() { return entries.size(); }
+
+    public void shutdown() {
+        if (prefetchExecutor != null) {
+            prefetchExecutor.shutdownNow();
+        }
+    }
+
+    private static final class Entry {
+        private final InetAddress[] addresses;
+        private final UnknownHostException failure;
+        private final long expiresAt;
+
+        Entry(InetAddress[] addresses, UnknownHostException failure, long expiresAt) {
+            this.addresses = addresses;
+            this.failure = failure;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isExpired(long now) {
+            return now >= expiresAt;
+        }
+
+        InetAddress[] get(String host) throws UnknownHostException {
+            if (failure != null) {
+                throw new UnknownHostException(host + " (cached failure)");
+            }
+            return addresses;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.webcrawler;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+
+public class FetchResult {
+    public enum Kind { HTML, RESOURCE, OVERSIZED }
+
+    private final String url;
+    private final Kind kind;
+    private final int statusCode;
+    private final String contentType;
+    private final long contentLength;
+    private final byte[] body;
+    private final String charset;
+    private final Path savedPath;
+
+    FetchResult(String url, Kind kind, int statusCode, String contentType,
+                long contentLength, byte[] body, String charset, Path savedPath) {
+        this.url = url;
+        this.kind = kind;
+        this.statusCode = statusCode;
+        this.contentType = contentType;
+        this.contentLength = contentLength;
+        this.body = body;
+        this.charset = charset;
+        this.savedPath = savedPath;
+    }
+
+    public String getUrl() { return url; }
+    public Kind getKind() { return kind; }
+    public int getStatusCode() { return statusCode; }
+    public String getContentType() { return contentType; }
+    public long getContentLength() { return contentLength; }
+    public byte[] getBody() { return body; }
+    public String getCharset() { return charset; }
+    public Path getSavedPath() { return savedPath; }
+
+    public boolean isHtml() {
+        return kind == Kind.HTML;
+    }
+
+    // Parse the buffered body; charset falls back to jsoup's BOM/meta detection
+    public Document parse() throws IOException {
+        if (body == null) {
+            throw new IOException("No HTML body for " + url);
+        }
+        return Jsoup.parse(new ByteArrayInputStream(body), charset, url);
+    }
+}
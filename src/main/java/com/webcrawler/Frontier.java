@@ -0,0 +1,245 @@
+package com.webcrawler;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * Bounded crawl frontier with heap-watermark backpressure. Producers are throttled while
+ * heap use is above the configured watermark; once the queue is full (or the heap stays
+ * hot) new tasks are handled by the configured overflow policy instead of growing the heap.
+ */
+public class Frontier<T> {
+    private static final CrawlLogger LOG = CrawlLogger.get();
+
+    public interface TaskFactory<T> {
+        T create(String url, int depth);
+    }
+
+    private static final long THROTTLE_STEP_MS = 50;
+
+    private final CrawlerConfig config;
+    private final LinkedBlockingDeque<T> queue = new LinkedBlockingDeque<>();
+    private final DelayQueue<Deferred<T>> deferred = new DelayQueue<>();
+    private final Function<T, String> urlOf;
+    private final ToIntFunction<T> depthOf;
+    private final Path spillFile;
+    private volatile TaskFactory<T> taskFactory;
+    private volatile Consumer<T> evictionListener;
+
+    private RandomAccessFile spill;
+    private long spillReadPos;
+    private long spillWritePos;
+    private final AtomicInteger spilledPending = new AtomicInteger(0);
+
+    private final AtomicInteger dropped = new AtomicInteger(0);
+    private final AtomicInteger spilled = new AtomicInteger(0);
+    private final AtomicInteger throttled = new AtomicInteger(0);
+
+    public Frontier(CrawlerConfig config, Function<T, String> urlOf, ToIntFunction<T> depthOf, Path spillFile) {
+        this.config = config;
+        this.urlOf = urlOf;
+        this.depthOf = depthOf;
+        this.spillFile = spillFile;
+    }
+
+    // Needed to rebuild tasks that were spilled to disk
+    public void setTaskFactory(TaskFactory<T> taskFactory) {
+        this.taskFactory = taskFactory;
+    }
+
+    // Told about queued tasks that DROP_DEEPEST pushed out to make room for a shallower one
+    public void setEvictionListener(Consumer<T> evictionListener) {
+        this.evictionListener = evictionListener;
+    }
+
+    public boolean offer(T task) {
+        boolean heapHot = awaitHeapBelowWatermark();
+        if (!heapHot && queue.size() < config.getMaxFrontierSize()) {
+            queue.offerLast(task);
+            return true;
+        }
+        return overflow(task);
+    }
+
+    // Parks a task until delayMillis have passed (e.g. its host's circuit is open)
+    public void defer(T task, long delayMillis) {
+        deferred.offer(new Deferred<>(task, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMillis)));
+    }
+
+    public T poll(long timeout, TimeUnit unit) throws InterruptedException {
+        Deferred<T> ready;
+        while ((ready = deferred.poll()) != null) {
+            queue.offerLast(ready.task);
+        }
+        if (spilledPending.get() > 0 && queue.size() < config.getMaxFrontierSize() / 2) {
+            refillFromSpill();
+        }
+        if (!deferred.isEmpty()) {
+            // Wake up in time to pick up tasks whose deferral expires soon
+            timeout = Math.min(unit.toMillis(timeout), 250);
+            unit = TimeUnit.MILLISECONDS;
+        }
+        return queue.pollFirst(timeout, unit);
+    }
+
+    public boolean isEmpty() {
+        return queue.isEmpty() && spilledPending.get() == 0 && deferred.isEmpty();
+    }
+
+    public int size() {
+        return queue.size() + spilledPending.get() + deferred.size();
+    }
+
+    public int getDropped() { return dropped.get(); }
+    public int getSpilled() { return spilled.get(); }
+    public int getThrottled() { return throttled.get(); }
+
+    private boolean overflow(T task) {
+        switch (config.getFrontierOverflowPolicy()) {
+            case SPILL_TO_DISK:
+                if (taskFactory != null && spillToDisk(task)) {
+                    return true;
+                }
+                dropped.incrementAndGet();
+                return false;
+            case DROP_DEEPEST:
+                // BFS order keeps the deepest (lowest-value) tasks at the tail
+                T tail = queue.pollLast();
+                if (tail != null && depthOf.applyAsInt(tail) > depthOf.applyAsInt(task)) {
+                    queue.offerLast(task);
+                    dropped.incrementAndGet();
+                    Consumer<T> listener = evictionListener;
+                    if (listener != null) {
+                        listener.accept(tail);
+                    }
+                    return true;
+                }
+                if (tail != null) {
+                    queue.offerLast(tail);
+                }
+                dropped.incrementAndGet();
+                return false;
+            case DROP_NEWEST:
+            default:
+                dropped.incrementAndGet();
+                return false;
+        }
+    }
+
+    // Returns true if the heap was still above the watermark after the bounded wait
+    private boolean awaitHeapBelowWatermark() {
+        if (!isHeapAboveWatermark()) {
+            return false;
+        }
+        throttled.incrementAndGet();
+        long deadline = System.currentTimeMillis() + config.getBackpressureMaxWait();
+        try {
+            while (System.currentTimeMillis() < deadline) {
+                Thread.sleep(THROTTLE_STEP_MS);
+                if (!isHeapAboveWatermark()) {
+                    return false;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return true;
+    }
+
+    private boolean isHeapAboveWatermark() {
+        Runtime runtime = Runtime.getRuntime();
+        long used = runtime.totalMemory() - runtime.freeMemory();
+        return used > runtime.maxMemory() * config.getHeapHighWatermark();
+    }
+
+    private synchronized boolean spillToDisk(T task) {
+        String url = urlOf.apply(task);
+        if (url.length() > 8192) {
+            return false;
+        }
+        try {
+            if (spill == null) {
+                Files.createDirectories(spillFile.getParent());
+                spill = new RandomAccessFile(spillFile.toFile(), "rw");
+                spill.setLength(0);
+            }
+            spill.seek(spillWritePos);
+            spill.writeInt(depthOf.applyAsInt(task));
+            spill.writeUTF(url);
+            spillWritePos = spill.getFilePointer();
+            spilledPending.incrementAndGet();
+            spilled.incrementAndGet();
+            return true;
+        } catch (IOException e) {
+            LOG.warn("⚠️ Failed to spill frontier entry: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private synchronized void refillFromSpill() {
+        if (spill == null) {
+            return;
+        }
+        try {
+            int batch = Math.max(1, config.getMaxFrontierSize() / 4);
+            spill.seek(spillReadPos);
+            while (batch-- > 0 && spillReadPos < spillWritePos) {
+                int depth = spill.readInt();
+                String url = spill.readUTF();
+                spillReadPos = spill.getFilePointer();
+                queue.offerLast(taskFactory.create(url, depth));
+                spilledPending.decrementAndGet();
+            }
+            if (spillReadPos == spillWritePos) {
+                // Fully drained; reuse the file from the start
+                spillReadPos = 0;
+                spillWritePos = 0;
+                spill.setLength(0);
+            }
+        } catch (IOException e) {
+            LOG.warn("⚠️ Failed to read frontier spill: " + e.getMessage());
+        }
+    }
+
+    public synchronized void close() {
+        if (spill != null) {
+            try {
+                spill.close();
+                Files.deleteIfExists(spillFile);
+            } catch (IOException e) {
+                LOG.warn("⚠️ Failed to remove frontier spill: " + e.getMessage());
+            }
+            spill = null;
+        }
+    }
+
+    private static final class Deferred<T> implements Delayed {
+        private final T task;
+        private final long readyAtNanos;
+
+        Deferred(T task, long readyAtNanos) {
+            this.task = task;
+            this.readyAtNanos = readyAtNanos;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(readyAtNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(getDelay(TimeUnit.NANOSECONDS), other.getDelay(TimeUnit.NANOSECONDS));
+        }
+    }
+}
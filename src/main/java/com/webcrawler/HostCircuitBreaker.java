@@ -0,0 +1,128 @@
+package com.webcrawler;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * Per-host circuit breaker. After N consecutive failures the host is opened and its
+ * requests are rejected until the cooldown expires; then a single half-open probe is
+ * let through, which either closes the circuit or re-opens it with a doubled cooldown.
+ * A probe that ends without either (interrupted, or a non-I/O error) must be released with
+ * {@link #abandonProbe}; one that never reports back is presumed lost after the probe timeout.
+ */
+public class HostCircuitBreaker {
+    private static final CrawlLogger LOG = CrawlLogger.get();
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private static final long MAX_OPEN_MILLIS = 10 * 60 * 1000;
+
+    private final int failureThreshold;
+    private final long openMillis;
+    private final long probeTimeoutMillis;
+    private final LongSupplier clock;
+    private final ConcurrentHashMap<String, Circuit> circuits = new ConcurrentHashMap<>();
+    private final AtomicInteger rejected = new AtomicInteger(0);
+
+    public HostCircuitBreaker(CrawlerConfig config) {
+        this(config.getBreakerFailureThreshold(), config.getBreakerOpenDuration(),
+            config.getBreakerProbeTimeout(), System::currentTimeMillis);
+    }
+
+    public HostCircuitBreaker(int failureThreshold, long openMillis, long probeTimeoutMillis, LongSupplier clock) {
+        this.failureThreshold = failureThreshold;
+        this.openMillis = openMillis;
+        this.probeTimeoutMillis = probeTimeoutMillis;
+        this.clock = clock;
+    }
+
+    // Returns true if the caller is the half-open probe; throws if the host is open
+    // (or already has a live probe in flight)
+    public boolean acquire(String host) throws CircuitOpenException {
+        Circuit circuit = circuits.computeIfAbsent(host, h -> new Circuit());
+        synchronized (circuit) {
+            long now = clock.getAsLong();
+            switch (circuit.state) {
+                case CLOSED:
+                    return false;
+                case OPEN:
+                    if (now >= circuit.openUntil) {
+                        circuit.state = State.HALF_OPEN;
+                        circuit.probeStarted = now;
+                        return true;
+                    }
+                    break;
+                case HALF_OPEN:
+                    if (now - circuit.probeStarted >= probeTimeoutMillis) {
+                        LOG.warn("⏱️ Half-open probe for " + host + " never reported back; sending another");
+                        circuit.probeStarted = now;
+                        return true;
+                    }
+                    break;
+            }
+            rejected.incrementAndGet();
+            throw new CircuitOpenException(host, Math.max(circuit.openUntil - now, 1000));
+        }
+    }
+
+    public void recordSuccess(String host) {
+        Circuit circuit = circuits.get(host);
+        if (circuit == null) return;
+        synchronized (circuit) {
+            circuit.state = State.CLOSED;
+            circuit.consecutiveFailures = 0;
+            circuit.currentOpenMillis = openMillis;
+        }
+    }
+
+    public void recordFailure(String host) {
+        Circuit circuit = circuits.computeIfAbsent(host, h -> new Circuit());
+        synchronized (circuit) {
+            circuit.consecutiveFailures++;
+            if (circuit.state == State.HALF_OPEN) {
+                circuit.currentOpenMillis = Math.min(circuit.currentOpenMillis * 2, MAX_OPEN_MILLIS);
+                open(circuit);
+            } else if (circuit.state == State.CLOSED && circuit.consecutiveFailures >= failureThreshold) {
+                open(circuit);
+                LOG.warn("⛔ Circuit opened for " + host + " after "
+                    + circuit.consecutiveFailures + " consecutive failures");
+            }
+        }
+    }
+
+    // The probe ended without telling us anything about the host (interrupted, or failed
+    // before reaching it): re-open with no further wait so the next request probes again
+    public void abandonProbe(String host) {
+        Circuit circuit = circuits.get(host);
+        if (circuit == null) return;
+        synchronized (circuit) {
+            if (circuit.state == State.HALF_OPEN) {
+                circuit.state = State.OPEN;
+                circuit.openUntil = clock.getAsLong();
+            }
+        }
+    }
+
+    public State getState(String host) {
+        Circuit circuit = circuits.get(host);
+        return circuit == null ? State.CLOSED : circuit.state;
+    }
+
+    public int getRejected() {
+        return rejected.get();
+    }
+
+    private void open(Circuit circuit) {
+        circuit.state = State.OPEN;
+        circuit.openUntil = clock.getAsLong() + circuit.currentOpenMillis;
+    }
+
+    private final class Circuit {
+        private State state = State.CLOSED;
+        private int consecutiveFailures;
+        private long openUntil;
+        private long probeStarted;
+        private long currentOpenMillis = openMillis;
+    }
+}
@@ -0,0 +1,110 @@
+package com.webcrawler;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-host latency histograms for the three phases of a fetch. Once a host has enough
+ * samples, its deadlines become twice the observed p99 of each phase (never below a
+ * floor, never above the configured timeout), so one slow response can't hold a worker
+ * for the full timeout on a host that normally answers in milliseconds. The host's p95
+ * total latency is also the delay after which a request may be hedged.
+ *
+ * <p>Only recent fetches count: each host keeps the histograms of its last full window of
+ * {@value #WINDOW} fetches plus the window being filled, so a host that slows down (or
+ * recovers) moves its deadlines within a few hundred requests instead of never.
+ */
+public class HostLatencyTracker {
+    public enum Phase { CONNECT, FIRST_BYTE, TOTAL }
+
+    private static final int MIN_SAMPLES = 16;
+    private static final int WINDOW = 256;
+    private static final long[] FLOORS = { 1000, 2000, 3000 }; // ms, indexed by Phase
+    private static final long HEDGE_FLOOR = 50; // ms; hedging sooner mostly duplicates requests
+
+    private final int ceiling;
+    private final ConcurrentHashMap<String, Window> hosts = new ConcurrentHashMap<>();
+
+    public HostLatencyTracker(CrawlerConfig config) {
+        this(config.getConnectTimeout());
+    }
+
+    public HostLatencyTracker(int ceiling) {
+        this.ceiling = ceiling;
+    }
+
+    public void record(String host, long connectMillis, long firstByteMillis, long totalMillis) {
+        Window window = hosts.computeIfAbsent(host, h -> new Window());
+        LatencyHistogram[] phases = window.current;
+        phases[Phase.CONNECT.ordinal()].record(connectMillis);
+        phases[Phase.FIRST_BYTE.ordinal()].record(firstByteMillis);
+        phases[Phase.TOTAL.ordinal()].record(totalMillis);
+        window.advance();
+    }
+
+    // A fetch cut off by its adaptive deadline: counts as a sample at the deadline, so the
+    // percentiles (and the next deadlines) rise instead of the host looking like it failed
+    public void recordTimeout(String host, Phase expired, long deadlineMillis, long elapsedMillis) {
+        Window window = hosts.computeIfAbsent(host, h -> new Window());
+        LatencyHistogram[] phases = window.current;
+        if (expired != Phase.TOTAL) {
+            phases[expired.ordinal()].record(deadlineMillis);
+        }
+        phases[Phase.TOTAL.ordinal()].record(elapsedMillis);
+        window.advance();
+    }
+
+    // Deadline in ms for the phase; the configured timeout until the host has enough samples
+    public int deadline(String host, Phase phase) {
+        long[] buckets = snapshot(host, phase);
+        if (buckets == null) {
+            return ceiling;
+        }
+        long adaptive = Math.max(2 * LatencyHistogram.percentile(buckets, 0.99), FLOORS[phase.ordinal()]);
+        return (int) Math.min(adaptive, ceiling);
+    }
+
+    // The host's p95 total latency (at least HEDGE_FLOOR), or -1 while there are too few samples to hedge on
+    public long hedgeDelay(String host) {
+        long[] buckets = snapshot(host, Phase.TOTAL);
+        return buckets == null ? -1 : Math.max(LatencyHistogram.percentile(buckets, 0.95), HEDGE_FLOOR);
+    }
+
+    public int getHostCount() {
+        return hosts.size();
+    }
+
+    private long[] snapshot(String host, Phase phase) {
+        Window window = hosts.get(host);
+        if (window == null) {
+            return null;
+        }
+        // Previous first: a rotation in between then skips a half rather than counting one twice
+        long[] older = window.previous[phase.ordinal()].snapshot();
+        long[] buckets = window.current[phase.ordinal()].snapshot();
+        long samples = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] += older[i];
+            samples += buckets[i];
+        }
+        return samples < MIN_SAMPLES ? null : buckets;
+    }
+
+    // Every WINDOW samples the filling histograms become the previous ones and the oldest are dropped
+    private static final class Window {
+        private final AtomicLong samples = new AtomicLong(0);
+        private volatile LatencyHistogram[] current = newPhases();
+        private volatile LatencyHistogram[] previous = newPhases();
+
+        void advance() {
+            if (samples.incrementAndGet() % WINDOW == 0) {
+                previous = current; // a racing record may land in either half; both are still read
+                current = newPhases();
+            }
+        }
+
+        private static LatencyHistogram[] newPhases() {
+            return new LatencyHistogram[] { new LatencyHistogram(), new LatencyHistogram(), new LatencyHistogram() };
+        }
+    }
+}
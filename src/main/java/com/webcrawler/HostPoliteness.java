@@ -0,0 +1,31 @@
+package com.webcrawler;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-host request slots shared by every crawl that holds the same instance. Each fetch
+ * reserves the host's next free slot, at least the politeness delay after the previous
+ * one, so concurrent workers and concurrent crawl jobs hitting one host are spaced out
+ * together rather than each applying its own delay.
+ */
+public class HostPoliteness {
+    private final ConcurrentHashMap<String, AtomicLong> nextSlot = new ConcurrentHashMap<>();
+
+    // Reserves the host's next slot; returns how many ms the caller must wait before fetching
+    public long reserve(String host, long delayMillis) {
+        AtomicLong next = nextSlot.computeIfAbsent(host, h -> new AtomicLong(0));
+        while (true) {
+            long now = System.currentTimeMillis();
+            long previous = next.get();
+            long slot = Math.max(now, previous);
+            if (next.compareAndSet(previous, slot + delayMillis)) {
+                return slot - now;
+            }
+        }
+    }
+
+    public int getHostCount() {
+        return nextSlot.size();
+    }
+}
@@ -0,0 +1,12 @@
+package com.webcrawler;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+
+// Pluggable name lookup so DnsCache can be driven by a stub resolver
+@FunctionalInterface
+public interface HostResolver {
+    HostResolver SYSTEM = InetAddress::getAllByName;
+
+    InetAddress[] resolve(String host) throws UnknownHostException;
+}
@@ -0,0 +1,194 @@
+package com.webcrawler;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Minimal JSON parser for the few places the crawler reads JSON (control API requests,
+ * JSON-LD blocks in pages). Objects become {@code LinkedHashMap<String, Object>}, arrays
+ * {@code List<Object>}, numbers {@code Long} or {@code Double}; malformed input throws
+ * {@link IllegalArgumentException}.
+ */
+public final class JsonReader {
+    private static final int MAX_NESTING = 64;
+
+    private final String text;
+    private int pos;
+    private int nesting;
+
+    private JsonReader(String text) {
+        this.text = text;
+    }
+
+    public static Object parse(String text) {
+        JsonReader reader = new JsonReader(text);
+        reader.skipWhitespace();
+        Object value = reader.value();
+        reader.skipWhitespace();
+        if (reader.pos != text.length()) {
+            throw reader.error("trailing characters");
+        }
+        return value;
+    }
+
+    private Object value() {
+        char c = peek();
+        switch (c) {
+            case '{': return object();
+            case '[': return array();
+            case '"': return string();
+            default: return literal();
+        }
+    }
+
+    private Map<String, Object> object() {
+        enter();
+        Map<String, Object> fields = new LinkedHashMap<>();
+        pos++; // '{'
+        skipWhitespace();
+        if (peek() == '}') {
+            pos++;
+            nesting--;
+            return fields;
+        }
+        while (true) {
+            skipWhitespace();
+            String key = string();
+            skipWhitespace();
+            expect(':');
+            skipWhitespace();
+            fields.put(key, value());
+            skipWhitespace();
+            char c = next();
+            if (c == '}') {
+                nesting--;
+                return fields;
+            }
+            if (c != ',') {
+                throw error("expected ',' or '}'");
+            }
+        }
+    }
+
+    private List<Object> array() {
+        enter();
+        List<Object> items = new ArrayList<>();
+        pos++; // '['
+        skipWhitespace();
+        if (peek() == ']') {
+            pos++;
+            nesting--;
+            return items;
+        }
+        while (true) {
+            skipWhitespace();
+            items.add(value());
+            skipWhitespace();
+            char c = next();
+            if (c == ']') {
+                nesting--;
+                return items;
+            }
+            if (c != ',') {
+                throw error("expected ',' or ']'");
+            }
+        }
+    }
+
+    private Object literal() {
+        int start = pos;
+        while (pos < text.length() && ",}] \t\r\n".indexOf(text.charAt(pos)) < 0) {
+            pos++;
+        }
+        String literal = text.substring(start, pos);
+        switch (literal) {
+            case "null": return null;
+            case "true": return Boolean.TRUE;
+            case "false": return Boolean.FALSE;
+            default:
+        }
+        try {
+            if (literal.matches("-?\\d{1,18}")) {
+                return Long.parseLong(literal);
+            }
+            if (literal.matches("-?\\d+(\\.\\d+)?([eE][+-]?\\d+)?")) {
+                return Double.parseDouble(literal);
+            }
+        } catch (NumberFormatException e) {
+            // fall through to the error below
+        }
+        throw error("unexpected value '" + literal + "'");
+    }
+
+    private String string() {
+        expect('"');
+        StringBuilder sb = new StringBuilder();
+        while (true) {
+            char c = next();
+            if (c == '"') {
+                return sb.toString();
+            }
+            if (c != '\\') {
+                sb.append(c);
+                continue;
+            }
+            char escaped = next();
+            switch (escaped) {
+                case 'n': sb.append('\n'); break;
+                case 'r': sb.append('\r'); break;
+                case 't': sb.append('\t'); break;
+                case 'b': sb.append('\b'); break;
+                case 'f': sb.append('\f'); break;
+                case 'u':
+                    if (pos + 4 > text.length()) {
+                        throw error("truncated \\u escape");
+                    }
+                    try {
+                        sb.append((char) Integer.parseInt(text.substring(pos, pos + 4), 16));
+                    } catch (NumberFormatException e) {
+                        throw error("bad \\u escape");
+                    }
+                    pos += 4;
+                    break;
+                default: sb.append(escaped); // \" \\ \/
+            }
+        }
+    }
+
+    private void enter() {
+        if (++nesting > MAX_NESTING) {
+            throw error("nested too deeply");
+        }
+    }
+
+    private void skipWhitespace() {
+        while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+            pos++;
+        }
+    }
+
+    private char peek() {
+        if (pos >= text.length()) {
+            throw error("unexpected end of input");
+        }
+        return text.charAt(pos);
+    }
+
+    private char next() {
+        char c = peek();
+        pos++;
+        return c;
+    }
+
+    private void expect(char c) {
+        if (next() != c) {
+            throw error("expected '" + c + "'");
+        }
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException("Invalid JSON at offset " + pos + ": " + message);
+    }
+}
@@ -0,0 +1,48 @@
+package com.webcrawler;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free latency histogram with power-of-two millisecond buckets
+ * (bucket i holds values in [2^(i-1), 2^i) ms; bucket 0 holds 0 ms).
+ */
+public class LatencyHistogram {
+    public static final int BUCKETS = 20; // up to ~9 minutes
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    public void record(long millis) {
+        counts.incrementAndGet(bucketFor(millis));
+    }
+
+    public long[] snapshot() {
+        long[] copy = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            copy[i] = counts.get(i);
+        }
+        return copy;
+    }
+
+    static int bucketFor(long millis) {
+        if (millis <= 0) return 0;
+        int bucket = 64 - Long.numberOfLeadingZeros(millis);
+        return Math.min(bucket, BUCKETS - 1);
+    }
+
+    // Upper bound (ms) of the bucket containing the given percentile, or 0 if empty
+    public static long percentile(long[] buckets, double percentile) {
+        long total = 0;
+        for (long count : buckets) total += count;
+        if (total == 0) return 0;
+
+        long rank = (long) Math.ceil(total * percentile);
+        long seen = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            seen += buckets[i];
+            if (seen >= rank) {
+                return i == 0 ? 0 : 1L << i;
+            }
+        }
+        return 1L << (buckets.length - 1);
+    }
+}
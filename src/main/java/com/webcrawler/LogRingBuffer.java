@@ -0,0 +1,73 @@
+package com.webcrawler;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Fixed-size, lock-free log buffer. Writers never block; when the reader falls behind
+ * the oldest lines are overwritten and counted as dropped instead of piling up. Each slot
+ * holds its line together with the sequence it was written for, so the reader can tell a
+ * slot that is claimed but not yet written, or already overwritten by a later lap, from
+ * the line it expects.
+ */
+public class LogRingBuffer {
+    private final AtomicReferenceArray<Slot> slots;
+    private final AtomicLong writeSequence = new AtomicLong(0);
+    private final int capacity;
+    private long readSequence;
+    private long dropped;
+
+    public LogRingBuffer(int capacity) {
+        this.capacity = capacity;
+        this.slots = new AtomicReferenceArray<>(capacity);
+    }
+
+    public void append(String line) {
+        long seq = writeSequence.getAndIncrement();
+        Slot slot = new Slot(seq, line);
+        // A writer descheduled for a whole lap must not overwrite the newer line
+        slots.accumulateAndGet((int) (seq % capacity), slot,
+            (current, next) -> current == null || current.seq < next.seq ? next : current);
+    }
+
+    // Single reader: copies every line published since the last drain into out. Stops at the
+    // first slot still being written; that line is picked up by the next drain.
+    public synchronized int drainTo(List<String> out) {
+        long end = writeSequence.get();
+        long seq = readSequence;
+        if (end - seq > capacity) {
+            dropped += end - seq - capacity;
+            seq = end - capacity;
+        }
+        int added = 0;
+        for (; seq < end; seq++) {
+            Slot slot = slots.get((int) (seq % capacity));
+            if (slot == null || slot.seq < seq) {
+                break; // claimed, not yet written
+            }
+            if (slot.seq > seq) {
+                dropped++; // lapped before we got to it
+                continue;
+            }
+            out.add(slot.line);
+            added++;
+        }
+        readSequence = seq;
+        return added;
+    }
+
+    public synchronized long getDropped() {
+        return dropped;
+    }
+
+    private static final class Slot {
+        final long seq;
+        final String line;
+
+        Slot(long seq, String line) {
+            this.seq = seq;
+            this.line = line;
+        }
+    }
+}
@@ -8,7 +8,7 @@ public class Main {
             .maxPages(50)
             .maxDepth(3)
             .delayBetweenRequests(1000) // 1 second delay
-            .connectTimeout(10000) // 10 seconds
+            .connectTimeout(10000) // 10 seconds; ceiling for the adaptive per-host deadlines
             .build();
 
         // Create and start the crawler
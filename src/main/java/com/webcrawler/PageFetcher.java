@@ -0,0 +1,544 @@
+package com.webcrawler;
+
+import com.webcrawler.engine.Fetcher;
+import org.jsoup.HttpStatusException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.MalformedURLException;
+import java.net.SocketTimeoutException;
+import java.net.URL;
+import java.nio.charset.Charset;
+import java.nio.charset.IllegalCharsetNameException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Fetches a URL and inspects Content-Type / Content-Length before the body is read,
+ * so binary or oversized responses never reach the heap or the HTML parser.
+ * Connect, first-byte and total deadlines adapt per host (see {@link HostLatencyTracker});
+ * with hedging on, a fetch still running past the host's p95 gets a second attempt and
+ * whichever answers first wins, within a budget of hedged requests.
+ */
+public class PageFetcher implements Fetcher {
+    private static final CrawlLogger LOG = CrawlLogger.get();
+
+    private static final int MAX_REDIRECTS = 10;
+
+    private final CrawlerConfig config;
+    private final Path resourceDir;
+    private final Path resourceLog;
+    private final DnsCache dnsCache;
+    private final RetryPolicy retryPolicy;
+    private final HostCircuitBreaker circuitBreaker;
+    private final HostLatencyTracker latency;
+    private final ExecutorService hedgeExecutor;
+    private final AtomicInteger requests;
+    private final AtomicInteger hedged;
+    private final AtomicInteger hedgeWins;
+    private final boolean view;
+
+    public PageFetcher(CrawlerConfig config, Path outputDir) {
+        this(config, outputDir, new DnsCache(config));
+    }
+
+    public PageFetcher(CrawlerConfig config, Path outputDir, DnsCache dnsCache) {
+        this.config = config;
+        this.dnsCache = dnsCache;
+        this.retryPolicy = new RetryPolicy(config);
+        this.circuitBreaker = new HostCircuitBreaker(config);
+        this.latency = new HostLatencyTracker(config);
+        this.resourceDir = outputDir.resolve("files");
+        this.resourceLog = outputDir.resolve("data").resolve("resources.csv");
+        this.requests = new AtomicInteger(0);
+        this.hedged = new AtomicInteger(0);
+        this.hedgeWins = new AtomicInteger(0);
+        this.view = false;
+        AtomicInteger threadIds = new AtomicInteger(0);
+        this.hedgeExecutor = config.isHedgeRequests() ? Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, "hedge-" + threadIds.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
+    }
+
+    private PageFetcher(PageFetcher shared, Path outputDir) {
+        this.config = shared.config;
+        this.dnsCache = shared.dnsCache;
+        this.retryPolicy = shared.retryPolicy;
+        this.circuitBreaker = shared.circuitBreaker;
+        this.latency = shared.latency;
+        this.hedgeExecutor = shared.hedgeExecutor;
+        this.requests = shared.requests;
+        this.hedged = shared.hedged;
+        this.hedgeWins = shared.hedgeWins;
+        this.resourceDir = outputDir.resolve("files");
+        this.resourceLog = outputDir.resolve("data").resolve("resources.csv");
+        this.view = true;
+    }
+
+    // A fetcher that saves resources under another output directory but shares this one's
+    // DNS cache, circuit breaker, latency history and hedge pool; shutting it down is a no-op
+    public PageFetcher forOutputDir(Path outputDir) {
+        return new PageFetcher(this, outputDir);
+    }
+
+    // Retries transient failures with backoff; throws CircuitOpenException while the host is open
+    @Override
+    public FetchResult fetch(String url) throws IOException, InterruptedException {
+        String host = new URL(url).getHost().toLowerCase();
+        int attempt = 0;
+        while (true) {
+            boolean probe = circuitBreaker.acquire(host);
+            boolean settled = false;
+            try {
+                // Retries get the full configured timeout: the adaptive one may be what failed
+                boolean adaptive = config.isAdaptiveTimeouts() && attempt == 0;
+                FetchResult result = hedgeExecutor != null
+                    ? fetchHedged(url, host, adaptive)
+                    : fetchOnce(url, host, adaptive, new Attempt());
+                circuitBreaker.recordSuccess(host);
+                settled = true;
+                if (result.getKind() == FetchResult.Kind.RESOURCE) {
+                    recordResource(url, result.getContentType(), result.getContentLength(), result.getSavedPath());
+                }
+                return result;
+            } catch (CircuitOpenException e) {
+                throw e;
+            } catch (IOException e) {
+                if (e instanceof DeadlineExceededException) {
+                    // Slower than the host's recent p99, not down: the retry gets the full timeout
+                    if (probe) {
+                        circuitBreaker.abandonProbe(host);
+                    }
+                } else if (RetryPolicy.classify(e) == RetryPolicy.FailureClass.TRANSIENT) {
+                    circuitBreaker.recordFailure(host);
+                } else {
+                    circuitBreaker.recordSuccess(host); // the host answered; only this URL is bad
+                }
+                settled = true;
+                if (!retryPolicy.shouldRetry(e, attempt)) {
+                    throw e;
+                }
+                long backoff = retryPolicy.backoffMillis(attempt++);
+                LOG.warn("🔁 Retry %d for %s in %dms: %s", attempt, url, backoff, e.getMessage());
+                Thread.sleep(backoff);
+            } finally {
+                // Interrupted (engine shutdown, job cancel) or a runtime error: a half-open probe
+                // must not stay in flight, or the shared breaker rejects this host for good
+                if (probe && !settled) {
+                    circuitBreaker.abandonProbe(host);
+                }
+            }
+        }
+    }
+
+    // Waits the host's p95 for the first attempt, then races a second one against it
+    private FetchResult fetchHedged(String url, String host, boolean adaptive)
+            throws IOException, InterruptedException {
+        int total = requests.incrementAndGet();
+        long delay = adaptive ? latency.hedgeDelay(host) : -1;
+        if (delay < 0) {
+            return fetchOnce(url, host, adaptive, new Attempt());
+        }
+
+        CompletionService<FetchResult> race = new ExecutorCompletionService<>(hedgeExecutor);
+        Attempt primary = new Attempt();
+        Attempt backup = null;
+        boolean primaryWon = false;
+        boolean backupWon = false;
+        Future<FetchResult> primaryFuture = race.submit(() -> fetchOnce(url, host, true, primary));
+        try {
+            Future<FetchResult> done = race.poll(delay, TimeUnit.MILLISECONDS);
+            if (done == null && hedged.get() < total * config.getHedgeBudget()) {
+                hedged.incrementAndGet();
+                Attempt second = new Attempt();
+                backup = second;
+                race.submit(() -> fetchOnce(url, host, true, second));
+                LOG.debug("🪁 Hedging %s after %dms", url, delay);
+            }
+            if (done == null) {
+                done = race.take();
+            }
+            try {
+                FetchResult result = done.get();
+                primaryWon = done == primaryFuture;
+                backupWon = !primaryWon;
+                return result;
+            } catch (ExecutionException e) {
+                if (backup == null) {
+                    throw unwrap(e);
+                }
+                // One attempt failed; the other may still succeed
+                try {
+                    FetchResult result = race.take().get();
+                    backupWon = done == primaryFuture;
+                    primaryWon = !backupWon;
+                    return result;
+                } catch (ExecutionException second) {
+                    throw unwrap(done == primaryFuture ? e : second);
+                }
+            }
+        } finally {
+            // The loser is disconnected mid-flight; its thread exits with an exception nobody reads
+            if (!primaryWon) {
+                primary.cancel();
+            }
+            if (backup != null && !backupWon) {
+                backup.cancel();
+            }
+            if (backupWon) {
+                hedgeWins.incrementAndGet();
+            }
+        }
+    }
+
+    private static IOException unwrap(ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof IOException) {
+            return (IOException) cause;
+        }
+        if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+        }
+        return new IOException(cause);
+    }
+
+    private FetchResult fetchOnce(String url, String host, boolean adaptive, Attempt attempt) throws IOException {
+        // Fails fast on cached NXDOMAIN and warms the JVM resolver cache for the connect below
+        dnsCache.resolve(host);
+
+        int connectDeadline = adaptive ? latency.deadline(host, HostLatencyTracker.Phase.CONNECT) : config.getConnectTimeout();
+        int firstByteDeadline = adaptive ? latency.deadline(host, HostLatencyTracker.Phase.FIRST_BYTE) : config.getConnectTimeout();
+        int totalDeadline = adaptive ? latency.deadline(host, HostLatencyTracker.Phase.TOTAL) : config.getConnectTimeout();
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(totalDeadline);
+
+        HostLatencyTracker.Phase waiting = HostLatencyTracker.Phase.CONNECT;
+        try {
+            // Follow redirects by hand so http -> https hops work and every hop gets the deadlines
+            URL location = httpUrl(null, url);
+            HttpURLConnection connection;
+            long connectNanos = 0;
+            long firstByteNanos = 0;
+            int status;
+            for (int redirects = 0; ; redirects++) {
+                connection = (HttpURLConnection) location.openConnection();
+                connection.setInstanceFollowRedirects(false);
+                connection.setConnectTimeout(connectDeadline);
+                connection.setReadTimeout(firstByteDeadline);
+                connection.setRequestProperty("User-Agent", config.getUserAgent());
+                connection.setRequestProperty("Accept-Encoding", "gzip, deflate");
+                attempt.bind(connection);
+
+                long hopStart = System.nanoTime();
+                waiting = HostLatencyTracker.Phase.CONNECT;
+                connection.connect();
+                long connected = System.nanoTime();
+                waiting = HostLatencyTracker.Phase.FIRST_BYTE;
+                status = connection.getResponseCode();
+                waiting = HostLatencyTracker.Phase.TOTAL;
+                connectNanos += connected - hopStart;
+                firstByteNanos += System.nanoTime() - connected;
+
+                String next = connection.getHeaderField("Location");
+                if (status < 300 || status >= 400 || next == null) {
+                    break;
+                }
+                connection.disconnect();
+                if (redirects == MAX_REDIRECTS) {
+                    throw new IOException("Too many redirects fetching " + url);
+                }
+                location = httpUrl(location, next);
+                if (System.nanoTime() > deadline) {
+                    throw new SocketTimeoutException("Deadline of " + totalDeadline + "ms passed while redirecting");
+                }
+            }
+            if (status >= 400) {
+                connection.disconnect();
+                throw new HttpStatusException("HTTP error fetching URL", status, url);
+            }
+
+            String contentType = connection.getContentType();
+            long contentLength = parseContentLength(connection.getHeaderField("Content-Length"));
+            String charset = charsetOf(contentType);
+            long cap = config.getMaxBodySize();
+
+            // On success the drained stream is closed, not disconnected, so keep-alive can reuse the socket
+            FetchResult result;
+            try (InputStream body = decode(connection)) {
+                if (!isHtml(contentType)) {
+                    result = handleResource(url, status, contentType, contentLength, body, deadline, totalDeadline);
+                } else if (cap > 0 && contentLength > cap) {
+                    // Declared length already over the cap: abort before reading a byte
+                    result = new FetchResult(url, FetchResult.Kind.OVERSIZED, status,
+                        contentType, contentLength, null, charset, null);
+                } else {
+                    byte[] bytes = readCapped(body, contentLength, cap, deadline, totalDeadline);
+                    result = bytes == null
+                        ? new FetchResult(url, FetchResult.Kind.OVERSIZED, status, contentType, contentLength, null, charset, null)
+                        : new FetchResult(url, FetchResult.Kind.HTML, status, contentType, bytes.length, bytes, charset, null);
+                }
+            } catch (IOException | RuntimeException e) {
+                connection.disconnect();
+                throw e;
+            }
+
+            latency.record(host, TimeUnit.NANOSECONDS.toMillis(connectNanos),
+                TimeUnit.NANOSECONDS.toMillis(firstByteNanos),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            return result;
+        } catch (SocketTimeoutException e) {
+            int expired = waiting == HostLatencyTracker.Phase.CONNECT ? connectDeadline
+                : waiting == HostLatencyTracker.Phase.FIRST_BYTE ? firstByteDeadline : totalDeadline;
+            if (!adaptive || expired >= config.getConnectTimeout() || attempt.cancelled) {
+                throw e; // the configured timeout itself ran out
+            }
+            latency.recordTimeout(host, waiting, expired, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            throw new DeadlineExceededException(e.getMessage() + " (adaptive deadline " + expired + "ms)");
+        }
+    }
+
+    // Resolves a URL or Location header against the current one; anything other than
+    // http(s) is refused, so a redirect can never open a file:, jar: or ftp: connection
+    private static URL httpUrl(URL base, String spec) throws IOException {
+        URL resolved;
+        try {
+            resolved = base == null ? new URL(spec) : new URL(base, spec);
+        } catch (MalformedURLException e) {
+            throw new IOException("Bad URL '" + spec + "': " + e.getMessage());
+        }
+        String protocol = resolved.getProtocol().toLowerCase();
+        if (!protocol.equals("http") && !protocol.equals("https")) {
+            throw new IOException("Refusing to follow " + protocol + ": URL " + resolved);
+        }
+        return resolved;
+    }
+
+    public DnsCache getDnsCache() {
+        return dnsCache;
+    }
+
+    public HostCircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    public HostLatencyTracker getLatencyTracker() {
+        return latency;
+    }
+
+    public int getHedged() {
+        return hedged.get();
+    }
+
+    // Hedged fetches where the second attempt answered first
+    public int getHedgeWins() {
+        return hedgeWins.get();
+    }
+
+    public void shutdown() {
+        if (view) {
+            return; // shared state belongs to the fetcher this view came from
+        }
+        dnsCache.shutdown();
+        if (hedgeExecutor != null) {
+            hedgeExecutor.shutdownNow();
+        }
+    }
+
+    private FetchResult handleResource(String url, int statusCode, String contentType, long contentLength,
+                                       InputStream body, long deadline, int totalDeadline) throws IOException {
+        Path saved = null;
+        long length = contentLength;
+        long cap = config.getMaxBodySize();
+
+        if (config.getNonHtmlPolicy() == CrawlerConfig.NonHtmlPolicy.STREAM_TO_DISK
+                && (cap <= 0 || contentLength <= cap)) {
+            Files.createDirectories(resourceDir);
+            saved = resourceDir.resolve(resourceFileName(url));
+            length = streamToFile(body, saved, cap, deadline, totalDeadline);
+            if (length < 0) {
+                saved = null;
+                length = contentLength;
+            }
+        }
+
+        return new FetchResult(url, FetchResult.Kind.RESOURCE, statusCode,
+            contentType, length, null, null, saved);
+    }
+
+    // Returns null as soon as the body grows past the cap
+    private byte[] readCapped(InputStream in, long contentLength, long cap, long deadline, int totalDeadline)
+            throws IOException {
+        int initial = contentLength > 0 && contentLength < Integer.MAX_VALUE ? (int) contentLength : 32 * 1024;
+        ByteArrayOutputStream out = new ByteArrayOutputStream(initial);
+        byte[] buffer = new byte[8192];
+        long total = 0;
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            total += read;
+            if (cap > 0 && total > cap) {
+                return null;
+            }
+            out.write(buffer, 0, read);
+            checkDeadline(deadline, totalDeadline);
+        }
+        return out.toByteArray();
+    }
+
+    // Returns the number of bytes written, or -1 if the cap was exceeded. Writes go to a
+    // temp file that is moved into place, so a cancelled hedge never leaves a partial file.
+    private long streamToFile(InputStream in, Path target, long cap, long deadline, int totalDeadline)
+            throws IOException {
+        Path tmp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".part");
+        byte[] buffer = new byte[8192];
+        long total = 0;
+        int read;
+        boolean complete = false;
+        try {
+            try (OutputStream out = Files.newOutputStream(tmp)) {
+                while ((read = in.read(buffer)) != -1) {
+                    total += read;
+                    if (cap > 0 && total > cap) {
+                        return -1;
+                    }
+                    out.write(buffer, 0, read);
+                    checkDeadline(deadline, totalDeadline);
+                }
+            }
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+            complete = true;
+        } finally {
+            if (!complete) {
+                Files.deleteIfExists(tmp);
+            }
+        }
+        return total;
+    }
+
+    private static void checkDeadline(long deadline, int totalDeadline) throws SocketTimeoutException {
+        if (System.nanoTime() > deadline) {
+            throw new SocketTimeoutException("Body not received within " + totalDeadline + "ms");
+        }
+    }
+
+    private synchronized void recordResource(String url, String contentType, long length, Path saved) {
+        try {
+            Files.createDirectories(resourceLog.getParent());
+            boolean writeHeader = !Files.exists(resourceLog);
+            StringBuilder line = new StringBuilder();
+            if (writeHeader) {
+                line.append("URL,Content_Type,Content_Length,Saved_Path\n");
+            }
+            line.append('"').append(url.replace("\"", "\"\"")).append("\",\"")
+                .append(contentType == null ? "" : contentType).append("\",")
+                .append(length).append(",\"")
+                .append(saved == null ? "" : saved.toString()).append("\"\n");
+            Files.write(resourceLog, line.toString().getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            LOG.warn("⚠️ Failed to record resource: " + url + " - " + e.getMessage());
+        }
+    }
+
+    // Undoes Content-Encoding so callers always see the identity body
+    private static InputStream decode(HttpURLConnection connection) throws IOException {
+        InputStream in = connection.getInputStream();
+        String encoding = connection.getContentEncoding();
+        if (encoding == null) {
+            return in;
+        }
+        encoding = encoding.trim().toLowerCase();
+        if (encoding.equals("gzip") || encoding.equals("x-gzip")) {
+            return new GZIPInputStream(in, 8192);
+        }
+        if (encoding.equals("deflate")) {
+            return new InflaterInputStream(in);
+        }
+        return in;
+    }
+
+    static String charsetOf(String contentType) {
+        if (contentType == null) {
+            return null;
+        }
+        int at = contentType.toLowerCase().indexOf("charset=");
+        if (at < 0) {
+            return null;
+        }
+        String charset = contentType.substring(at + "charset=".length()).trim();
+        int end = charset.indexOf(';');
+        if (end >= 0) {
+            charset = charset.substring(0, end).trim();
+        }
+        charset = charset.replace("\"", "").replace("'", "");
+        try {
+            return Charset.isSupported(charset) ? charset : null; // unknown: let the parser sniff
+        } catch (IllegalCharsetNameException e) {
+            return null;
+        }
+    }
+
+    static boolean isHtml(String contentType) {
+        if (contentType == null) {
+            return true; // servers that omit the header are almost always serving HTML
+        }
+        String type = contentType.toLowerCase();
+        return type.startsWith("text/html") || type.startsWith("application/xhtml+xml");
+    }
+
+    private static long parseContentLength(String header) {
+        if (header == null) return -1;
+        try {
+            return Long.parseLong(header.trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static String resourceFileName(String url) {
+        String name = url.replaceFirst("^https?://", "").replaceAll("[^a-zA-Z0-9.-]", "_");
+        if (name.length() > 150) {
+            name = name.substring(0, 150);
+        }
+        return name + "_" + Integer.toHexString(url.hashCode());
+    }
+
+    // One fetch attempt's connection, so a hedge race can abort the loser mid-transfer
+    private static final class Attempt {
+        private volatile HttpURLConnection connection;
+        private volatile boolean cancelled;
+
+        void bind(HttpURLConnection connection) throws IOException {
+            this.connection = connection;
+            if (cancelled) {
+                connection.disconnect();
+                throw new IOException("Attempt cancelled");
+            }
+        }
+
+        void cancel() {
+            cancelled = true;
+            HttpURLConnection current = connection;
+            if (current != null) {
+                current.disconnect();
+            }
+        }
+    }
+}
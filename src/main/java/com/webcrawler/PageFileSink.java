@@ -0,0 +1,38 @@
+package com.webcrawler;
+
+import com.webcrawler.engine.PageContext;
+import com.webcrawler.engine.Sink;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+// Sink stage: writes each page's raw HTML to pages/ and its text to content/ through a PageStore
+public class PageFileSink implements Sink {
+    private static final CrawlLogger LOG = CrawlLogger.get();
+
+    private final PageStore store;
+
+    public PageFileSink(Path outputDir, boolean compress) {
+        this(outputDir, compress, CrawlerConfig.PageLayout.FLAT);
+    }
+
+    public PageFileSink(Path outputDir, boolean compress, CrawlerConfig.PageLayout layout) {
+        this.store = new PageStore(outputDir, layout, compress);
+    }
+
+    @Override
+    public void accept(PageContext page) throws IOException {
+        if (page.isSkipStorage()) {
+            return;
+        }
+        // The response body exactly as received, in its original charset
+        store.store(page.getUrl(), page.getFetchResult().getBody(), page.getText(),
+            page.getFetchedAt(), page.getDepth());
+        LOG.debug("💾 Saved: %s (HTML & Text)", page.getUrl());
+    }
+
+    @Override
+    public void close() throws IOException {
+        store.close();
+    }
+}
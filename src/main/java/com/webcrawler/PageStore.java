@@ -0,0 +1,164 @@
+package com.webcrawler;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-file storage for crawled pages: raw HTML under pages/ and extracted text under
+ * content/. In the HASHED layout a page is named by the hash of its URL and placed in a
+ * two-level shard directory (pages/ab/cd/abcd....html), so distinct URLs never collide
+ * and no directory grows past a few hundred entries. Every stored page is appended to
+ * data/page_manifest.tsv (url hash, path, bytes, sha256, fetch time, depth, url); later
+ * lines for the same URL supersede earlier ones.
+ */
+public class PageStore implements Closeable {
+    private static final CrawlLogger LOG = CrawlLogger.get();
+
+    public static final String MANIFEST_FILE = "page_manifest.tsv";
+    static final String MANIFEST_HEADER = "url_hash\tpath\tbytes\tsha256\tfetched_at\tdepth\turl\n";
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final Path outputDir;
+    private final Path pagesDir;
+    private final Path contentDir;
+    private final Path manifest;
+    private final CrawlerConfig.PageLayout layout;
+    private final boolean compress;
+    private final Set<Path> createdDirs = ConcurrentHashMap.newKeySet();
+    private BufferedWriter manifestWriter;
+
+    public PageStore(Path outputDir, CrawlerConfig.PageLayout layout, boolean compress) {
+        this.outputDir = outputDir;
+        this.pagesDir = outputDir.resolve("pages");
+        this.contentDir = outputDir.resolve("content");
+        this.manifest = outputDir.resolve("data").resolve(MANIFEST_FILE);
+        this.layout = layout;
+        this.compress = compress;
+    }
+
+    // Writes the raw body (if any) and the text, then records the page in the manifest
+    public void store(String url, byte[] rawHtml, String text, long fetchedAt, int depth) throws IOException {
+        String hash = urlHash(url);
+        String name = layout == CrawlerConfig.PageLayout.HASHED ? hash : sanitizeFileName(url);
+
+        Path htmlFile = null;
+        if (rawHtml != null) {
+            htmlFile = CompressedFiles.write(target(pagesDir, hash, name + ".html"), rawHtml, compress);
+        }
+        if (text != null) {
+            CompressedFiles.writeString(target(contentDir, hash, name + ".txt"), text, compress);
+        }
+        if (htmlFile != null) {
+            appendManifest(hash, htmlFile, rawHtml, fetchedAt, depth, url);
+        }
+    }
+
+    public CrawlerConfig.PageLayout getLayout() {
+        return layout;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (manifestWriter != null) {
+            manifestWriter.close();
+            manifestWriter = null;
+        }
+    }
+
+    // Resolves the file inside its shard directory, creating each directory only once
+    private Path target(Path root, String hash, String fileName) throws IOException {
+        Path dir = root;
+        if (layout == CrawlerConfig.PageLayout.HASHED) {
+            dir = root.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4));
+        }
+        if (createdDirs.add(dir)) {
+            Files.createDirectories(dir);
+        }
+        return dir.resolve(fileName);
+    }
+
+    private void appendManifest(String hash, Path file, byte[] body, long fetchedAt, int depth, String url)
+            throws IOException {
+        String path = outputDir.relativize(file).toString().replace('\\', '/');
+        String line = hash + '\t' + path + '\t' + body.length + '\t' + bodyDigest(body) + '\t'
+            + fetchedAt + '\t' + depth + '\t' + url.replace('\t', ' ').replace('\n', ' ').replace('\r', ' ') + '\n';
+        synchronized (this) {
+            if (manifestWriter == null) {
+                Files.createDirectories(manifest.getParent());
+                boolean writeHeader = !Files.exists(manifest);
+                manifestWriter = Files.newBufferedWriter(manifest, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+                if (writeHeader) {
+                    manifestWriter.write(MANIFEST_HEADER);
+                }
+            }
+            manifestWriter.write(line);
+        }
+    }
+
+    // First 128 bits of SHA-256 over the URL, as 32 hex chars
+    public static String urlHash(String url) {
+        return hex(sha256(url.getBytes(StandardCharsets.UTF_8)), 16);
+    }
+
+    // The manifest's sha256 column: full SHA-256 of the stored body, as 64 hex chars
+    public static String bodyDigest(byte[] body) {
+        return hex(sha256(body), 32);
+    }
+
+    // Legacy flat name: host + path with every run of unsafe characters collapsed to one '_'
+    public static String sanitizeFileName(String url) {
+        String name;
+        try {
+            URL urlObj = new URL(url);
+            name = urlObj.getHost() + urlObj.getPath();
+        } catch (Exception e) {
+            name = url;
+        }
+        StringBuilder out = new StringBuilder(name.length());
+        boolean pendingUnderscore = false;
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            boolean safe = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z')
+                || (c >= '0' && c <= '9') || c == '.' || c == '-';
+            if (!safe) {
+                pendingUnderscore = true;
+                continue;
+            }
+            if (pendingUnderscore && out.length() > 0) {
+                out.append('_');
+            }
+            pendingUnderscore = false;
+            out.append(c);
+        }
+        return out.toString();
+    }
+
+    private static byte[] sha256(byte[] data) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(data);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static String hex(byte[] bytes, int length) {
+        char[] out = new char[length * 2];
+        for (int i = 0; i < length; i++) {
+            out[i * 2] = HEX[(bytes[i] >> 4) & 0xf];
+            out[i * 2 + 1] = HEX[bytes[i] & 0xf];
+        }
+        return new String(out);
+    }
+}
@@ -0,0 +1,40 @@
+package com.webcrawler;
+
+import java.util.Set;
+
+// Per-page metadata the basic crawler writes to crawl_data.csv
+public class PageSummary {
+    private final String title;
+    private final String description;
+    private final int wordCount;
+    private final int linkCount;
+    private final int imageCount;
+    private final int headingCount;
+    private final Set<String> emails;
+    private final Set<String> phoneNumbers;
+    private final boolean hasContactForm;
+
+    public PageSummary(String title, String description, int wordCount, int linkCount,
+                       int imageCount, int headingCount, Set<String> emails,
+                       Set<String> phoneNumbers, boolean hasContactForm) {
+        this.title = title;
+        this.description = description;
+        this.wordCount = wordCount;
+        this.linkCount = linkCount;
+        this.imageCount = imageCount;
+        this.headingCount = headingCount;
+        this.emails = emails;
+        this.phoneNumbers = phoneNumbers;
+        this.hasContactForm = hasContactForm;
+    }
+
+    public String getTitle() { return title; }
+    public String getDescription() { return description; }
+    public int getWordCount() { return wordCount; }
+    public int getLinkCount() { return linkCount; }
+    public int getImageCount() { return imageCount; }
+    public int getHeadingCount() { return headingCount; }
+    public Set<String> getEmails() { return emails; }
+    public Set<String> getPhoneNumbers() { return phoneNumbers; }
+    public boolean hasContactForm() { return hasContactForm; }
+}
@@ -0,0 +1,68 @@
+package com.webcrawler;
+
+import com.webcrawler.engine.Extractor;
+import com.webcrawler.engine.PageContext;
+import org.jsoup.nodes.Document;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Extract stage of the basic crawler: metadata, counts, emails and phone numbers
+public class PageSummaryExtractor implements Extractor {
+
+    // Regular expressions for extracting useful data
+    private static final Pattern EMAIL_PATTERN = Pattern.compile(
+        "\\b[A-Za-z0-9._%+-]+@[A-Za-z0-9.-]+\\.[A-Z|a-z]{2,}\\b"
+    );
+
+    private static final Pattern PHONE_PATTERN = Pattern.compile(
+        "(?:\\+?1[-. ]?)?\\(?([0-9]{3})\\)?[-. ]?([0-9]{3})[-. ]?([0-9]{4})\\b|" +
+        "\\b\\d{3}[-.]?\\d{3}[-.]?\\d{4}\\b"
+    );
+
+    @Override
+    public void extract(PageContext page) {
+        Document document = page.getDocument();
+
+        // Extract page metadata
+        String title = document.select("title").text();
+        String description = document.select("meta[name=description]").attr("content");
+        if (description.isEmpty()) {
+            description = document.select("meta[property=og:description]").attr("content");
+        }
+
+        // Count elements
+        String pageText = page.getText();
+        int linkCount = document.select("a[href]").size();
+        int imageCount = document.select("img[src]").size();
+        int headingCount = document.select("h1, h2, h3, h4, h5, h6").size();
+        int wordCount = pageText.split("\\s+").length;
+
+        // Extract emails
+        Set<String> emails = new HashSet<>();
+        Matcher emailMatcher = EMAIL_PATTERN.matcher(pageText);
+        while (emailMatcher.find()) {
+            emails.add(emailMatcher.group().toLowerCase());
+        }
+
+        // Extract phone numbers
+        Set<String> phoneNumbers = new HashSet<>();
+        Matcher phoneMatcher = PHONE_PATTERN.matcher(pageText);
+        while (phoneMatcher.find()) {
+            phoneNumbers.add(phoneMatcher.group());
+        }
+
+        // Check for contact forms
+        String lowerText = pageText.toLowerCase();
+        boolean hasContactForm = !document.select("form").isEmpty() &&
+            (lowerText.contains("contact") ||
+             lowerText.contains("email") ||
+             document.select("input[type=email]").size() > 0 ||
+             document.select("textarea").size() > 0);
+
+        page.put(PageSummary.class, new PageSummary(title, description, wordCount, linkCount,
+            imageCount, headingCount, emails, phoneNumbers, hasContactForm));
+    }
+}
@@ -0,0 +1,155 @@
+package com.webcrawler;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Date;
+
+/**
+ * Streams CSV and JSON fields straight into a {@link Writer}. Escaping is a single pass
+ * that copies unescaped runs in one write, numbers are formatted into a reusable scratch
+ * buffer, and the last formatted timestamp is cached per second, so encoding a record
+ * allocates nothing beyond what the writer itself does. Not thread-safe: use one encoder
+ * per writer.
+ */
+public class RecordEncoder {
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final Writer out;
+    private final char[] scratch = new char[20];
+    private long cachedSecond = Long.MIN_VALUE;
+    private String cachedTimestamp;
+
+    public RecordEncoder(Writer out) {
+        this.out = out;
+    }
+
+    public Writer getWriter() {
+        return out;
+    }
+
+    public RecordEncoder raw(String text) throws IOException {
+        out.write(text);
+        return this;
+    }
+
+    public RecordEncoder raw(char c) throws IOException {
+        out.write(c);
+        return this;
+    }
+
+    public RecordEncoder number(long value) throws IOException {
+        if (value == Long.MIN_VALUE) {
+            out.write(Long.toString(value));
+            return this;
+        }
+        int pos = scratch.length;
+        boolean negative = value < 0;
+        long rest = negative ? -value : value;
+        do {
+            scratch[--pos] = (char) ('0' + rest % 10);
+            rest /= 10;
+        } while (rest != 0);
+        if (negative) {
+            scratch[--pos] = '-';
+        }
+        out.write(scratch, pos, scratch.length - pos);
+        return this;
+    }
+
+    public RecordEncoder decimal(double value) throws IOException {
+        out.write(Double.toString(value));
+        return this;
+    }
+
+    public RecordEncoder bool(boolean value) throws IOException {
+        out.write(value ? "true" : "false");
+        return this;
+    }
+
+    // Same text as new Date(millis).toString(), formatted once per distinct second
+    public RecordEncoder timestamp(long millis) throws IOException {
+        long second = Math.floorDiv(millis, 1000);
+        if (second != cachedSecond) {
+            cachedTimestamp = new Date(millis).toString();
+            cachedSecond = second;
+        }
+        out.write(cachedTimestamp);
+        return this;
+    }
+
+    // Quoted CSV field: quotes doubled, line breaks flattened to spaces; null is an empty field
+    public RecordEncoder csvField(CharSequence value) throws IOException {
+        out.write('"');
+        csvEscaped(value);
+        out.write('"');
+        return this;
+    }
+
+    public RecordEncoder csvEscaped(CharSequence value) throws IOException {
+        if (value == null) {
+            return this;
+        }
+        int length = value.length();
+        int start = 0;
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c != '"' && c != '\n' && c != '\r') {
+                continue;
+            }
+            flush(value, start, i);
+            out.write(c == '"' ? "\"\"" : " ");
+            start = i + 1;
+        }
+        flush(value, start, length);
+        return this;
+    }
+
+    // Quoted JSON string; null is written as an empty string
+    public RecordEncoder jsonString(CharSequence value) throws IOException {
+        out.write('"');
+        jsonEscaped(value);
+        out.write('"');
+        return this;
+    }
+
+    public RecordEncoder jsonEscaped(CharSequence value) throws IOException {
+        if (value == null) {
+            return this;
+        }
+        int length = value.length();
+        int start = 0;
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c >= 0x20 && c != '"' && c != '\\') {
+                continue;
+            }
+            flush(value, start, i);
+            switch (c) {
+                case '"': out.write("\\\""); break;
+                case '\\': out.write("\\\\"); break;
+                case '\n': out.write("\\n"); break;
+                case '\r': out.write("\\r"); break;
+                case '\t': out.write("\\t"); break;
+                default:
+                    // Other control characters are invalid raw in JSON
+                    out.write("\\u00");
+                    out.write(HEX[c >> 4]);
+                    out.write(HEX[c & 0xf]);
+            }
+            start = i + 1;
+        }
+        flush(value, start, length);
+        return this;
+    }
+
+    private void flush(CharSequence value, int from, int to) throws IOException {
+        if (from == to) {
+            return;
+        }
+        if (value instanceof String) {
+            out.write((String) value, from, to - from);
+        } else {
+            out.append(value, from, to);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.webcrawler;
+
+import org.jsoup.HttpStatusException;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Classifies fetch failures and computes exponential backoff with full jitter.
+ */
+public class RetryPolicy {
+    public enum FailureClass {
+        // Transient; worth retrying and counts against the host's circuit
+        TRANSIENT,
+        // Permanent for this URL (404, bad URL...); the host itself is fine
+        PERMANENT
+    }
+
+    private final int maxRetries;
+    private final long baseDelay;
+    private final long maxDelay;
+
+    public RetryPolicy(CrawlerConfig config) {
+        this(config.getMaxRetries(), config.getRetryBaseDelay(), config.getRetryMaxDelay());
+    }
+
+    public RetryPolicy(int maxRetries, long baseDelay, long maxDelay) {
+        this.maxRetries = maxRetries;
+        this.baseDelay = baseDelay;
+        this.maxDelay = maxDelay;
+    }
+
+    public static FailureClass classify(IOException e) {
+        if (e instanceof HttpStatusException) {
+            int status = ((HttpStatusException) e).getStatusCode();
+            return status >= 500 || status == 429 || status == 408 ? FailureClass.TRANSIENT : FailureClass.PERMANENT;
+        }
+        if (e instanceof UnknownHostException) {
+            return FailureClass.PERMANENT; // negative-cached by DnsCache; retrying won't help
+        }
+        if (e instanceof SocketTimeoutException || e instanceof ConnectException
+                || e instanceof NoRouteToHostException || e instanceof SocketException) {
+            return FailureClass.TRANSIENT;
+        }
+        return FailureClass.PERMANENT;
+    }
+
+    public boolean shouldRetry(IOException e, int attempt) {
+        return attempt < maxRetries && !(e instanceof CircuitOpenException)
+            && classify(e) == FailureClass.TRANSIENT;
+    }
+
+    // Full jitter: uniform in [0, min(maxDelay, base * 2^attempt)]
+    public long backoffMillis(int attempt) {
+        long ceiling = Math.min(maxDelay, baseDelay << Math.min(attempt, 20));
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+}
@@ -0,0 +1,207 @@
+package com.webcrawler;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Finds a site's sitemaps (robots.txt "Sitemap:" lines, else /sitemap.xml and
+ * /sitemap_index.xml) and streams every page URL they list. Documents are read with a
+ * StAX cursor straight off the socket, gzipped or not, so a 50k-entry sitemap or a
+ * multi-million-URL index never sits in memory as a whole.
+ */
+public class SitemapSeeder {
+    private static final CrawlLogger LOG = CrawlLogger.get();
+
+    private static final List<String> DEFAULT_LOCATIONS = Arrays.asList("/sitemap.xml", "/sitemap_index.xml");
+    private static final int MAX_SITEMAPS = 1000;
+
+    // Receives each page URL; returning false stops seeding
+    @FunctionalInterface
+    public interface UrlConsumer {
+        boolean accept(String url, long lastModified);
+    }
+
+    private final CrawlerConfig config;
+    private final XMLInputFactory xmlFactory;
+
+    public SitemapSeeder(CrawlerConfig config) {
+        this.config = config;
+        this.xmlFactory = XMLInputFactory.newInstance();
+        // Sitemaps are untrusted input: no DTDs, no external entities
+        xmlFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        xmlFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        xmlFactory.setProperty(XMLInputFactory.IS_COALESCING, true);
+    }
+
+    // Returns the number of URLs handed to the consumer
+    public int seed(String seedUrl, UrlConsumer consumer) throws InterruptedException {
+        String root;
+        try {
+            URL url = new URL(seedUrl);
+            root = url.getProtocol() + "://" + url.getAuthority();
+        } catch (IOException e) {
+            return 0;
+        }
+
+        Deque<String> pending = new ArrayDeque<>(discover(root));
+        Set<String> seen = new HashSet<>(pending);
+        int accepted = 0;
+        int processed = 0;
+        boolean stop = false;
+        while (!pending.isEmpty() && !stop && processed++ < MAX_SITEMAPS) {
+            if (Thread.currentThread().isInterrupted()) {
+                throw new InterruptedException();
+            }
+            String sitemap = pending.poll();
+            int[] counts = new int[1];
+            try {
+                stop = !parse(sitemap, child -> {
+                    if (seen.add(child)) {
+                        pending.add(child);
+                    }
+                }, (url, lastModified) -> {
+                    counts[0]++;
+                    return consumer.accept(url, lastModified);
+                });
+                LOG.info("🗺️ Sitemap %s: %d URLs", sitemap, counts[0]);
+            } catch (IOException | XMLStreamException e) {
+                LOG.warn("⚠️ Failed to read sitemap " + sitemap + ": " + e.getMessage());
+            }
+            accepted += counts[0];
+        }
+        return accepted;
+    }
+
+    private List<String> discover(String root) {
+        List<String> sitemaps = new ArrayList<>();
+        try (InputStream in = open(root + "/robots.txt")) {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.regionMatches(true, 0, "sitemap:", 0, 8)) {
+                    String location = line.substring(8).trim();
+                    if (!location.isEmpty()) {
+                        sitemaps.add(location);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            LOG.debug("No robots.txt for %s: %s", root, e.getMessage());
+        }
+        if (sitemaps.isEmpty()) {
+            for (String location : DEFAULT_LOCATIONS) {
+                sitemaps.add(root + location);
+            }
+        }
+        return sitemaps;
+    }
+
+    // Returns false if the consumer asked to stop
+    private boolean parse(String sitemap, Consumer<String> childSitemaps, UrlConsumer urls)
+            throws IOException, XMLStreamException {
+        try (InputStream in = open(sitemap)) {
+            XMLStreamReader reader = xmlFactory.createXMLStreamReader(in);
+            try {
+                String loc = null;
+                String lastmod = null;
+                String field = null;
+                while (reader.hasNext()) {
+                    switch (reader.next()) {
+                        case XMLStreamConstants.START_ELEMENT:
+                            String name = reader.getLocalName();
+                            if ("url".equals(name) || "sitemap".equals(name)) {
+                                loc = null;
+                                lastmod = null;
+                            } else if ("loc".equals(name) || "lastmod".equals(name)) {
+                                field = name;
+                            }
+                            break;
+                        case XMLStreamConstants.CHARACTERS:
+                        case XMLStreamConstants.CDATA:
+                            if ("loc".equals(field)) {
+                                loc = reader.getText().trim();
+                            } else if ("lastmod".equals(field)) {
+                                lastmod = reader.getText().trim();
+                            }
+                            break;
+                        case XMLStreamConstants.END_ELEMENT:
+                            String end = reader.getLocalName();
+                            field = null;
+                            if ("sitemap".equals(end) && loc != null) {
+                                childSitemaps.accept(loc);
+                            } else if ("url".equals(end) && loc != null) {
+                                if (!urls.accept(loc, parseLastModified(lastmod))) {
+                                    return false;
+                                }
+                            }
+                            break;
+                        default:
+                            break;
+                    }
+                }
+                return true;
+            } finally {
+                reader.close();
+            }
+        }
+    }
+
+    private InputStream open(String location) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(location).openConnection();
+        connection.setConnectTimeout(config.getConnectTimeout());
+        connection.setReadTimeout(config.getConnectTimeout());
+        connection.setRequestProperty("User-Agent", config.getUserAgent());
+        connection.setInstanceFollowRedirects(true);
+        int status = connection.getResponseCode();
+        if (status != HttpURLConnection.HTTP_OK) {
+            connection.disconnect();
+            throw new IOException("HTTP " + status);
+        }
+
+        // .xml.gz files and gzip bodies alike start with the gzip magic bytes
+        InputStream in = new BufferedInputStream(connection.getInputStream(), 1 << 16);
+        in.mark(2);
+        int first = in.read();
+        int second = in.read();
+        in.reset();
+        return first == 0x1f && second == 0x8b ? new GZIPInputStream(in, 1 << 16) : in;
+    }
+
+    // W3C datetime: a date, or a date-time with offset
+    static long parseLastModified(String value) {
+        if (value == null || value.isEmpty()) {
+            return 0;
+        }
+        try {
+            if (value.length() <= 10) {
+                return LocalDate.parse(value).atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli();
+            }
+            return OffsetDateTime.parse(value).toInstant().toEpochMilli();
+        } catch (RuntimeException e) {
+            return 0;
+        }
+    }
+}
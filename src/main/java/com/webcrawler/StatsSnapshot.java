@@ -0,0 +1,49 @@
+package com.webcrawler;
+
+// Immutable point-in-time copy of CrawlerStats, safe to hand to the EDT
+public final class StatsSnapshot {
+    private final long timestamp;
+    private final int pagesCrawled;
+    private final int pagesQueued;
+    private final int failedPages;
+    private final int skippedResources;
+    private final long totalBytesDownloaded;
+    private final long elapsedTime;
+    private final long[] latencyBuckets;
+
+    StatsSnapshot(long timestamp, int pagesCrawled, int pagesQueued, int failedPages, int skippedResources,
+                  long totalBytesDownloaded, long elapsedTime, long[] latencyBuckets) {
+        this.timestamp = timestamp;
+        this.pagesCrawled = pagesCrawled;
+        this.pagesQueued = pagesQueued;
+        this.failedPages = failedPages;
+        this.skippedResources = skippedResources;
+        this.totalBytesDownloaded = totalBytesDownloaded;
+        this.elapsedTime = elapsedTime;
+        this.latencyBuckets = latencyBuckets;
+    }
+
+    public long getTimestamp() { return timestamp; }
+    public int getPagesCrawled() { return pagesCrawled; }
+    public int getPagesQueued() { return pagesQueued; }
+    public int getFailedPages() { return failedPages; }
+    public int getSkippedResources() { return skippedResources; }
+    public long getTotalBytesDownloaded() { return totalBytesDownloaded; }
+    public long getElapsedTime() { return elapsedTime; }
+    public long[] getLatencyBuckets() { return latencyBuckets.clone(); }
+
+    public double getPagesPerSecond() {
+        return elapsedTime > 0 ? pagesCrawled / (elapsedTime / 1000.0) : 0;
+    }
+
+    // Latency buckets recorded between an earlier snapshot and this one
+    public long[] latencySince(StatsSnapshot earlier) {
+        long[] delta = latencyBuckets.clone();
+        if (earlier != null) {
+            for (int i = 0; i < delta.length; i++) {
+                delta[i] -= earlier.latencyBuckets[i];
+            }
+        }
+        return delta;
+    }
+}
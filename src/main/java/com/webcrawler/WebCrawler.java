@@ -1,40 +1,61 @@
 package com.webcrawler;
 
-import java.net.URL;
+import com.webcrawler.engine.CrawlEngine;
+import com.webcrawler.engine.TrapDetector;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.List;
-import java.util.concurrent.*;
 import java.util.function.Consumer;
 import java.util.concurrent.CopyOnWriteArrayList;
 
-public class WebCrawler {
+public class WebCrawler implements Crawler {
+    private static final CrawlLogger LOG = CrawlLogger.get();
+
     private final CrawlerConfig config;
-    private final ExecutorService executor;
-    private final BlockingQueue<CrawlerTask> taskQueue;
-    private final ConcurrentHashMap<String, Integer> visitedUrls;
+    private final CrawlEngine engine;
     private final CrawlerStats stats;
 
     private Consumer<String> logConsumer;
     private List<CrawlStatusListener> listeners = new CopyOnWriteArrayList<>();
 
     public WebCrawler(CrawlerConfig config) {
+        this(config, Paths.get("crawler_output"), null, null);
+    }
+
+    // A crawl writing to outputDir; a non-null fetcher and politeness gate are shared with other crawls
+    public WebCrawler(CrawlerConfig config, Path outputDir, PageFetcher sharedFetcher, HostPoliteness politeness) {
         this.config = config;
-        this.executor = Executors.newFixedThreadPool(config.getMaxThreads());
-        this.taskQueue = new LinkedBlockingQueue<>();
-        this.visitedUrls = new ConcurrentHashMap<>();
-        this.stats = new CrawlerStats();
+        this.engine = new CrawlEngine.Builder(config)
+                .outputDir(outputDir)
+                .pageFetcher(sharedFetcher != null ? sharedFetcher.forOutputDir(outputDir) : null)
+                .politeness(politeness)
+                .extractor(new PageSummaryExtractor())
+                .sink(new PageFileSink(outputDir, config.isCompressStorage(), config.getPageLayout()))
+                .sink(new CsvSummarySink(outputDir.resolve("data").resolve("crawl_data.csv")))
+                .build();
+        this.stats = engine.getStats();
+        LOG.setLevel(config.getLogLevel());
     }
 
-    // GUI logging support
+    // GUI logging support: the consumer is one more subscriber of the async crawl log
     public void setLogConsumer(Consumer<String> logConsumer) {
+        if (this.logConsumer != null) {
+            LOG.removeSubscriber(this.logConsumer);
+        }
         this.logConsumer = logConsumer;
+        if (logConsumer != null) {
+            LOG.addSubscriber(logConsumer);
+        }
     }
 
     private void printLog(String message) {
-        if (logConsumer != null) {
-            logConsumer.accept(message);
-        } else {
-            System.out.println(message);
-        }
+        LOG.info(message);
+    }
+
+    @Override
+    public CrawlerStats getStats() {
+        return stats;
     }
 
     // CrawlStatusListener (optional, for advanced GUIs)
@@ -50,26 +71,67 @@ public class WebCrawler {
         }
     }
 
+    // Runtime control API
+
+    @Override
+    public void pause() {
+        engine.pause();
+        LOG.info("⏸️ Crawl paused (%d queued)", engine.getFrontier().size());
+    }
+
+    @Override
+    public void resume() {
+        engine.resume();
+        LOG.info("▶️ Crawl resumed");
+    }
+
+    // Cooperative: workers finish their current fetch, then exit; startCrawling returns after shutdown
+    @Override
+    public void cancel() {
+        engine.cancel();
+    }
+
+    @Override
+    public boolean isPaused() {
+        return engine.isPaused();
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return engine.isCancelled();
+    }
+
+    @Override
+    public void setWorkerCount(int workers) {
+        engine.setWorkerCount(workers);
+        LOG.info("Worker count set to %d", workers);
+    }
+
+    @Override
+    public int getWorkerCount() {
+        return engine.getWorkerCount();
+    }
+
+    @Override
+    public void setDelayBetweenRequests(long delayMillis) {
+        engine.setDelayBetweenRequests(delayMillis);
+        LOG.info("Delay between requests set to %dms", engine.getDelayBetweenRequests());
+    }
+
+    @Override
+    public long getDelayBetweenRequests() {
+        return engine.getDelayBetweenRequests();
+    }
+
+    @Override
     public void startCrawling(String seedUrl) throws InterruptedException {
-        String baseDomain = extractDomain(seedUrl);
-        if (baseDomain == null) {
-            throw new IllegalArgumentException("Invalid seed URL: " + seedUrl);
-        }
+        engine.start(seedUrl);
 
-        printLog("Starting crawler with " + config.getMaxThreads() + " threads");
-        printLog("Target domain: " + baseDomain);
+        printLog("Starting crawler with " + config.getMaxThreads() + " fetch threads");
+        printLog("Target domain: " + engine.getScope().getBaseDomain());
         printLog("Max pages: " + config.getMaxPages());
         printLog("Max depth: " + config.getMaxDepth());
 
-        CrawlerTask seedTask = new CrawlerTask(seedUrl, 0, config, taskQueue, visitedUrls, stats, baseDomain);
-        taskQueue.offer(seedTask);
-        visitedUrls.put(seedUrl, 0);
-        stats.incrementPagesQueued();
-
-        for (int i = 0; i < config.getMaxThreads(); i++) {
-            executor.submit(new CrawlerWorker());
-        }
-
         monitorProgress();
         shutdown();
     }
@@ -77,11 +139,17 @@ public class WebCrawler {
     private void monitorProgress() throws InterruptedException {
         int progressCounter = 0;
         while (true) {
-            Thread.sleep(5000);
+            if (engine.awaitCancellation(5000)) {
+                LOG.info("Crawl cancelled; draining in-flight fetches");
+                break;
+            }
+            if (engine.isPaused()) {
+                continue; // frontier is kept as-is; don't treat a paused crawl as finished
+            }
 
-            printLog(String.format("Stats - Crawled: %d, Queued: %d, Failed: %d, Bytes: %.2f MB, Speed: %.2f pages/sec",
+            LOG.info("Stats - Crawled: %d, Queued: %d, Failed: %d, Bytes: %.2f MB, Speed: %.2f pages/sec",
                     stats.getPagesCrawled(), stats.getPagesQueued(), stats.getFailedPages(),
-                    stats.getTotalBytesDownloaded() / (1024.0 * 1024.0), stats.getPagesPerSecond()));
+                    stats.getTotalBytesDownloaded() / (1024.0 * 1024.0), stats.getPagesPerSecond());
 
             progressCounter++;
             if (progressCounter % 3 == 0) {
@@ -92,75 +160,39 @@ public class WebCrawler {
                 printLog("Reached maximum pages limit");
                 break;
             }
-            if (taskQueue.isEmpty() && allThreadsIdle()) {
+            if (engine.isIdle()) {
                 printLog("No more URLs to crawl");
                 break;
             }
         }
     }
 
-    private boolean allThreadsIdle() {
-        try {
-            Thread.sleep(2000);
-            return taskQueue.isEmpty();
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            return true;
-        }
-    }
-
     private void shutdown() {
         printLog("\nShutting down crawler...");
-        executor.shutdown();
-
-        try {
-            if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
-                executor.shutdownNow();
-                if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
-                    printLog("Executor did not terminate gracefully");
-                }
-            }
-        } catch (InterruptedException e) {
-            executor.shutdownNow();
-            Thread.currentThread().interrupt();
-        }
+        engine.shutdown(); // stops fetching, then drains parse, extract and sink stages
 
         printLog("\n=== FINAL STATISTICS ===");
-        printLog(String.format("Stats - Crawled: %d, Queued: %d, Failed: %d, Bytes: %.2f MB, Speed: %.2f pages/sec",
+        LOG.info("Stats - Crawled: %d, Queued: %d, Failed: %d, Bytes: %.2f MB, Speed: %.2f pages/sec",
                 stats.getPagesCrawled(), stats.getPagesQueued(), stats.getFailedPages(),
-                stats.getTotalBytesDownloaded() / (1024.0 * 1024.0), stats.getPagesPerSecond()));
-
-        printLog("Unique URLs discovered: " + visitedUrls.size());
-    }
-
-    private String extractDomain(String url) {
-        try {
-            URL urlObj = new URL(url);
-            return urlObj.getHost().toLowerCase();
-        } catch (Exception e) {
-            return null;
+                stats.getTotalBytesDownloaded() / (1024.0 * 1024.0), stats.getPagesPerSecond());
+
+        printLog("Unique URLs discovered: " + engine.getVisitedCount());
+        printLog("Near-duplicate pages not expanded: " + stats.getNearDuplicates());
+        printLog("Frontier - Dropped: " + engine.getFrontier().getDropped() + ", Spilled: " + engine.getFrontier().getSpilled()
+                + ", Throttled: " + engine.getFrontier().getThrottled());
+        PageFetcher fetcher = engine.getPageFetcher();
+        printLog("Circuit breaker - Rejected requests: " + fetcher.getCircuitBreaker().getRejected());
+        TrapDetector traps = engine.getTrapDetector();
+        if (traps != null) {
+            printLog("Trap detector - Templates: " + traps.getTemplateCount() + ", Blocked: "
+                    + traps.getBlockedTemplates() + ", Suppressed URLs: " + traps.getSuppressed());
         }
-    }
-
-    private class CrawlerWorker implements Runnable {
-        @Override
-        public void run() {
-            while (!Thread.currentThread().isInterrupted()) {
-                try {
-                    CrawlerTask task = taskQueue.poll(5, TimeUnit.SECONDS);
-                    if (task == null) continue;
-                    if (stats.getPagesCrawled() >= config.getMaxPages()) {
-                        taskQueue.offer(task);
-                        break;
-                    }
-                    task.run();
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    break;
-                } catch (Exception e) {
-                    printLog("Worker thread error: " + e.getMessage());
-                }
-            }
+        printLog("DNS cache - Hosts: " + fetcher.getDnsCache().size() + ", Hits: " + fetcher.getDnsCache().getHits()
+                + ", Misses: " + fetcher.getDnsCache().getMisses() + ", Prefetched: " + fetcher.getDnsCache().getPrefetches());
+        if (config.isHedgeRequests()) {
+            printLog("Hedged requests - Sent: " + fetcher.getHedged() + ", Won: " + fetcher.getHedgeWins());
         }
+        LOG.flush();
+        setLogConsumer(null);
     }
 }
@@ -10,16 +10,20 @@ public class WebCrawlerSwingApp extends JFrame {
     private JTextField urlField;
     private JTextField maxPagesField;
     private JTextField maxDepthField;
-    private JTextArea logArea;
+    private CrawlDashboard dashboard;
+    private final LogRingBuffer logBuffer = new LogRingBuffer(4096);
     private JButton startButton;
     private JButton stopButton;
+    private JButton pauseButton;
+    private JSpinner threadsSpinner;
+    private JSpinner delaySpinner;
     private ExecutorService executorService;
-    private WebCrawler crawler;
+    private volatile WebCrawler crawler;
     private volatile boolean crawling = false;
 
     public WebCrawlerSwingApp() {
         setTitle("Java Swing Web Crawler");
-        setSize(900, 600);
+        setSize(1000, 700);
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         setLocationRelativeTo(null);
 
@@ -37,22 +41,65 @@ public class WebCrawlerSwingApp extends JFrame {
         startButton = new JButton("Start Crawl");
         stopButton = new JButton("Stop");
         stopButton.setEnabled(false);
+        pauseButton = new JButton("Pause");
+        pauseButton.setEnabled(false);
+        threadsSpinner = new JSpinner(new SpinnerNumberModel(8, 1, 256, 1));
+        delaySpinner = new JSpinner(new SpinnerNumberModel(1000, 0, 60000, 100));
 
         JPanel southPanel = new JPanel();
         southPanel.add(startButton);
+        southPanel.add(pauseButton);
         southPanel.add(stopButton);
+        southPanel.add(new JLabel("Threads:"));
+        southPanel.add(threadsSpinner);
+        southPanel.add(new JLabel("Delay (ms):"));
+        southPanel.add(delaySpinner);
 
-        logArea = new JTextArea();
-        logArea.setEditable(false);
-        logArea.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 14));
-        JScrollPane scrollPane = new JScrollPane(logArea);
+        dashboard = new CrawlDashboard(logBuffer);
 
         add(northPanel, BorderLayout.NORTH);
-        add(scrollPane, BorderLayout.CENTER);
+        add(dashboard, BorderLayout.CENTER);
         add(southPanel, BorderLayout.SOUTH);
 
         startButton.addActionListener(this::startCrawlingTask);
-        stopButton.addActionListener(e -> crawling = false);
+        stopButton.addActionListener(e -> stopCrawl());
+        pauseButton.addActionListener(e -> togglePause());
+
+        // Live tuning: applied to the running crawl without restarting it
+        threadsSpinner.addChangeListener(e -> {
+            WebCrawler current = crawler;
+            if (current != null) {
+                current.setWorkerCount((Integer) threadsSpinner.getValue());
+            }
+        });
+        delaySpinner.addChangeListener(e -> {
+            WebCrawler current = crawler;
+            if (current != null) {
+                current.setDelayBetweenRequests((Integer) delaySpinner.getValue());
+            }
+        });
+    }
+
+    private void stopCrawl() {
+        crawling = false;
+        stopButton.setEnabled(false);
+        pauseButton.setEnabled(false);
+        WebCrawler current = crawler;
+        if (current != null) {
+            current.cancel();
+        }
+    }
+
+    private void togglePause() {
+        WebCrawler current = crawler;
+        if (current == null) return;
+        if (current.isPaused()) {
+            current.resume();
+            pauseButton.setText("Pause");
+        } else {
+            current.pause();
+            pauseButton.setText("Resume");
+        }
     }
 
     private void startCrawlingTask(ActionEvent evt) {
@@ -60,43 +107,48 @@ public class WebCrawlerSwingApp extends JFrame {
         int maxPages = Integer.parseInt(maxPagesField.getText().trim());
         int maxDepth = Integer.parseInt(maxDepthField.getText().trim());
 
-        logArea.setText("");
+        crawler = null;
+        dashboard.start(() -> crawler != null ? crawler.getStats().snapshot() : null);
         crawling = true;
         startButton.setEnabled(false);
         stopButton.setEnabled(true);
+        pauseButton.setEnabled(true);
+        pauseButton.setText("Pause");
+        int threads = (Integer) threadsSpinner.getValue();
+        long delay = ((Integer) delaySpinner.getValue()).longValue();
 
         executorService = Executors.newSingleThreadExecutor();
-        executorService.submit(() -> runCrawler(seedUrl, maxPages, maxDepth));
+        executorService.submit(() -> runCrawler(seedUrl, maxPages, maxDepth, threads, delay));
     }
 
-    private void runCrawler(String seedUrl, int maxPages, int maxDepth) {
+    private void runCrawler(String seedUrl, int maxPages, int maxDepth, int threads, long delay) {
         try {
             CrawlerConfig config = new CrawlerConfig.Builder()
                 .maxPages(maxPages)
                 .maxDepth(maxDepth)
-                .maxThreads(8)
-                .delayBetweenRequests(1000)
+                .maxThreads(threads)
+                .delayBetweenRequests(delay)
                 .userAgent("Mozilla/5.0 (compatible; GUIWebCrawler/1.0)")
                 .build();
 
             crawler = new WebCrawler(config);
 
-            // LOGGING: Redirect all output to GUI
-            crawler.setLogConsumer(message -> SwingUtilities.invokeLater(() -> {
-                logArea.append(message + "\n");
-                logArea.setCaretPosition(logArea.getDocument().getLength());
-            }));
+            // LOGGING: lines go to the ring buffer; the dashboard drains it on its own tick
+            crawler.setLogConsumer(logBuffer::append);
 
             crawling = true;
             crawler.startCrawling(seedUrl);
 
         } catch (Exception ex) {
-            SwingUtilities.invokeLater(() -> logArea.append("Error: " + ex.getMessage() + "\n"));
+            logBuffer.append("Error: " + ex.getMessage());
         } finally {
             crawling = false;
             SwingUtilities.invokeLater(() -> {
+                dashboard.stop();
                 startButton.setEnabled(true);
                 stopButton.setEnabled(false);
+                pauseButton.setEnabled(false);
+                pauseButton.setText("Pause");
             });
         }
     }
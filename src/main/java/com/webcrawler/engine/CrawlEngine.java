@@ -0,0 +1,550 @@
+package com.webcrawler.engine;
+
+import com.webcrawler.CircuitOpenException;
+import com.webcrawler.CrawlControl;
+import com.webcrawler.CrawlLogger;
+import com.webcrawler.CrawlerConfig;
+import com.webcrawler.CrawlerStats;
+import com.webcrawler.FetchResult;
+import com.webcrawler.Frontier;
+import com.webcrawler.HostPoliteness;
+import com.webcrawler.PageFetcher;
+import com.webcrawler.SitemapSeeder;
+import org.jsoup.HttpStatusException;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Staged crawl pipeline shared by every crawler:
+ *
+ *   frontier -> fetch (I/O pool) -> parse (CPU pool) -> extract (CPU pool) -> sinks (I/O pool)
+ *
+ * Stages are connected by bounded queues, so network, CPU and disk work overlap instead of
+ * running back-to-back on one thread. Crawlers are just a choice of extractors and sinks.
+ */
+public class CrawlEngine {
+    private static final CrawlLogger LOG = CrawlLogger.get();
+
+    private final CrawlerConfig config;
+    private final PageFetcher pageFetcher;
+    private final Fetcher fetcher;
+    private final Parser parser;
+    private final List<Extractor> extractors;
+    private final List<Sink> sinks;
+
+    private final Frontier<CrawlRequest> frontier;
+    private final ConcurrentHashMap<String, Integer> visitedUrls = new ConcurrentHashMap<>();
+    private final CrawlerStats stats = new CrawlerStats();
+    private final CrawlControl control;
+    private final HostPoliteness politeness;
+    private final TrapDetector trapDetector;
+    private final NearDuplicateDetector nearDuplicates;
+    private final CrawlLogger.EventLog eventLog;
+    private final ExecutorService fetchExecutor;
+    private final StagePool parsePool;
+    private final StagePool extractPool;
+    private final StagePool sinkPool;
+
+    // Pages between leaving the frontier and leaving the last stage
+    private final AtomicInteger inFlight = new AtomicInteger(0);
+    private volatile LinkScope scope;
+
+    private CrawlEngine(Builder builder) {
+        this.config = builder.config;
+        this.pageFetcher = builder.pageFetcher != null
+            ? builder.pageFetcher
+            : new PageFetcher(config, builder.outputDir);
+        this.fetcher = builder.fetcher != null ? builder.fetcher : pageFetcher;
+        this.parser = builder.parser;
+        this.extractors = new ArrayList<>(builder.extractors);
+        this.sinks = new ArrayList<>(builder.sinks);
+
+        this.frontier = new Frontier<>(config, CrawlRequest::getUrl, CrawlRequest::getDepth,
+            builder.outputDir.resolve("frontier.spill"));
+        this.frontier.setTaskFactory(CrawlRequest::new);
+        this.frontier.setEvictionListener(this::forget);
+        this.control = new CrawlControl(config);
+        this.politeness = builder.politeness;
+        this.trapDetector = config.isTrapDetection() ? new TrapDetector(config) : null;
+        this.nearDuplicates = config.isNearDuplicateDetection() ? new NearDuplicateDetector(config) : null;
+        // Each engine logs its page events under its own output directory
+        this.eventLog = config.isEventLogEnabled()
+            ? LOG.openEventLog(builder.outputDir.resolve("logs"), 64L * 1024 * 1024, 5)
+            : null;
+
+        // Cached pool: the live fetch worker count is governed by CrawlControl
+        this.fetchExecutor = Executors.newCachedThreadPool();
+        this.parsePool = new StagePool("parse", config.getParseThreads(), config.getStageQueueCapacity());
+        this.extractPool = new StagePool("extract", config.getExtractThreads(), config.getStageQueueCapacity());
+        this.sinkPool = new StagePool("sink", config.getSinkThreads(), config.getStageQueueCapacity());
+    }
+
+    public void start(String seedUrl) {
+        String baseDomain = LinkScope.extractDomain(seedUrl);
+        if (baseDomain == null) {
+            throw new IllegalArgumentException("Invalid seed URL: " + seedUrl);
+        }
+        this.scope = new LinkScope(baseDomain);
+
+        frontier.offer(new CrawlRequest(seedUrl, 0));
+        visitedUrls.put(seedUrl, 0);
+        stats.incrementPagesQueued();
+
+        startWorkers(control.setTargetWorkers(config.getMaxThreads()));
+        if (config.isSitemapSeeding()) {
+            startSitemapSeeding(seedUrl);
+        }
+    }
+
+    // True once nothing is queued and no page is anywhere in the pipeline. Checked twice,
+    // because a worker that has just polled the last URL has not counted it as in flight yet.
+    public boolean isIdle() throws InterruptedException {
+        if (!isQuiescent()) {
+            return false;
+        }
+        control.awaitCancellation(250);
+        return isQuiescent();
+    }
+
+    private boolean isQuiescent() {
+        return frontier.isEmpty() && inFlight.get() == 0;
+    }
+
+    public void shutdown() {
+        control.cancel(); // fetch workers exit after their current request
+        fetchExecutor.shutdown();
+        try {
+            if (!fetchExecutor.awaitTermination(30, TimeUnit.SECONDS)) {
+                fetchExecutor.shutdownNow();
+                if (!fetchExecutor.awaitTermination(30, TimeUnit.SECONDS)) {
+                    LOG.warn("⚠️ Fetch workers did not terminate gracefully");
+                }
+            }
+            // Drain downstream stages in order so every fetched page reaches the sinks
+            for (StagePool pool : new StagePool[] { parsePool, extractPool, sinkPool }) {
+                if (!pool.drain(60)) {
+                    LOG.warn("⚠️ %s stage did not drain in time", pool.getName());
+                }
+            }
+        } catch (InterruptedException e) {
+            fetchExecutor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+
+        for (Sink sink : sinks) {
+            try {
+                sink.close();
+            } catch (IOException e) {
+                LOG.warn("⚠️ Failed to close sink: " + e.getMessage());
+            }
+        }
+        frontier.close();
+        pageFetcher.shutdown();
+        if (eventLog != null) {
+            eventLog.close();
+        }
+    }
+
+    private void pageEvent(String type, String url, int depth, int status, long bytes, long latencyMillis) {
+        if (eventLog != null) {
+            eventLog.pageEvent(type, url, depth, status, bytes, latencyMillis);
+        }
+    }
+
+    // Runtime control
+
+    public void pause() { control.pause(); }
+    public void resume() { control.resume(); }
+    public void cancel() { control.cancel(); }
+    public boolean isPaused() { return control.isPaused(); }
+    public boolean isCancelled() { return control.isCancelled(); }
+
+    public void setWorkerCount(int workers) {
+        int toStart = control.setTargetWorkers(workers);
+        if (!control.isCancelled()) {
+            startWorkers(toStart);
+        }
+    }
+
+    public int getWorkerCount() { return control.getLiveWorkers(); }
+    public void setDelayBetweenRequests(long delay) { control.setDelayBetweenRequests(delay); }
+    public long getDelayBetweenRequests() { return control.getDelayBetweenRequests(); }
+
+    // Sleeps up to the timeout; returns true as soon as the crawl is cancelled
+    public boolean awaitCancellation(long timeoutMillis) throws InterruptedException {
+        return control.awaitCancellation(timeoutMillis);
+    }
+
+    public CrawlerConfig getConfig() { return config; }
+    public LinkScope getScope() { return scope; }
+    public CrawlerStats getStats() { return stats; }
+    public Frontier<CrawlRequest> getFrontier() { return frontier; }
+    public PageFetcher getPageFetcher() { return pageFetcher; }
+    public int getVisitedCount() { return visitedUrls.size(); }
+    public int getInFlight() { return inFlight.get(); }
+    // Null when trap detection is disabled
+    public TrapDetector getTrapDetector() { return trapDetector; }
+    // Null when near-duplicate detection is disabled
+    public NearDuplicateDetector getNearDuplicateDetector() { return nearDuplicates; }
+
+    public String getStageSummary() {
+        return String.format("fetch=%d, parse=%d+%d, extract=%d+%d, sink=%d+%d (active+queued)",
+            control.getLiveWorkers(), parsePool.getActive(), parsePool.getQueued(),
+            extractPool.getActive(), extractPool.getQueued(), sinkPool.getActive(), sinkPool.getQueued());
+    }
+
+    private void startWorkers(int count) {
+        for (int i = 0; i < count; i++) {
+            fetchExecutor.submit(new FetchWorker());
+        }
+    }
+
+    // Stage 1 (I/O): fetch, then hand the body to the parse pool
+    private void fetchStage(CrawlRequest request) throws InterruptedException {
+        String url = request.getUrl();
+        inFlight.incrementAndGet();
+        boolean handedOff = false;
+        try {
+            long fetchStart = System.currentTimeMillis();
+            FetchResult result = fetcher.fetch(url);
+            long latency = System.currentTimeMillis() - fetchStart;
+            stats.recordFetchLatency(latency);
+            pageEvent(result.isHtml() ? "fetched" : "skipped", url, request.getDepth(),
+                result.getStatusCode(), result.getContentLength(), latency);
+
+            // Non-HTML and oversized bodies are never parsed
+            if (!result.isHtml()) {
+                LOG.info("📎 Skipped %s (%s, %d bytes): %s",
+                    result.getKind() == FetchResult.Kind.OVERSIZED ? "oversized page" : "non-HTML resource",
+                    result.getContentType(), result.getContentLength(), url);
+                stats.incrementSkippedResources();
+                return;
+            }
+
+            PageContext page = new PageContext(request, result, latency);
+            parsePool.submit(() -> parseStage(page));
+            handedOff = true;
+
+        } catch (CircuitOpenException e) {
+            // Host is failing; park this URL instead of burning a worker on it
+            frontier.defer(request, e.getRetryAfterMillis());
+        } catch (IOException e) {
+            LOG.warn("❌ Failed to crawl %s: %s", url, e.getMessage());
+            pageEvent("failed", url, request.getDepth(), e instanceof HttpStatusException
+                ? ((HttpStatusException) e).getStatusCode() : -1, 0, 0);
+            stats.incrementFailedPages();
+            for (Sink sink : sinks) {
+                sink.onFailure(request, e);
+            }
+        } catch (RejectedExecutionException e) {
+            LOG.debug("Dropped %s: pipeline shutting down", url);
+        } finally {
+            if (!handedOff) {
+                inFlight.decrementAndGet();
+            }
+        }
+    }
+
+    // Stage 2 (CPU): build the DOM
+    private void parseStage(PageContext page) {
+        boolean handedOff = false;
+        try {
+            page.setDocument(parser.parse(page.getFetchResult()));
+            extractPool.submit(() -> extractStage(page));
+            handedOff = true;
+        } catch (IOException e) {
+            LOG.warn("❌ Failed to parse %s: %s", page.getUrl(), e.getMessage());
+            stats.incrementFailedPages();
+        } catch (RejectedExecutionException e) {
+            LOG.debug("Dropped %s: pipeline shutting down", page.getUrl());
+        } finally {
+            if (!handedOff) {
+                inFlight.decrementAndGet();
+            }
+        }
+    }
+
+    // Stage 3 (CPU): run extractors, discover links, then hand off to the sinks
+    private void extractStage(PageContext page) {
+        boolean handedOff = false;
+        try {
+            checkContent(page);
+            for (Extractor extractor : extractors) {
+                try {
+                    extractor.extract(page);
+                } catch (Exception e) {
+                    LOG.warn("⚠️ Failed to extract data from: " + page.getUrl() + " - " + e.getMessage());
+                }
+            }
+
+            LOG.info("🕷️ [Thread-%d] Crawled (depth %d): %s",
+                Thread.currentThread().getId(), page.getDepth(), page.getUrl());
+
+            // Update statistics
+            stats.incrementPagesCrawled();
+            byte[] body = page.getFetchResult().getBody();
+            stats.addBytesDownloaded(body == null ? 0 : body.length); // bytes received, not a re-serialized DOM
+
+            // Extract links if we haven't reached max depth
+            if (page.getDepth() < config.getMaxDepth() && !page.isSkipLinkExtraction()) {
+                queueLinks(page);
+            }
+
+            sinkPool.submit(() -> sinkStage(page));
+            handedOff = true;
+        } catch (RejectedExecutionException e) {
+            LOG.debug("Dropped %s: pipeline shutting down", page.getUrl());
+        } finally {
+            if (!handedOff) {
+                inFlight.decrementAndGet();
+            }
+        }
+    }
+
+    // Flags near-duplicates before extractors and sinks run, and feeds the trap detector's yield
+    private void checkContent(PageContext page) {
+        if (nearDuplicates == null && trapDetector == null) {
+            return;
+        }
+        String text = page.getText();
+        if (nearDuplicates == null) {
+            trapDetector.recordContent(page.getUrl(), TrapDetector.fingerprint(text));
+            return;
+        }
+        boolean duplicate = nearDuplicates.isNearDuplicate(text);
+        if (duplicate) {
+            // Its links are the ones the original page already queued
+            page.setSkipLinkExtraction(true);
+            if (config.isSkipNearDuplicateStorage()) {
+                page.setSkipStorage(true);
+            }
+            stats.incrementNearDuplicates();
+            LOG.debug("👯 Near-duplicate, not expanding: %s", page.getUrl());
+        }
+        if (trapDetector != null) {
+            trapDetector.recordFetch(page.getUrl(), !duplicate);
+        }
+    }
+
+    // Stage 4 (I/O): persistence and exports
+    private void sinkStage(PageContext page) {
+        try {
+            for (Sink sink : sinks) {
+                try {
+                    sink.accept(page);
+                } catch (Exception e) {
+                    LOG.warn("⚠️ Sink failed for: " + page.getUrl() + " - " + e.getMessage());
+                }
+            }
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    private void queueLinks(PageContext page) {
+        Document document = page.getDocument();
+        Set<String> newUrls = new LinkedHashSet<>();
+        for (Element link : document.select("a[href]")) {
+            String href = link.absUrl("href");
+            if (scope.isValidUrl(href)) {
+                newUrls.add(href);
+            }
+        }
+
+        int depth = page.getDepth() + 1;
+        for (String newUrl : newUrls) {
+            if (isQueueFull()) {
+                break;
+            }
+            if (enqueue(new CrawlRequest(newUrl, depth))) {
+                page.getOutlinks().add(newUrl);
+            }
+        }
+    }
+
+    private boolean isQueueFull() {
+        return stats.getPagesCrawled() + stats.getPagesQueued() >= config.getMaxPages();
+    }
+
+    // Queues a URL not seen before; false if it was a duplicate or the frontier refused it
+    private boolean enqueue(CrawlRequest request) {
+        // Use putIfAbsent to atomically check and add
+        if (visitedUrls.putIfAbsent(request.getUrl(), request.getDepth()) != null) {
+            return false;
+        }
+        if (trapDetector != null && !trapDetector.admit(request.getUrl())) {
+            return false;
+        }
+        if (!frontier.offer(request)) {
+            // Refused, not crawled: a later link to the same URL may still get in
+            visitedUrls.remove(request.getUrl(), request.getDepth());
+            return false;
+        }
+        stats.incrementPagesQueued();
+        pageFetcher.getDnsCache().prefetchUrl(request.getUrl());
+        return true;
+    }
+
+    // A queued URL evicted from the frontier is no longer visited and no longer uses the page budget
+    private void forget(CrawlRequest request) {
+        visitedUrls.remove(request.getUrl(), request.getDepth());
+        stats.decrementPagesQueued();
+    }
+
+    // Streams sitemap URLs into the frontier; counts as in flight so the crawl isn't seen as idle meanwhile
+    private void startSitemapSeeding(String seedUrl) {
+        int depth = Math.min(1, config.getMaxDepth());
+        inFlight.incrementAndGet();
+        Thread seeder = new Thread(() -> {
+            try {
+                int seeded = new SitemapSeeder(config).seed(seedUrl, (url, lastModified) -> {
+                    if (control.isCancelled() || isQueueFull()) {
+                        return false;
+                    }
+                    if (scope.isValidUrl(url)) {
+                        enqueue(new CrawlRequest(url, depth, lastModified));
+                    }
+                    return true;
+                });
+                LOG.info("🗺️ Sitemap seeding finished: %d URLs read", seeded);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        }, "sitemap-seeder");
+        seeder.setDaemon(true);
+        seeder.start();
+    }
+
+    private class FetchWorker implements Runnable {
+        @Override
+        public void run() {
+            boolean retired = false;
+            try {
+                while (!Thread.currentThread().isInterrupted() && !control.isCancelled()) {
+                    try {
+                        if (control.retireIfOverTarget()) {
+                            retired = true;
+                            break;
+                        }
+                        control.awaitIfPaused();
+
+                        CrawlRequest request = frontier.poll(1, TimeUnit.SECONDS);
+                        if (request == null) {
+                            continue; // Timeout, re-check controls
+                        }
+
+                        // Page budget reached; keep the request in case in-flight pages still fail
+                        if (stats.getPagesCrawled() >= config.getMaxPages()) {
+                            frontier.offer(request);
+                            control.awaitCancellation(500);
+                            continue;
+                        }
+
+                        // Queued before its template was flagged as a trap; not worth a request
+                        if (trapDetector != null && trapDetector.isBlocked(request.getUrl())) {
+                            LOG.debug("🪤 Dropped queued trap URL: %s", request.getUrl());
+                            continue;
+                        }
+
+                        // Politeness delay, adjustable while the crawl runs
+                        long delay = control.getDelayBetweenRequests();
+                        if (politeness != null) {
+                            // Spaced per host together with every other crawl sharing the gate
+                            String host = LinkScope.extractDomain(request.getUrl());
+                            long wait = politeness.reserve(host != null ? host : "", delay);
+                            if (wait > 0 && control.awaitCancellation(wait)) {
+                                break;
+                            }
+                        } else if (delay > 0) {
+                            Thread.sleep(delay);
+                        }
+
+                        fetchStage(request);
+
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        break;
+                    } catch (Exception e) {
+                        LOG.warn("⚠️ Worker thread error: " + e.getMessage());
+                    }
+                }
+            } finally {
+                if (!retired) {
+                    control.workerExited();
+                }
+            }
+        }
+    }
+
+    public static class Builder {
+        private final CrawlerConfig config;
+        private Path outputDir = Paths.get("crawler_output");
+        private PageFetcher pageFetcher;
+        private Fetcher fetcher;
+        private HostPoliteness politeness;
+        private Parser parser = Parser.JSOUP;
+        private final List<Extractor> extractors = new ArrayList<>();
+        private final List<Sink> sinks = new ArrayList<>();
+
+        public Builder(CrawlerConfig config) {
+            this.config = config;
+        }
+
+        public Builder outputDir(Path outputDir) {
+            this.outputDir = outputDir;
+            return this;
+        }
+
+        public Builder pageFetcher(PageFetcher pageFetcher) {
+            this.pageFetcher = pageFetcher;
+            return this;
+        }
+
+        // Optional per-host politeness shared with other engines; by default each worker just sleeps the delay
+        public Builder politeness(HostPoliteness politeness) {
+            this.politeness = politeness;
+            return this;
+        }
+
+        // Optional override of the fetch stage (defaults to the PageFetcher)
+        public Builder fetcher(Fetcher fetcher) {
+            this.fetcher = fetcher;
+            return this;
+        }
+
+        public Builder parser(Parser parser) {
+            this.parser = parser;
+            return this;
+        }
+
+        public Builder extractor(Extractor extractor) {
+            this.extractors.add(extractor);
+            return this;
+        }
+
+        public Builder sink(Sink sink) {
+            this.sinks.add(sink);
+            return this;
+        }
+
+        public CrawlEngine build() {
+            return new CrawlEngine(this);
+        }
+    }
+}
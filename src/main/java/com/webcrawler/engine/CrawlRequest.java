@@ -0,0 +1,25 @@
+package com.webcrawler.engine;
+
+// A frontier entry: a URL, the link depth at which it was discovered and, when a sitemap
+// supplied one, its lastmod time
+public final class CrawlRequest {
+    private final String url;
+    private final int depth;
+    private final long lastModified;
+
+    public CrawlRequest(String url, int depth) {
+        this(url, depth, 0);
+    }
+
+    public CrawlRequest(String url, int depth, long lastModified) {
+        this.url = url;
+        this.depth = depth;
+        this.lastModified = lastModified;
+    }
+
+    public String getUrl() { return url; }
+    public int getDepth() { return depth; }
+
+    // Epoch millis, or 0 when unknown
+    public long getLastModified() { return lastModified; }
+}
@@ -0,0 +1,7 @@
+package com.webcrawler.engine;
+
+// CPU stage: reads the parsed page and attaches derived data to the context
+@FunctionalInterface
+public interface Extractor {
+    void extract(PageContext page) throws Exception;
+}
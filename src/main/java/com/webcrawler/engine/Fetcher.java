@@ -0,0 +1,11 @@
+package com.webcrawler.engine;
+
+import com.webcrawler.FetchResult;
+
+import java.io.IOException;
+
+// I/O stage: turns a URL into response bytes (or a skipped/oversized result)
+@FunctionalInterface
+public interface Fetcher {
+    FetchResult fetch(String url) throws IOException, InterruptedException;
+}
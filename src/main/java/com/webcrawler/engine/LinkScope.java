@@ -0,0 +1,48 @@
+package com.webcrawler.engine;
+
+import java.net.URL;
+
+// Which discovered links the crawl may follow: http(s) on the seed's domain or its subdomains
+public class LinkScope {
+    private final String baseDomain;
+
+    public LinkScope(String baseDomain) {
+        this.baseDomain = baseDomain;
+    }
+
+    public String getBaseDomain() {
+        return baseDomain;
+    }
+
+    public boolean isValidUrl(String url) {
+        if (url == null || url.isEmpty()) {
+            return false;
+        }
+
+        try {
+            URL urlObj = new URL(url);
+            String protocol = urlObj.getProtocol().toLowerCase();
+
+            // Only HTTP and HTTPS
+            if (!"http".equals(protocol) && !"https".equals(protocol)) {
+                return false;
+            }
+
+            // Stay within the same domain
+            String host = urlObj.getHost().toLowerCase();
+            return host.equals(baseDomain) || host.endsWith("." + baseDomain);
+
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    public static String extractDomain(String url) {
+        try {
+            URL urlObj = new URL(url);
+            return urlObj.getHost().toLowerCase();
+        } catch (Exception e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.webcrawler.engine;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.webcrawler.CrawlerConfig;
+
+/**
+ * SimHash near-duplicate detection. A page's text is reduced to a 64-bit fingerprint in
+ * which similar token streams differ in few bits. Fingerprints are indexed in maxDistance+1
+ * bands: two fingerprints within maxDistance bits must agree exactly on at least one band
+ * (pigeonhole), so a lookup only compares against pages sharing a band value instead of
+ * every page seen so far.
+ */
+public class NearDuplicateDetector {
+    private static final int MIN_TOKENS = 8;
+
+    private final int maxDistance;
+    private final int bands;
+    private final int bandBits;
+    private final Map<Long, long[]> buckets = new HashMap<>(); // guarded by itself
+    private final AtomicInteger indexed = new AtomicInteger(0);
+
+    public NearDuplicateDetector(CrawlerConfig config) {
+        this(config.getNearDuplicateDistance());
+    }
+
+    public NearDuplicateDetector(int maxDistance) {
+        this.maxDistance = Math.max(0, Math.min(maxDistance, 15));
+        this.bands = this.maxDistance + 1;
+        this.bandBits = 64 / bands;
+    }
+
+    // True if the text is within maxDistance bits of a page already seen; otherwise it is indexed.
+    // The fingerprint is computed outside the lock; lookup and insert happen under it, so of two
+    // near-identical pages handled at once exactly one is indexed and the other is the duplicate.
+    public boolean isNearDuplicate(CharSequence text) {
+        Long simHash = simHash(text);
+        if (simHash == null) {
+            return false; // too little text to fingerprint reliably
+        }
+        long fingerprint = simHash;
+        synchronized (buckets) {
+            for (int band = 0; band < bands; band++) {
+                long[] candidates = buckets.get(bandKey(fingerprint, band));
+                if (candidates == null) {
+                    continue;
+                }
+                for (long candidate : candidates) {
+                    if (Long.bitCount(candidate ^ fingerprint) <= maxDistance) {
+                        return true;
+                    }
+                }
+            }
+            for (int band = 0; band < bands; band++) {
+                buckets.merge(bandKey(fingerprint, band), new long[] { fingerprint }, NearDuplicateDetector::append);
+            }
+        }
+        indexed.incrementAndGet();
+        return false;
+    }
+
+    public int getIndexedCount() {
+        return indexed.get();
+    }
+
+    // The last band absorbs the bits left over when 64 doesn't divide evenly
+    private long bandKey(long fingerprint, int band) {
+        int shift = band * bandBits;
+        int width = band == bands - 1 ? 64 - shift : bandBits;
+        long value = width == 64 ? fingerprint : (fingerprint >>> shift) & ((1L << width) - 1);
+        return value * 31 + band;
+    }
+
+    private static long[] append(long[] existing, long[] added) {
+        long[] merged = new long[existing.length + 1];
+        System.arraycopy(existing, 0, merged, 0, existing.length);
+        merged[existing.length] = added[0];
+        return merged;
+    }
+
+    // Charikar SimHash over lower-cased letter/digit tokens, each weighted by its occurrences;
+    // null when the text has fewer than MIN_TOKENS tokens
+    static Long simHash(CharSequence text) {
+        int[] weights = new int[64];
+        int tokens = 0;
+        long hash = 0xcbf29ce484222325L;
+        int tokenLength = 0;
+        int length = text.length();
+        for (int i = 0; i <= length; i++) {
+            char c = i < length ? text.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                hash = (hash ^ Character.toLowerCase(c)) * 0x100000001b3L;
+                tokenLength++;
+                continue;
+            }
+            if (tokenLength >= 2) {
+                long h = mix(hash);
+                for (int bit = 0; bit < 64; bit++) {
+                    weights[bit] += ((h >>> bit) & 1) != 0 ? 1 : -1;
+                }
+                tokens++;
+            }
+            hash = 0xcbf29ce484222325L;
+            tokenLength = 0;
+        }
+        if (tokens < MIN_TOKENS) {
+            return null;
+        }
+        long fingerprint = 0;
+        for (int bit = 0; bit < 64; bit++) {
+            if (weights[bit] > 0) {
+                fingerprint |= 1L << bit;
+            }
+        }
+        return fingerprint;
+    }
+
+    // SplitMix64 finalizer: FNV alone leaves the high bits of short tokens poorly mixed
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,67 @@
+package com.webcrawler.engine;
+
+import com.webcrawler.FetchResult;
+import org.jsoup.nodes.Document;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Everything known about one page as it moves through the pipeline. Each stage runs on
+ * one thread at a time for a given page, so the context itself needs no locking.
+ */
+public class PageContext {
+    private final CrawlRequest request;
+    private final FetchResult fetchResult;
+    private final long fetchLatency;
+    private final long fetchedAt = System.currentTimeMillis(); // contexts are created as the fetch returns
+    private final Map<Class<?>, Object> attributes = new HashMap<>();
+    private final List<String> outlinks = new ArrayList<>();
+    private Document document;
+    private String text;
+    private boolean skipLinkExtraction;
+    private boolean skipStorage;
+
+    public PageContext(CrawlRequest request, FetchResult fetchResult, long fetchLatency) {
+        this.request = request;
+        this.fetchResult = fetchResult;
+        this.fetchLatency = fetchLatency;
+    }
+
+    public CrawlRequest getRequest() { return request; }
+    public String getUrl() { return request.getUrl(); }
+    public int getDepth() { return request.getDepth(); }
+    public FetchResult getFetchResult() { return fetchResult; }
+    public long getFetchLatency() { return fetchLatency; }
+    public long getFetchedAt() { return fetchedAt; }
+
+    public Document getDocument() { return document; }
+    void setDocument(Document document) { this.document = document; }
+
+    // The document's visible text, computed on first use and shared by every later stage
+    public String getText() {
+        if (text == null && document != null) {
+            text = document.text();
+        }
+        return text;
+    }
+
+    // Absolute outlinks accepted into the frontier by the engine
+    public List<String> getOutlinks() { return outlinks; }
+
+    public boolean isSkipLinkExtraction() { return skipLinkExtraction; }
+    public void setSkipLinkExtraction(boolean skip) { this.skipLinkExtraction = skip; }
+
+    public boolean isSkipStorage() { return skipStorage; }
+    public void setSkipStorage(boolean skip) { this.skipStorage = skip; }
+
+    public <T> void put(Class<T> type, T value) {
+        attributes.put(type, value);
+    }
+
+    public <T> T get(Class<T> type) {
+        return type.cast(attributes.get(type));
+    }
+}
@@ -0,0 +1,14 @@
+package com.webcrawler.engine;
+
+import com.webcrawler.FetchResult;
+import org.jsoup.nodes.Document;
+
+import java.io.IOException;
+
+// CPU stage: builds the DOM from a fetched HTML body
+@FunctionalInterface
+public interface Parser {
+    Parser JSOUP = FetchResult::parse;
+
+    Document parse(FetchResult result) throws IOException;
+}
@@ -0,0 +1,16 @@
+package com.webcrawler.engine;
+
+import java.io.IOException;
+
+// I/O stage: persists or exports a fully extracted page
+public interface Sink {
+    void accept(PageContext page) throws IOException;
+
+    // Called for requests that failed permanently before reaching the sinks
+    default void onFailure(CrawlRequest request, IOException error) {
+    }
+
+    // Called once after the last page has gone through every sink
+    default void close() throws IOException {
+    }
+}
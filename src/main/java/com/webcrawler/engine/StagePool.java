@@ -0,0 +1,66 @@
+package com.webcrawler.engine;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fixed-size pool for one pipeline stage, fed by a bounded queue. A full queue blocks
+ * the submitting (upstream) thread, so a slow stage throttles the ones before it
+ * instead of letting work pile up on the heap.
+ */
+class StagePool {
+    private final String name;
+    private final ThreadPoolExecutor executor;
+
+    StagePool(String name, int threads, int queueCapacity) {
+        this.name = name;
+        AtomicInteger counter = new AtomicInteger(0);
+        this.executor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            r -> {
+                Thread t = new Thread(r, name + "-" + counter.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            },
+            (r, pool) -> {
+                if (pool.isShutdown()) {
+                    throw new RejectedExecutionException(name + " stage is shut down");
+                }
+                try {
+                    pool.getQueue().put(r);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RejectedExecutionException(name + " submit interrupted", e);
+                }
+            });
+    }
+
+    void submit(Runnable work) {
+        executor.execute(work);
+    }
+
+    int getQueued() {
+        return executor.getQueue().size();
+    }
+
+    int getActive() {
+        return executor.getActiveCount();
+    }
+
+    String getName() {
+        return name;
+    }
+
+    // Stops accepting work and waits for everything already queued to run
+    boolean drain(long timeoutSeconds) throws InterruptedException {
+        executor.shutdown();
+        if (executor.awaitTermination(timeoutSeconds, TimeUnit.SECONDS)) {
+            return true;
+        }
+        executor.shutdownNow();
+        return false;
+    }
+}
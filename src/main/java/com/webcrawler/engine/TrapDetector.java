@@ -0,0 +1,214 @@
+package com.webcrawler.engine;
+
+import java.net.URL;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.webcrawler.CrawlLogger;
+import com.webcrawler.CrawlerConfig;
+
+/**
+ * Guards the frontier against infinite URL spaces: calendars, faceted search, session IDs
+ * and self-nesting relative links. Each URL is generalized into a template (digit runs
+ * become '#', long ID-like segments become '{id}', query values are dropped and parameter
+ * names sorted), and every template gets its own admission budget. Fetched pages report a
+ * content fingerprint back, so a template whose pages stop yielding new content after a
+ * minimum sample is blocked early. Paths that repeat a directory or nest absurdly deep
+ * are rejected outright.
+ */
+public class TrapDetector {
+    private static final CrawlLogger LOG = CrawlLogger.get();
+
+    private static final int MAX_SEGMENT_REPEATS = 3;
+    private static final int MAX_PATH_SEGMENTS = 24;
+    private static final int MIN_YIELD_SAMPLE = 20;
+
+    private final int templateBudget;
+    private final double minYield;
+    private final ConcurrentHashMap<String, Template> templates = new ConcurrentHashMap<>();
+    private final Set<Long> seenContent = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger suppressed = new AtomicInteger(0);
+    private final AtomicInteger blockedTemplates = new AtomicInteger(0);
+
+    public TrapDetector(CrawlerConfig config) {
+        this(config.getTrapTemplateBudget(), config.getTrapMinYield());
+    }
+
+    public TrapDetector(int templateBudget, double minYield) {
+        this.templateBudget = templateBudget;
+        this.minYield = minYield;
+    }
+
+    // Called once per newly seen URL; false means the URL must not be queued
+    public boolean admit(String url) {
+        String template = templateOf(url);
+        if (template == null) {
+            suppressed.incrementAndGet();
+            LOG.debug("🪤 Rejected looping path: %s", url);
+            return false;
+        }
+        Template state = templates.computeIfAbsent(template, Template::new);
+        if (state.blocked.get()) {
+            suppressed.incrementAndGet();
+            return false;
+        }
+        if (state.admitted.incrementAndGet() > templateBudget) {
+            block(state, "budget of " + templateBudget + " URLs used");
+            suppressed.incrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    // True once the URL's template has been blocked; queued URLs are dropped before fetching
+    public boolean isBlocked(String url) {
+        String template = templateOf(url);
+        if (template == null) {
+            return true;
+        }
+        Template state = templates.get(template);
+        return state != null && state.blocked.get();
+    }
+
+    // Feeds a fetched page's content fingerprint back into its template's yield rate
+    public void recordContent(String url, long fingerprint) {
+        recordFetch(url, seenContent.add(fingerprint));
+    }
+
+    // For callers with their own notion of new content, e.g. near-duplicate detection
+    public void recordFetch(String url, boolean newContent) {
+        String template = templateOf(url);
+        if (template == null) {
+            return;
+        }
+        Template state = templates.computeIfAbsent(template, Template::new);
+        int fetched = state.fetched.incrementAndGet();
+        int yielded = newContent ? state.yielded.incrementAndGet() : state.yielded.get();
+        if (fetched >= MIN_YIELD_SAMPLE && yielded < fetched * minYield) {
+            block(state, String.format("only %d of %d pages had new content", yielded, fetched));
+        }
+    }
+
+    // 64-bit FNV-1a over the page text; cheap, and wide enough that distinct pages don't collide
+    public static long fingerprint(CharSequence text) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < text.length(); i++) {
+            hash ^= text.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    public int getSuppressed() {
+        return suppressed.get();
+    }
+
+    public int getBlockedTemplates() {
+        return blockedTemplates.get();
+    }
+
+    public int getTemplateCount() {
+        return templates.size();
+    }
+
+    private void block(Template state, String reason) {
+        if (state.blocked.compareAndSet(false, true)) {
+            blockedTemplates.incrementAndGet();
+            LOG.warn("🪤 Trap suspected, no longer expanding %s (%s)", state.pattern, reason);
+        }
+    }
+
+    // host + generalized path + sorted query parameter names; null for repeating or runaway paths
+    static String templateOf(String url) {
+        URL parsed;
+        try {
+            parsed = new URL(url);
+        } catch (Exception e) {
+            return null;
+        }
+        StringBuilder out = new StringBuilder(url.length());
+        out.append(parsed.getHost().toLowerCase());
+
+        String[] segments = parsed.getPath().split("/");
+        int depth = 0;
+        Map<String, Integer> repeats = new HashMap<>();
+        for (String segment : segments) {
+            int matrix = segment.indexOf(';'); // ;jsessionid=... and other path parameters
+            if (matrix >= 0) {
+                segment = segment.substring(0, matrix);
+            }
+            if (segment.isEmpty()) {
+                continue;
+            }
+            if (++depth > MAX_PATH_SEGMENTS || repeats.merge(segment, 1, Integer::sum) >= MAX_SEGMENT_REPEATS) {
+                return null;
+            }
+            out.append('/');
+            generalize(segment, out);
+        }
+
+        String query = parsed.getQuery();
+        if (query != null && !query.isEmpty()) {
+            String[] params = query.split("&");
+            for (int i = 0; i < params.length; i++) {
+                int eq = params[i].indexOf('=');
+                params[i] = eq >= 0 ? params[i].substring(0, eq) : params[i];
+            }
+            Arrays.sort(params);
+            out.append('?');
+            String previous = null;
+            for (String param : params) {
+                if (!param.equals(previous)) {
+                    if (previous != null) {
+                        out.append('&');
+                    }
+                    out.append(param);
+                    previous = param;
+                }
+            }
+        }
+        return out.toString();
+    }
+
+    // Digit runs collapse to '#'; long segments containing digits are treated as opaque IDs
+    private static void generalize(String segment, StringBuilder out) {
+        boolean hasDigit = false;
+        for (int i = 0; i < segment.length() && !hasDigit; i++) {
+            hasDigit = Character.isDigit(segment.charAt(i));
+        }
+        if (hasDigit && segment.length() >= 16) {
+            out.append("{id}");
+            return;
+        }
+        boolean inDigits = false;
+        for (int i = 0; i < segment.length(); i++) {
+            char c = segment.charAt(i);
+            if (Character.isDigit(c)) {
+                if (!inDigits) {
+                    out.append('#');
+                }
+                inDigits = true;
+            } else {
+                out.append(Character.toLowerCase(c));
+                inDigits = false;
+            }
+        }
+    }
+
+    private static final class Template {
+        private final String pattern;
+        private final AtomicInteger admitted = new AtomicInteger(0);
+        private final AtomicInteger fetched = new AtomicInteger(0);
+        private final AtomicInteger yielded = new AtomicInteger(0);
+        private final AtomicBoolean blocked = new AtomicBoolean(false);
+
+        private Template(String pattern) {
+            this.pattern = pattern;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.webcrawler.enhanced;
+
+import java.net.HttpURLConnection;
+import java.net.URL;
+
+import com.webcrawler.engine.PageContext;
+import com.webcrawler.engine.Sink;
+
+// Sink stage: HEAD-checks every link on the page and reports the broken ones
+public class BrokenLinkSink implements Sink {
+    private final DataExporter dataExporter;
+
+    public BrokenLinkSink(DataExporter dataExporter) {
+        this.dataExporter = dataExporter;
+    }
+
+    @Override
+    public void accept(PageContext page) {
+        PageData pageData = page.get(PageData.class);
+        if (pageData == null) {
+            return;
+        }
+        for (String href : pageData.getLinks()) {
+            if (!isLinkWorking(href)) {
+                dataExporter.addBrokenLink(href + " (found on: " + page.getUrl() + ")");
+            }
+        }
+    }
+
+    private boolean isLinkWorking(String linkUrl) {
+        try {
+            // Only check HTTP/HTTPS links and do quick head request
+            if (!linkUrl.startsWith("http")) return true;
+
+            URL url = new URL(linkUrl);
+            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+            connection.setRequestMethod("HEAD");
+            connection.setConnectTimeout(5000);
+            connection.setReadTimeout(5000);
+            connection.setInstanceFollowRedirects(true);
+
+            int responseCode = connection.getResponseCode();
+            connection.disconnect();
+
+            return responseCode >= 200 && responseCode < 400;
+        } catch (Exception e) {
+            return false; // Assume broken if we can't check
+        }
+    }
+}
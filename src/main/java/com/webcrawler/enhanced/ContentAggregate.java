@@ -0,0 +1,54 @@
+package com.webcrawler.enhanced;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Running totals for a set of pages (one domain, or the whole crawl). Updated once per
+ * page as it is added; the striped adders keep concurrent sink threads from contending
+ * on a single counter, and reports read the totals instead of re-scanning every page.
+ */
+public class ContentAggregate {
+    private final LongAdder pages = new LongAdder();
+    private final LongAdder words = new LongAdder();
+    private final LongAdder links = new LongAdder();
+    private final LongAdder images = new LongAdder();
+    private final LongAdder contactForms = new LongAdder();
+    private final LongAccumulator minWords = new LongAccumulator(Math::min, Long.MAX_VALUE);
+    private final LongAccumulator maxWords = new LongAccumulator(Math::max, Long.MIN_VALUE);
+
+    public void add(PageData pageData) {
+        pages.increment();
+        words.add(pageData.getWordCount());
+        links.add(pageData.getLinkCount());
+        images.add(pageData.getImageCount());
+        if (pageData.hasContactForm()) {
+            contactForms.increment();
+        }
+        minWords.accumulate(pageData.getWordCount());
+        maxWords.accumulate(pageData.getWordCount());
+    }
+
+    public long getPages() { return pages.sum(); }
+    public long getWords() { return words.sum(); }
+    public long getLinks() { return links.sum(); }
+    public long getImages() { return images.sum(); }
+    public long getContactForms() { return contactForms.sum(); }
+
+    public long getMinWords() {
+        return getPages() == 0 ? 0 : minWords.get();
+    }
+
+    public long getMaxWords() {
+        return getPages() == 0 ? 0 : maxWords.get();
+    }
+
+    public double getAverageWords() { return average(getWords()); }
+    public double getAverageLinks() { return average(getLinks()); }
+    public double getAverageImages() { return average(getImages()); }
+
+    private double average(long total) {
+        long count = getPages();
+        return count == 0 ? 0 : (double) total / count;
+    }
+}
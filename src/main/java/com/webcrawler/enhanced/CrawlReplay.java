@@ -0,0 +1,131 @@
+package com.webcrawler.enhanced;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.webcrawler.CrawlLogger;
+import com.webcrawler.rules.CompiledRules;
+import com.webcrawler.store.CrawlRecord;
+import com.webcrawler.store.CrawlStore;
+
+/**
+ * Offline re-extraction: replays every page stored in a crawl output directory through
+ * {@link PageDataExtractor} and a {@link DataExporter}, then regenerates the reports. No
+ * request touches the network; the manifest is streamed in batches and each batch is
+ * parsed and extracted on a fork-join pool, so a replay runs at CPU speed. URL, depth and
+ * fetch time come from the page manifest.
+ */
+public class CrawlReplay {
+    private static final CrawlLogger LOG = CrawlLogger.get();
+
+    private static final int BATCH_SIZE = 2048;
+    private static final int SPLIT_THRESHOLD = 8;
+
+    private final Path sourceDir;
+    private final Path outputDir;
+    private final int parallelism;
+    private final CompiledRules rules;
+    private final AtomicInteger replayed = new AtomicInteger(0);
+    private final AtomicInteger failed = new AtomicInteger(0);
+
+    public CrawlReplay(Path sourceDir, Path outputDir) {
+        this(sourceDir, outputDir, Runtime.getRuntime().availableProcessors());
+    }
+
+    public CrawlReplay(Path sourceDir, Path outputDir, int parallelism) {
+        this(sourceDir, outputDir, parallelism, CompiledRules.NONE);
+    }
+
+    public CrawlReplay(Path sourceDir, Path outputDir, int parallelism, CompiledRules rules) {
+        this.sourceDir = sourceDir;
+        this.outputDir = outputDir;
+        this.parallelism = parallelism;
+        this.rules = rules;
+    }
+
+    // Re-extracts every stored page and writes the reports under outputDir; returns pages replayed
+    public int run() throws IOException {
+        long start = System.currentTimeMillis();
+        DataExporter exporter = new DataExporter(outputDir.toString());
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try (CrawlStore store = CrawlStore.open(sourceDir)) {
+            LOG.info("⏪ Replaying %d stored pages from %s on %d threads", store.size(), sourceDir, parallelism);
+            List<CrawlRecord> batch = new ArrayList<>(BATCH_SIZE);
+            store.forEachRecord(record -> {
+                batch.add(record);
+                if (batch.size() == BATCH_SIZE) {
+                    pool.invoke(new ReplayAction(store, exporter, batch, 0, batch.size()));
+                    batch.clear();
+                    LOG.info("⏪ Replayed %d pages", replayed.get());
+                }
+                return true;
+            });
+            if (!batch.isEmpty()) {
+                pool.invoke(new ReplayAction(store, exporter, batch, 0, batch.size()));
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        exporter.exportAllData();
+        LOG.info("✅ Replay finished: %d pages re-extracted, %d failed, in %dms",
+            replayed.get(), failed.get(), System.currentTimeMillis() - start);
+        LOG.flush();
+        return replayed.get();
+    }
+
+    public int getReplayed() {
+        return replayed.get();
+    }
+
+    public int getFailed() {
+        return failed.get();
+    }
+
+    // Splits a batch in halves until a handful of pages remain, then extracts them in place
+    private final class ReplayAction extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final CrawlStore store;
+        private final DataExporter exporter;
+        private final List<CrawlRecord> records;
+        private final int from;
+        private final int to;
+
+        ReplayAction(CrawlStore store, DataExporter exporter, List<CrawlRecord> records, int from, int to) {
+            this.store = store;
+            this.exporter = exporter;
+            this.records = records;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SPLIT_THRESHOLD) {
+                for (int i = from; i < to; i++) {
+                    replay(records.get(i));
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new ReplayAction(store, exporter, records, from, mid),
+                new ReplayAction(store, exporter, records, mid, to));
+        }
+
+        private void replay(CrawlRecord record) {
+            try {
+                exporter.addPageData(store.readPageData(record, rules));
+                replayed.incrementAndGet();
+            } catch (IOException | RuntimeException e) {
+                failed.incrementAndGet();
+                LOG.warn("⚠️ Failed to replay " + record.getUrl() + " - " + e.getMessage());
+            }
+        }
+    }
+}
@@ -1,26 +1,50 @@
 package com.webcrawler.enhanced;
 
 import java.io.*;
-import java.net.URL;
 import java.nio.file.*;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.webcrawler.CrawlLogger;
+import com.webcrawler.CrawlerConfig;
+import com.webcrawler.PageStore;
+import com.webcrawler.RecordEncoder;
+import com.webcrawler.graph.LinkGraph;
 
 public class DataExporter {
+    private static final CrawlLogger LOG = CrawlLogger.get();
+
     private final String outputDir;
-    private final Map<String, List<PageData>> dataByDomain;
-    private final List<PageData> allPageData;
-    private final List<String> brokenLinks;
+    private final PageStore pageStore;
+    private final Map<String, ContentAggregate> statsByDomain;
+    private final ContentAggregate totals;
+    private final StripedList<PageData> allPageData;
+    private final StripedList<String> brokenLinks;
     private final Set<String> allEmails;
     private final Set<String> allPhoneNumbers;
 
     public DataExporter(String outputDir) {
+        this(outputDir, false);
+    }
+
+    public DataExporter(String outputDir, boolean compressPages) {
+        this(outputDir, compressPages, CrawlerConfig.PageLayout.FLAT);
+    }
+
+    public DataExporter(String outputDir, boolean compressPages, CrawlerConfig.PageLayout layout) {
         this.outputDir = outputDir;
-        this.dataByDomain = new ConcurrentHashMap<>();
-        this.allPageData = Collections.synchronizedList(new ArrayList<>());
-        this.brokenLinks = Collections.synchronizedList(new ArrayList<>());
-        this.allEmails = Collections.synchronizedSet(new HashSet<>());
-        this.allPhoneNumbers = Collections.synchronizedSet(new HashSet<>());
+        this.pageStore = new PageStore(Paths.get(outputDir), layout, compressPages);
+        this.statsByDomain = new ConcurrentHashMap<>();
+        this.totals = new ContentAggregate();
+        // Sink threads append to per-thread shards and dedup through CAS-based sets,
+        // so addPageData never takes a crawl-wide lock
+        this.allPageData = new StripedList<>();
+        this.brokenLinks = new StripedList<>();
+        this.allEmails = ConcurrentHashMap.newKeySet();
+        this.allPhoneNumbers = ConcurrentHashMap.newKeySet();
         
         // Create output directories
         createDirectories();
@@ -35,17 +59,20 @@ public class DataExporter {
             Files.createDirectories(Paths.get(outputDir, "reports"));
             Files.createDirectories(Paths.get(outputDir, "data"));
         } catch (IOException e) {
-            System.err.println("Failed to create output directories: " + e.getMessage());
+            LOG.warn("Failed to create output directories: " + e.getMessage());
         }
     }
 
     public void addPageData(PageData pageData) {
         allPageData.add(pageData);
         
-        // Group by domain
-        String domain = pageData.getDomain();
-        dataByDomain.computeIfAbsent(domain, k -> Collections.synchronizedList(new ArrayList<>()))
-                   .add(pageData);
+        // Fold into running per-domain and global totals, so reports never re-scan pages
+        ContentAggregate domainStats = statsByDomain.get(pageData.getDomain());
+        if (domainStats == null) {
+            domainStats = statsByDomain.computeIfAbsent(pageData.getDomain(), k -> new ContentAggregate());
+        }
+        domainStats.add(pageData);
+        totals.add(pageData);
         
         // Collect emails and phone numbers
         allEmails.addAll(pageData.getEmails());
@@ -56,60 +83,106 @@ public class DataExporter {
         brokenLinks.add(brokenLink);
     }
 
-    public void savePageContent(PageData pageData, String htmlContent) {
+    // Stores the raw response body byte-for-byte; null skips the HTML file
+    public void savePageContent(PageData pageData, byte[] rawHtml) {
         try {
-            // Save HTML content
-            String fileName = sanitizeFileName(pageData.getUrl()) + ".html";
-            Path htmlFile = Paths.get(outputDir, "pages", fileName);
-            Files.write(htmlFile, htmlContent.getBytes());
-
-            // Save text content
-            String textFileName = sanitizeFileName(pageData.getUrl()) + ".txt";
-            Path textFile = Paths.get(outputDir, "content", textFileName);
-            Files.write(textFile, pageData.getContent().getBytes());
-
-            System.out.println("💾 Saved: " + fileName);
+            pageStore.store(pageData.getUrl(), rawHtml, pageData.getContent(),
+                pageData.getCrawlTime(), pageData.getDepth());
+            LOG.debug("💾 Saved: %s", pageData.getUrl());
+        } catch (IOException e) {
+            LOG.warn("Failed to save content for: " + pageData.getUrl());
+        }
+    }
 
+    // Flushes the page manifest; reports can still be exported afterwards
+    public void closePageStore() {
+        try {
+            pageStore.close();
         } catch (IOException e) {
-            System.err.println("Failed to save content for: " + pageData.getUrl());
+            LOG.warn("Failed to close page manifest: " + e.getMessage());
         }
     }
 
+    // Report writers are independent of each other, so they run in parallel
     public void exportAllData() {
+        List<ReportWriter> writers = Arrays.asList(
+            this::exportToCSV,
+            this::exportToJSON,
+            this::exportBrokenLinks,
+            this::exportContactInfo,
+            this::exportDomainAnalysis,
+            this::exportSummaryReport);
+
+        ExecutorService pool = Executors.newFixedThreadPool(
+            Math.min(writers.size(), Runtime.getRuntime().availableProcessors()));
         try {
-            exportToCSV();
-            exportToJSON();
-            exportBrokenLinks();
-            exportContactInfo();
-            exportDomainAnalysis();
-            exportSummaryReport();
-            System.out.println("📊 All data exported successfully!");
-        } catch (Exception e) {
-            System.err.println("Failed to export data: " + e.getMessage());
+            List<CompletableFuture<Boolean>> results = new ArrayList<>();
+            for (ReportWriter writer : writers) {
+                results.add(CompletableFuture.supplyAsync(() -> {
+                    try {
+                        writer.write();
+                        return true;
+                    } catch (Exception e) {
+                        LOG.warn("Failed to export data: " + e.getMessage());
+                        return false;
+                    }
+                }, pool));
+            }
+
+            boolean allExported = true;
+            for (CompletableFuture<Boolean> result : results) {
+                allExported &= result.join();
+            }
+            if (allExported) {
+                LOG.info("📊 All data exported successfully!");
+            }
+        } finally {
+            pool.shutdown();
         }
     }
 
+    @FunctionalInterface
+    private interface ReportWriter {
+        void write() throws IOException;
+    }
+
     private void exportToCSV() throws IOException {
         Path csvFile = Paths.get(outputDir, "data", "crawl_results.csv");
+        List<PageData> pages = allPageData.snapshot();
+        // Extraction-rule fields become trailing columns, in the order they first appear
+        Set<String> extraColumns = new LinkedHashSet<>();
+        for (PageData data : pages) {
+            extraColumns.addAll(data.getExtraFields().keySet());
+        }
+        List<String> columns = new ArrayList<>(extraColumns);
         try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(csvFile))) {
             // CSV Header
-            writer.println("URL,Title,Description,Word_Count,Link_Count,Image_Count,Heading_Count,Email_Count,Phone_Count,Domain,Has_Contact_Form,Depth,Crawl_Time");
-            
-            // Data rows
-            for (PageData data : allPageData) {
-                writer.println(data.toCSV());
+            writer.print("URL,Title,Description,Word_Count,Link_Count,Image_Count,Heading_Count,Email_Count,Phone_Count,Domain,Has_Contact_Form,Depth,Crawl_Time");
+            for (String column : columns) {
+                writer.print(',');
+                writer.print(column);
+            }
+            writer.println();
+
+            // Data rows are encoded straight into the writer
+            RecordEncoder encoder = new RecordEncoder(writer);
+            for (PageData data : pages) {
+                data.writeCSV(encoder, columns);
+                writer.println();
             }
         }
-        System.out.println("📄 Exported CSV: " + csvFile);
+        LOG.info("📄 Exported CSV: " + csvFile);
     }
 
     private void exportToJSON() throws IOException {
         Path jsonFile = Paths.get(outputDir, "data", "crawl_results.json");
         try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(jsonFile))) {
             writer.println("[\n");
-            for (int i = 0; i < allPageData.size(); i++) {
-                writer.print(allPageData.get(i).toJSON());
-                if (i < allPageData.size() - 1) {
+            List<PageData> pages = allPageData.snapshot();
+            RecordEncoder encoder = new RecordEncoder(writer);
+            for (int i = 0; i < pages.size(); i++) {
+                pages.get(i).writeJSON(encoder);
+                if (i < pages.size() - 1) {
                     writer.println(",");
                 } else {
                     writer.println();
@@ -117,7 +190,7 @@ public class DataExporter {
             }
             writer.println("]");
         }
-        System.out.println("📄 Exported JSON: " + jsonFile);
+        LOG.info("📄 Exported JSON: " + jsonFile);
     }
 
     private void exportBrokenLinks() throws IOException {
@@ -130,11 +203,11 @@ public class DataExporter {
             writer.println("Total broken links found: " + brokenLinks.size());
             writer.println();
             
-            for (String link : brokenLinks) {
+            for (String link : brokenLinks.snapshot()) {
                 writer.println(link);
             }
         }
-        System.out.println("🔗 Exported broken links: " + brokenFile);
+        LOG.info("🔗 Exported broken links: " + brokenFile);
     }
 
     private void exportContactInfo() throws IOException {
@@ -155,7 +228,7 @@ public class DataExporter {
                 writer.println(phone);
             }
         }
-        System.out.println("📞 Exported contact info: " + contactFile);
+        LOG.info("📞 Exported contact info: " + contactFile);
     }
 
     private void exportDomainAnalysis() throws IOException {
@@ -165,31 +238,59 @@ public class DataExporter {
             writer.println("=====================");
             writer.println();
             
-            for (Map.Entry<String, List<PageData>> entry : dataByDomain.entrySet()) {
+            for (Map.Entry<String, ContentAggregate> entry : statsByDomain.entrySet()) {
                 String domain = entry.getKey();
-                List<PageData> pages = entry.getValue();
-                
+                ContentAggregate domainStats = entry.getValue();
+
                 writer.println("Domain: " + domain);
-                writer.println("Pages crawled: " + pages.size());
-                
-                // Calculate averages
-                double avgWords = pages.stream().mapToInt(PageData::getWordCount).average().orElse(0);
-                double avgLinks = pages.stream().mapToInt(PageData::getLinkCount).average().orElse(0);
-                double avgImages = pages.stream().mapToInt(PageData::getImageCount).average().orElse(0);
-                
-                writer.printf("Average word count: %.1f%n", avgWords);
-                writer.printf("Average links per page: %.1f%n", avgLinks);
-                writer.printf("Average images per page: %.1f%n", avgImages);
-                
-                // Count pages with contact forms
-                long contactFormPages = pages.stream().filter(PageData::hasContactForm).count();
-                writer.println("Pages with contact forms: " + contactFormPages);
-                
+                writer.println("Pages crawled: " + domainStats.getPages());
+
+                writer.printf("Average word count: %.1f%n", domainStats.getAverageWords());
+                writer.printf("Word count range: %d - %d%n", domainStats.getMinWords(), domainStats.getMaxWords());
+                writer.printf("Average links per page: %.1f%n", domainStats.getAverageLinks());
+                writer.printf("Average images per page: %.1f%n", domainStats.getAverageImages());
+                writer.println("Pages with contact forms: " + domainStats.getContactForms());
+
                 writer.println("-".repeat(50));
                 writer.println();
             }
         }
-        System.out.println("🌐 Exported domain analysis: " + domainFile);
+        LOG.info("🌐 Exported domain analysis: " + domainFile);
+    }
+
+    // PageRank and in-degree over the crawl's link graph; called after the graph is built
+    public void exportLinkGraphAnalysis(LinkGraph graph) {
+        Path graphFile = Paths.get(outputDir, "reports", "link_graph.txt");
+        double[] ranks = graph.pageRank(0.85, 50, 1e-6);
+        int[] inDegrees = graph.inDegrees();
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(graphFile))) {
+            writer.println("LINK GRAPH ANALYSIS");
+            writer.println("===================");
+            writer.println("Nodes (URLs): " + graph.getNodeCount());
+            writer.println("Edges (unique links): " + graph.getEdgeCount());
+            writer.println();
+
+            writer.println("TOP PAGES BY PAGERANK");
+            writer.println("-".repeat(30));
+            for (int node : LinkGraph.top(ranks, 20)) {
+                writer.printf("%.6f  in=%d  %s%n", ranks[node], inDegrees[node], graph.getUrl(node));
+            }
+            writer.println();
+
+            writer.println("MOST LINKED-TO PAGES");
+            writer.println("-".repeat(30));
+            double[] degreeScores = new double[inDegrees.length];
+            for (int i = 0; i < inDegrees.length; i++) {
+                degreeScores[i] = inDegrees[i];
+            }
+            for (int node : LinkGraph.top(degreeScores, 20)) {
+                writer.println(inDegrees[node] + "  " + graph.getUrl(node));
+            }
+        } catch (IOException e) {
+            LOG.warn("Failed to export link graph analysis: " + e.getMessage());
+            return;
+        }
+        LOG.info("🕸️ Exported link graph analysis: " + graphFile);
     }
 
     private void exportSummaryReport() throws IOException {
@@ -203,34 +304,29 @@ public class DataExporter {
             // Overall statistics
             writer.println("OVERALL STATISTICS");
             writer.println("-".repeat(30));
-            writer.println("Total pages crawled: " + allPageData.size());
-            writer.println("Total domains: " + dataByDomain.size());
+            writer.println("Total pages crawled: " + totals.getPages());
+            writer.println("Total domains: " + statsByDomain.size());
             writer.println("Total broken links: " + brokenLinks.size());
             writer.println("Total emails found: " + allEmails.size());
             writer.println("Total phone numbers found: " + allPhoneNumbers.size());
             writer.println();
             
             // Content statistics
-            int totalWords = allPageData.stream().mapToInt(PageData::getWordCount).sum();
-            int totalLinks = allPageData.stream().mapToInt(PageData::getLinkCount).sum();
-            int totalImages = allPageData.stream().mapToInt(PageData::getImageCount).sum();
-            long totalContactForms = allPageData.stream().filter(PageData::hasContactForm).count();
-            
             writer.println("CONTENT STATISTICS");
             writer.println("-".repeat(30));
-            writer.println("Total words: " + totalWords);
-            writer.println("Total links found: " + totalLinks);
-            writer.println("Total images found: " + totalImages);
-            writer.println("Pages with contact forms: " + totalContactForms);
+            writer.println("Total words: " + totals.getWords());
+            writer.println("Total links found: " + totals.getLinks());
+            writer.println("Total images found: " + totals.getImages());
+            writer.println("Pages with contact forms: " + totals.getContactForms());
             writer.println();
             
             // Top domains by page count
             writer.println("TOP DOMAINS BY PAGE COUNT");
             writer.println("-".repeat(30));
-            dataByDomain.entrySet().stream()
-                .sorted((e1, e2) -> Integer.compare(e2.getValue().size(), e1.getValue().size()))
+            statsByDomain.entrySet().stream()
+                .sorted((e1, e2) -> Long.compare(e2.getValue().getPages(), e1.getValue().getPages()))
                 .limit(10)
-                .forEach(entry -> writer.println(entry.getKey() + ": " + entry.getValue().size() + " pages"));
+                .forEach(entry -> writer.println(entry.getKey() + ": " + entry.getValue().getPages() + " pages"));
             
             writer.println();
             
@@ -244,31 +340,18 @@ public class DataExporter {
             writer.println("- data/contact_info.txt: All emails and phone numbers found");
             writer.println("- reports/broken_links.txt: List of broken links (if any)");
             writer.println("- reports/domain_analysis.txt: Analysis by domain");
+            writer.println("- reports/link_graph.txt: PageRank and in-degree (if enabled)");
             writer.println("- reports/crawl_summary.txt: This summary report");
         }
-        System.out.println("📋 Exported summary report: " + summaryFile);
-    }
-
-    private String sanitizeFileName(String url) {
-        try {
-            URL urlObj = new URL(url);
-            String fileName = urlObj.getHost() + urlObj.getPath();
-            return fileName.replaceAll("[^a-zA-Z0-9.-]", "_")
-                          .replaceAll("_{2,}", "_")
-                          .replaceAll("^_|_$", "");
-        } catch (Exception e) {
-            return url.replaceAll("[^a-zA-Z0-9.-]", "_")
-                     .replaceAll("_{2,}", "_")
-                     .replaceAll("^_|_$", "");
-        }
+        LOG.info("📋 Exported summary report: " + summaryFile);
     }
 
     public int getTotalPages() {
-        return allPageData.size();
+        return (int) totals.getPages();
     }
 
     public int getTotalDomains() {
-        return dataByDomain.size();
+        return statsByDomain.size();
     }
 
     public int getTotalBrokenLinks() {
@@ -11,7 +11,10 @@ public class EnhancedMain {
             .maxPages(100)
             .maxDepth(4)
             .delayBetweenRequests(800) // Slightly faster for testing
-            .connectTimeout(15000) // 15 seconds
+            .connectTimeout(15000) // 15 seconds; ceiling for the adaptive per-host deadlines
+            .sitemapSeeding(true) // find deep pages without walking every link
+            .pageLayout(CrawlerConfig.PageLayout.HASHED) // collision-free names, see data/page_manifest.tsv
+            .searchIndexEnabled(true) // full-text index under crawler_output/index, rebuilt each run
             .build();
 
         // Create enhanced crawler with all features
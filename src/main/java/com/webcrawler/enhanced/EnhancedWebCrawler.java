@@ -1,65 +1,178 @@
 package com.webcrawler.enhanced;
 
-import java.net.URL;
-import java.util.concurrent.*;
-
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.List;
+
+import com.webcrawler.CrawlLogger;
+import com.webcrawler.Crawler;
 import com.webcrawler.CrawlerConfig;
 import com.webcrawler.CrawlerStats;
+import com.webcrawler.HostPoliteness;
+import com.webcrawler.PageFetcher;
+import com.webcrawler.engine.CrawlEngine;
+import com.webcrawler.engine.TrapDetector;
+import com.webcrawler.graph.LinkGraph;
+import com.webcrawler.graph.LinkGraphBuilder;
+import com.webcrawler.index.InvertedIndex;
+import com.webcrawler.index.SearchHit;
+import com.webcrawler.rules.CompiledRules;
+
+public class EnhancedWebCrawler implements Crawler {
+    private static final CrawlLogger LOG = CrawlLogger.get();
 
-public class EnhancedWebCrawler {
     private final CrawlerConfig config;
-    private final ExecutorService executor;
-    private final BlockingQueue<EnhancedCrawlerTask> taskQueue;
-    private final ConcurrentHashMap<String, Integer> visitedUrls;
+    private final CrawlEngine engine;
     private final CrawlerStats stats;
     private final DataExporter dataExporter;
+    private final InvertedIndex searchIndex;
+    private final Path graphDir;
+    private final Path outputDir;
 
     public EnhancedWebCrawler(CrawlerConfig config) {
+        this(config, Paths.get("crawler_output"), null, null);
+    }
+
+    // A crawl writing to outputDir; a non-null fetcher and politeness gate are shared with other crawls
+    public EnhancedWebCrawler(CrawlerConfig config, Path outputDir, PageFetcher sharedFetcher, HostPoliteness politeness) {
         this.config = config;
-        this.executor = Executors.newFixedThreadPool(config.getMaxThreads());
-        this.taskQueue = new LinkedBlockingQueue<>();
-        this.visitedUrls = new ConcurrentHashMap<>();
-        this.stats = new CrawlerStats();
-        this.dataExporter = new DataExporter("crawler_output");
+        this.outputDir = outputDir;
+        this.dataExporter = new DataExporter(outputDir.toString(), config.isCompressStorage(), config.getPageLayout());
+        this.searchIndex = config.isSearchIndexEnabled() ? openSearchIndex(outputDir.resolve("index")) : null;
+        CrawlEngine.Builder builder = new CrawlEngine.Builder(config)
+            .outputDir(outputDir)
+            .pageFetcher(sharedFetcher != null ? sharedFetcher.forOutputDir(outputDir) : null)
+            .politeness(politeness)
+            .extractor(new PageDataExtractor(CompiledRules.compile(config.getExtractionRules())))
+            .sink(new ExportSink(dataExporter))
+            .sink(new BrokenLinkSink(dataExporter));
+        if (searchIndex != null) {
+            builder.sink(new IndexSink(searchIndex));
+        }
+        LinkGraphBuilder graph = config.isLinkGraphEnabled() ? openLinkGraph(outputDir.resolve("graph")) : null;
+        this.graphDir = graph != null ? outputDir.resolve("graph") : null;
+        if (graph != null) {
+            builder.sink(new LinkGraphSink(graph));
+        }
+        if (config.isDownloadImages()) {
+            builder.sink(new ImageSink(new ImageDownloader(config, outputDir)));
+        }
+        this.engine = builder.build();
+        this.stats = engine.getStats();
+        LOG.setLevel(config.getLogLevel());
     }
 
-    public void startCrawling(String seedUrl) throws InterruptedException {
-        String baseDomain = extractDomain(seedUrl);
-        if (baseDomain == null) {
-            throw new IllegalArgumentException("Invalid seed URL: " + seedUrl);
+    // Each crawl starts a fresh index: reopening would re-add every page under a new doc id
+    private static InvertedIndex openSearchIndex(Path directory) {
+        try {
+            return InvertedIndex.create(directory);
+        } catch (IOException e) {
+            LOG.warn("⚠️ Search index disabled: " + e.getMessage());
+            return null;
         }
+    }
 
-        System.out.println("🚀 Starting Enhanced Web Crawler with " + config.getMaxThreads() + " threads");
-        System.out.println("🎯 Target domain: " + baseDomain);
-        System.out.println("📄 Max pages: " + config.getMaxPages());
-        System.out.println("🔍 Max depth: " + config.getMaxDepth());
-        System.out.println("⏱️  Delay between requests: " + config.getDelayBetweenRequests() + "ms");
-        System.out.println();
-
-        // Add seed URL to the queue
-        EnhancedCrawlerTask seedTask = new EnhancedCrawlerTask(seedUrl, 0, config, taskQueue, 
-            visitedUrls, stats, baseDomain, dataExporter);
-        taskQueue.offer(seedTask);
-        visitedUrls.put(seedUrl, 0);
-        stats.incrementPagesQueued();
-
-        // Start worker threads
-        for (int i = 0; i < config.getMaxThreads(); i++) {
-            executor.submit(new EnhancedCrawlerWorker());
+    private static LinkGraphBuilder openLinkGraph(Path directory) {
+        try {
+            return new LinkGraphBuilder(directory);
+        } catch (IOException e) {
+            LOG.warn("⚠️ Link graph disabled: " + e.getMessage());
+            return null;
         }
+    }
+
+    @Override
+    public CrawlerStats getStats() {
+        return stats;
+    }
+
+    // Full-text search over crawled pages; pages become searchable as index segments are flushed
+    public List<SearchHit> search(String query, int limit) {
+        return searchIndex == null ? Collections.emptyList() : searchIndex.search(query, limit);
+    }
+
+    // Runtime control API
+
+    @Override
+    public void pause() {
+        engine.pause();
+        LOG.info("⏸️ Crawl paused (%d queued)", engine.getFrontier().size());
+    }
+
+    @Override
+    public void resume() {
+        engine.resume();
+        LOG.info("▶️ Crawl resumed");
+    }
+
+    // Cooperative: workers finish their current fetch, then exit; startCrawling returns after shutdown
+    @Override
+    public void cancel() {
+        engine.cancel();
+    }
+
+    @Override
+    public boolean isPaused() {
+        return engine.isPaused();
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return engine.isCancelled();
+    }
+
+    @Override
+    public void setWorkerCount(int workers) {
+        engine.setWorkerCount(workers);
+        LOG.info("Worker count set to %d", workers);
+    }
+
+    @Override
+    public int getWorkerCount() {
+        return engine.getWorkerCount();
+    }
+
+    @Override
+    public void setDelayBetweenRequests(long delayMillis) {
+        engine.setDelayBetweenRequests(delayMillis);
+        LOG.info("Delay between requests set to %dms", engine.getDelayBetweenRequests());
+    }
+
+    @Override
+    public long getDelayBetweenRequests() {
+        return engine.getDelayBetweenRequests();
+    }
+
+    @Override
+    public void startCrawling(String seedUrl) throws InterruptedException {
+        engine.start(seedUrl);
+
+        LOG.info("🚀 Starting Enhanced Web Crawler with " + config.getMaxThreads() + " fetch threads");
+        LOG.info("🎯 Target domain: " + engine.getScope().getBaseDomain());
+        LOG.info("📄 Max pages: " + config.getMaxPages());
+        LOG.info("🔍 Max depth: " + config.getMaxDepth());
+        LOG.info("⏱️  Delay between requests: " + config.getDelayBetweenRequests() + "ms");
+        LOG.info("");
 
         // Monitor progress
         monitorProgress();
 
-        // Export all data and shutdown
-        dataExporter.exportAllData();
+        // Drain the pipeline first so the export sees every page, then export
         shutdown();
     }
 
     private void monitorProgress() throws InterruptedException {
         int progressCounter = 0;
         while (true) {
-            Thread.sleep(5000); // Print stats every 5 seconds
+            if (engine.awaitCancellation(5000)) { // Print stats every 5 seconds
+                LOG.info("🛑 Crawl cancelled; draining in-flight fetches");
+                break;
+            }
+            if (engine.isPaused()) {
+                continue; // frontier is kept as-is; don't treat a paused crawl as finished
+            }
 
             stats.printStats();
             progressCounter++;
@@ -71,102 +184,71 @@ public class EnhancedWebCrawler {
 
             // Check stopping conditions
             if (stats.getPagesCrawled() >= config.getMaxPages()) {
-                System.out.println("🛑 Reached maximum pages limit");
+                LOG.info("🛑 Reached maximum pages limit");
                 break;
             }
 
-            if (taskQueue.isEmpty() && allThreadsIdle()) {
-                System.out.println("✅ No more URLs to crawl");
+            if (engine.isIdle()) {
+                LOG.info("✅ No more URLs to crawl");
                 break;
             }
         }
     }
 
     private void printEnhancedStats() {
-        System.out.println("📊 Enhanced Stats - " +
+        LOG.info("📊 Enhanced Stats - " +
             "Domains: " + dataExporter.getTotalDomains() + ", " +
             "Emails: " + dataExporter.getTotalEmails() + ", " +
             "Phones: " + dataExporter.getTotalPhoneNumbers() + ", " +
             "Broken Links: " + dataExporter.getTotalBrokenLinks());
     }
 
-    private boolean allThreadsIdle() {
-        // Simple heuristic: if queue is empty for a few seconds, assume threads are idle
-        try {
-            Thread.sleep(2000);
-            return taskQueue.isEmpty();
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            return true;
-        }
-    }
-
     private void shutdown() {
-        System.out.println("\n🔄 Shutting down crawler...");
-        executor.shutdown();
-
-        try {
-            if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
-                executor.shutdownNow();
-                if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
-                    System.err.println("⚠️ Executor did not terminate gracefully");
-                }
+        LOG.info("\n🔄 Shutting down crawler...");
+        engine.shutdown(); // stops fetching, then drains parse, extract and sink stages
+        dataExporter.exportAllData();
+        if (graphDir != null) {
+            try {
+                dataExporter.exportLinkGraphAnalysis(LinkGraph.open(graphDir));
+            } catch (IOException e) {
+                LOG.warn("Failed to open link graph: " + e.getMessage());
             }
-        } catch (InterruptedException e) {
-            executor.shutdownNow();
-            Thread.currentThread().interrupt();
         }
 
-        System.out.println("\n🎉 === FINAL CRAWL RESULTS ===");
+        LOG.info("\n🎉 === FINAL CRAWL RESULTS ===");
         stats.printStats();
-        System.out.println("📊 Enhanced Results:");
-        System.out.println("   - Unique URLs discovered: " + visitedUrls.size());
-        System.out.println("   - Domains crawled: " + dataExporter.getTotalDomains());
-        System.out.println("   - Email addresses found: " + dataExporter.getTotalEmails());
-        System.out.println("   - Phone numbers found: " + dataExporter.getTotalPhoneNumbers());
-        System.out.println("   - Broken links detected: " + dataExporter.getTotalBrokenLinks());
-        System.out.println("\n📁 All results saved to 'crawler_output' folder");
-        System.out.println("   📄 HTML pages: crawler_output/pages/");
-        System.out.println("   📝 Text content: crawler_output/content/");
-        System.out.println("   📊 Data exports: crawler_output/data/");
-        System.out.println("   📋 Reports: crawler_output/reports/");
-    }
-
-    private String extractDomain(String url) {
-        try {
-            URL urlObj = new URL(url);
-            return urlObj.getHost().toLowerCase();
-        } catch (Exception e) {
-            return null;
+        LOG.info("📊 Enhanced Results:");
+        LOG.info("   - Unique URLs discovered: " + engine.getVisitedCount());
+        LOG.info("   - Near-duplicate pages not expanded: " + stats.getNearDuplicates());
+        LOG.info("   - Domains crawled: " + dataExporter.getTotalDomains());
+        LOG.info("   - Email addresses found: " + dataExporter.getTotalEmails());
+        LOG.info("   - Phone numbers found: " + dataExporter.getTotalPhoneNumbers());
+        LOG.info("   - Broken links detected: " + dataExporter.getTotalBrokenLinks());
+        LOG.info("   - Frontier dropped/spilled: " + engine.getFrontier().getDropped() + "/" + engine.getFrontier().getSpilled());
+        TrapDetector traps = engine.getTrapDetector();
+        if (traps != null) {
+            LOG.info("   - Trap templates blocked: " + traps.getBlockedTemplates() + " (" + traps.getSuppressed() + " URLs suppressed)");
         }
-    }
-
-    // Inner class for worker threads
-    private class EnhancedCrawlerWorker implements Runnable {
-        @Override
-        public void run() {
-            while (!Thread.currentThread().isInterrupted()) {
-                try {
-                    EnhancedCrawlerTask task = taskQueue.poll(5, TimeUnit.SECONDS);
-                    if (task == null) {
-                        continue; // Timeout, check again
-                    }
-
-                    // Check if we've reached the limit
-                    if (stats.getPagesCrawled() >= config.getMaxPages()) {
-                        taskQueue.offer(task); // Put it back
-                        break;
-                    }
-
-                    task.run();
-
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    break;
-                } catch (Exception e) {
-                    System.err.println("⚠️ Worker thread error: " + e.getMessage());
-                }
-            }
+        PageFetcher fetcher = engine.getPageFetcher();
+        LOG.info("   - DNS cache hits/misses: " + fetcher.getDnsCache().getHits() + "/" + fetcher.getDnsCache().getMisses());
+        if (config.isHedgeRequests()) {
+            LOG.info("   - Hedged requests won/sent: " + fetcher.getHedgeWins() + "/" + fetcher.getHedged());
+        }
+        if (searchIndex != null) {
+            LOG.info("   - Search index: " + searchIndex.getDocumentCount() + " pages in "
+                + searchIndex.getSegmentCount() + " segments");
+        }
+        LOG.info("\n📁 All results saved to '" + outputDir + "' folder");
+        LOG.info("   📄 HTML pages: " + outputDir.resolve("pages"));
+        LOG.info("   📝 Text content: " + outputDir.resolve("content"));
+        LOG.info("   📊 Data exports: " + outputDir.resolve("data"));
+        LOG.info("   📋 Reports: " + outputDir.resolve("reports"));
+        if (searchIndex != null) {
+            LOG.info("   🔎 Search index: " + outputDir.resolve("index"));
+        }
+        if (config.isDownloadImages()) {
+            LOG.info("   🖼️ Images: " + outputDir.resolve("images"));
         }
+        LOG.flush();
     }
-}
\ No newline at end of file
+}
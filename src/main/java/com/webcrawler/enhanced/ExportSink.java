@@ -0,0 +1,38 @@
+package com.webcrawler.enhanced;
+
+import java.io.IOException;
+
+import com.webcrawler.engine.CrawlRequest;
+import com.webcrawler.engine.PageContext;
+import com.webcrawler.engine.Sink;
+
+// Sink stage: saves page content and hands the PageData record to the DataExporter
+public class ExportSink implements Sink {
+    private final DataExporter dataExporter;
+
+    public ExportSink(DataExporter dataExporter) {
+        this.dataExporter = dataExporter;
+    }
+
+    @Override
+    public void accept(PageContext page) {
+        PageData pageData = page.get(PageData.class);
+        if (pageData == null) {
+            return;
+        }
+        if (!page.isSkipStorage()) {
+            dataExporter.savePageContent(pageData, page.getFetchResult().getBody());
+        }
+        dataExporter.addPageData(pageData);
+    }
+
+    @Override
+    public void onFailure(CrawlRequest request, IOException error) {
+        dataExporter.addBrokenLink(request.getUrl() + " - " + error.getMessage());
+    }
+
+    @Override
+    public void close() {
+        dataExporter.closePageStore();
+    }
+}
@@ -0,0 +1,285 @@
+package com.webcrawler.enhanced;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.webcrawler.CrawlLogger;
+import com.webcrawler.CrawlerConfig;
+
+/**
+ * Downloads page images in the background. Each URL is fetched at most once, at most
+ * imagesPerHost at a time per host, and only for known image types under maxImageBytes.
+ * Bodies stream from the socket into a temp file through FileChannel.transferFrom while
+ * a SHA-256 is computed on the way, so identical images served from different URLs are
+ * stored once as images/<hash>.<ext>. Every download is listed in data/images.csv.
+ * <p>
+ * The per-host limit never parks a pool thread: a host with all its slots busy keeps
+ * further URLs in its own queue, and each worker holding one of its slots works through
+ * that queue before giving the slot back, so other hosts' images aren't stuck behind it.
+ */
+public class ImageDownloader implements Closeable {
+    private static final CrawlLogger LOG = CrawlLogger.get();
+
+    private static final Map<String, String> EXTENSIONS = new HashMap<>();
+    static {
+        EXTENSIONS.put("image/jpeg", "jpg");
+        EXTENSIONS.put("image/png", "png");
+        EXTENSIONS.put("image/gif", "gif");
+        EXTENSIONS.put("image/webp", "webp");
+        EXTENSIONS.put("image/avif", "avif");
+        EXTENSIONS.put("image/svg+xml", "svg");
+        EXTENSIONS.put("image/x-icon", "ico");
+        EXTENSIONS.put("image/vnd.microsoft.icon", "ico");
+    }
+
+    private final CrawlerConfig config;
+    private final Path imageDir;
+    private final Path manifest;
+    private final ThreadPoolExecutor executor;
+    private final Set<String> seenUrls = ConcurrentHashMap.newKeySet();
+    private final Set<String> storedHashes = ConcurrentHashMap.newKeySet();
+    private final ConcurrentHashMap<String, HostQueue> hostQueues = new ConcurrentHashMap<>();
+    private final AtomicInteger downloaded = new AtomicInteger(0);
+    private final AtomicInteger duplicateContent = new AtomicInteger(0);
+    private final AtomicInteger rejected = new AtomicInteger(0);
+    private final AtomicInteger failed = new AtomicInteger(0);
+    private final AtomicInteger tempCounter = new AtomicInteger(0);
+    private BufferedWriter manifestWriter;
+
+    public ImageDownloader(CrawlerConfig config, Path outputDir) {
+        this.config = config;
+        this.imageDir = outputDir.resolve("images");
+        this.manifest = outputDir.resolve("data").resolve("images.csv");
+        AtomicInteger threadCounter = new AtomicInteger(0);
+        int threads = Math.max(1, config.getImageThreads());
+        // Bounded queue; a full queue blocks the submitting sink thread. Per-host backlogs hold
+        // only URLs, and no more of them than seenUrls already does
+        this.executor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(1024),
+            r -> {
+                Thread t = new Thread(r, "image-" + threadCounter.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            },
+            (r, pool) -> {
+                if (pool.isShutdown()) {
+                    throw new RejectedExecutionException("Image downloader is shut down");
+                }
+                try {
+                    pool.getQueue().put(r);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RejectedExecutionException("Image submit interrupted", e);
+                }
+            });
+    }
+
+    // Queues the image unless this URL was seen before
+    public void submit(String imageUrl) {
+        if (!imageUrl.startsWith("http") || !seenUrls.add(imageUrl)) {
+            return;
+        }
+        String host;
+        try {
+            host = new URL(imageUrl).getHost().toLowerCase(Locale.ROOT);
+        } catch (IOException e) {
+            failed.incrementAndGet();
+            return;
+        }
+        HostQueue queue = hostQueues.computeIfAbsent(host, h -> new HostQueue());
+        synchronized (queue) {
+            if (queue.active >= Math.max(1, config.getImagesPerHost())) {
+                queue.waiting.add(imageUrl); // a worker holding one of this host's slots will take it
+                return;
+            }
+            queue.active++;
+        }
+        try {
+            executor.execute(() -> drain(queue, imageUrl));
+        } catch (RejectedExecutionException e) {
+            synchronized (queue) {
+                queue.active--;
+            }
+            throw e;
+        }
+    }
+
+    // Holds one of the host's slots: downloads the URL, then the host's backlog, then frees the slot
+    private void drain(HostQueue queue, String imageUrl) {
+        String next = imageUrl;
+        while (next != null) {
+            download(next);
+            synchronized (queue) {
+                next = Thread.currentThread().isInterrupted() ? null : queue.waiting.poll();
+                if (next == null) {
+                    queue.active--;
+                }
+            }
+        }
+    }
+
+    private void download(String imageUrl) {
+        try {
+            fetch(imageUrl);
+        } catch (IOException | RuntimeException e) {
+            failed.incrementAndGet(); // never let one image end the host's drain and strand its backlog
+            LOG.debug("Image download failed: %s - %s", imageUrl, e.getMessage());
+        }
+    }
+
+    private void fetch(String imageUrl) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(imageUrl).openConnection();
+        connection.setConnectTimeout(config.getConnectTimeout());
+        connection.setReadTimeout(config.getConnectTimeout());
+        connection.setRequestProperty("User-Agent", config.getUserAgent());
+        connection.setInstanceFollowRedirects(true);
+        try {
+            int status = connection.getResponseCode();
+            if (status != HttpURLConnection.HTTP_OK) {
+                throw new IOException("HTTP " + status);
+            }
+
+            // Type and size caps are checked before a byte of body is read
+            String contentType = connection.getContentType();
+            String mimeType = contentType == null ? "" : contentType.split(";")[0].trim().toLowerCase(Locale.ROOT);
+            String extension = EXTENSIONS.get(mimeType);
+            long maxBytes = config.getMaxImageBytes();
+            if (extension == null || connection.getContentLengthLong() > maxBytes) {
+                rejected.incrementAndGet();
+                return;
+            }
+
+            Files.createDirectories(imageDir);
+            Path temp = imageDir.resolve(".download-" + tempCounter.incrementAndGet() + ".tmp");
+            // Whatever goes wrong (transfer, move, manifest), a temp file never outlives the download
+            boolean moved = false;
+            try {
+                MessageDigest digest = sha256();
+                long size = 0;
+                try (InputStream body = new DigestInputStream(connection.getInputStream(), digest);
+                     ReadableByteChannel source = Channels.newChannel(body);
+                     FileChannel target = FileChannel.open(temp, StandardOpenOption.CREATE,
+                         StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                    long transferred;
+                    // Ask for one byte past the cap so an oversized body without Content-Length is detected
+                    while (size <= maxBytes
+                            && (transferred = target.transferFrom(source, size, maxBytes + 1 - size)) > 0) {
+                        size += transferred;
+                    }
+                }
+                if (size > maxBytes) {
+                    rejected.incrementAndGet();
+                    return;
+                }
+
+                String hash = toHex(digest.digest());
+                Path stored = imageDir.resolve(hash.substring(0, 32) + "." + extension);
+                if (storedHashes.add(hash) && !Files.exists(stored)) {
+                    try {
+                        Files.move(temp, stored, StandardCopyOption.ATOMIC_MOVE);
+                    } catch (IOException e) {
+                        storedHashes.remove(hash); // not stored after all; the next copy may try again
+                        throw e;
+                    }
+                    moved = true;
+                    downloaded.incrementAndGet();
+                } else {
+                    duplicateContent.incrementAndGet();
+                }
+                recordManifest(imageUrl, hash, stored.getFileName().toString(), size);
+            } finally {
+                if (!moved) {
+                    Files.deleteIfExists(temp);
+                }
+            }
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    private synchronized void recordManifest(String imageUrl, String hash, String fileName, long size) throws IOException {
+        if (manifestWriter == null) {
+            Files.createDirectories(manifest.getParent());
+            manifestWriter = Files.newBufferedWriter(manifest, StandardCharsets.UTF_8);
+            manifestWriter.write("URL,SHA256,File,Bytes\n");
+        }
+        manifestWriter.write("\"" + imageUrl.replace("\"", "\"\"") + "\"," + hash + "," + fileName + "," + size + "\n");
+    }
+
+    public int getDownloaded() { return downloaded.get(); }
+    public int getDuplicateContent() { return duplicateContent.get(); }
+    public int getRejected() { return rejected.get(); }
+    public int getFailed() { return failed.get(); }
+
+    // Waits for queued downloads to finish
+    @Override
+    public void close() throws IOException {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(120, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+                LOG.warn("⚠️ Image downloads did not finish in time");
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            if (manifestWriter != null) {
+                manifestWriter.close();
+                manifestWriter = null;
+            }
+        }
+        LOG.info("🖼️ Images - Downloaded: %d, Duplicate content: %d, Rejected (type/size): %d, Failed: %d",
+            downloaded.get(), duplicateContent.get(), rejected.get(), failed.get());
+    }
+
+    // Guarded by itself: downloads in flight for the host, and URLs waiting for a free slot
+    private static final class HostQueue {
+        private final ArrayDeque<String> waiting = new ArrayDeque<>();
+        private int active;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e); // every JRE ships SHA-256
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        char[] hex = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            hex[i * 2] = Character.forDigit((bytes[i] >> 4) & 0xF, 16);
+            hex[i * 2 + 1] = Character.forDigit(bytes[i] & 0xF, 16);
+        }
+        return new String(hex);
+    }
+}
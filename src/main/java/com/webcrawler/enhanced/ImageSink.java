@@ -0,0 +1,31 @@
+package com.webcrawler.enhanced;
+
+import java.io.IOException;
+
+import com.webcrawler.engine.PageContext;
+import com.webcrawler.engine.Sink;
+
+// Sink stage: hands each page's images to the background downloader
+public class ImageSink implements Sink {
+    private final ImageDownloader downloader;
+
+    public ImageSink(ImageDownloader downloader) {
+        this.downloader = downloader;
+    }
+
+    @Override
+    public void accept(PageContext page) {
+        PageData pageData = page.get(PageData.class);
+        if (pageData == null || page.isSkipStorage()) {
+            return;
+        }
+        for (String image : pageData.getImages()) {
+            downloader.submit(image);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        downloader.close();
+    }
+}
@@ -0,0 +1,30 @@
+package com.webcrawler.enhanced;
+
+import java.io.IOException;
+
+import com.webcrawler.engine.PageContext;
+import com.webcrawler.engine.Sink;
+import com.webcrawler.index.InvertedIndex;
+
+// Sink stage: adds each page's text to the full-text search index
+public class IndexSink implements Sink {
+    private final InvertedIndex index;
+
+    public IndexSink(InvertedIndex index) {
+        this.index = index;
+    }
+
+    @Override
+    public void accept(PageContext page) throws IOException {
+        PageData pageData = page.get(PageData.class);
+        if (pageData == null || page.isSkipStorage()) {
+            return;
+        }
+        index.addDocument(pageData.getUrl(), pageData.getContent());
+    }
+
+    @Override
+    public void close() throws IOException {
+        index.close();
+    }
+}
@@ -0,0 +1,39 @@
+package com.webcrawler.enhanced;
+
+import java.io.IOException;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import com.webcrawler.engine.PageContext;
+import com.webcrawler.engine.Sink;
+import com.webcrawler.graph.LinkGraphBuilder;
+
+// Sink stage: records each page's outlinks as edges of the crawl's link graph
+public class LinkGraphSink implements Sink {
+    private final LinkGraphBuilder graph;
+
+    public LinkGraphSink(LinkGraphBuilder graph) {
+        this.graph = graph;
+    }
+
+    @Override
+    public void accept(PageContext page) throws IOException {
+        PageData pageData = page.get(PageData.class);
+        if (pageData == null) {
+            return;
+        }
+        // Fragments point at the same page; repeated links count once
+        Set<String> targets = new LinkedHashSet<>();
+        for (String link : pageData.getLinks()) {
+            int hash = link.indexOf('#');
+            targets.add(hash >= 0 ? link.substring(0, hash) : link);
+        }
+        graph.addLinks(pageData.getUrl(), targets);
+    }
+
+    // Builds the CSR file once every page has been recorded
+    @Override
+    public void close() throws IOException {
+        graph.close();
+    }
+}
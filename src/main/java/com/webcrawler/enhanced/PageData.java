@@ -1,7 +1,14 @@
 package com.webcrawler.enhanced;
 
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Map;
+
+import com.webcrawler.RecordEncoder;
 
 public class PageData {
     private String url;
@@ -20,7 +27,9 @@ public class PageData {
     private long contentLength;
     private long crawlTime;
     private int depth;
+    private long lastModified;
     private String domain;
+    private Map<String, Object> extraFields = Collections.emptyMap();
 
     public PageData(String url) {
         this.url = url;
@@ -90,81 +99,148 @@ public class PageData {
     public long getContentLength() { return contentLength; }
 
     public long getCrawlTime() { return crawlTime; }
+    public void setCrawlTime(long crawlTime) { this.crawlTime = crawlTime; }
 
     public int getDepth() { return depth; }
     public void setDepth(int depth) { this.depth = depth; }
 
     public String getDomain() { return domain; }
 
+    // Sitemap lastmod (epoch millis), 0 when the page wasn't seeded from a sitemap
+    public long getLastModified() { return lastModified; }
+    public void setLastModified(long lastModified) { this.lastModified = lastModified; }
+
+    // Custom fields from extraction rules, keyed by rule name: String, Long, Double, Boolean or a List of those
+    public Map<String, Object> getExtraFields() { return extraFields; }
+    public void setExtraFields(Map<String, Object> extraFields) { this.extraFields = extraFields; }
+
     // Utility methods
     public String toCSV() {
-        return String.format("\"%s\",\"%s\",\"%s\",%d,%d,%d,%d,%d,%d,\"%s\",%b,%d,%s",
-            escapeCSV(url),
-            escapeCSV(title),
-            escapeCSV(description),
-            wordCount,
-            linkCount,
-            imageCount,
-            headings.size(),
-            emails.size(),
-            phoneNumbers.size(),
-            escapeCSV(domain),
-            hasContactForm,
-            depth,
-            new java.util.Date(crawlTime).toString()
-        );
+        StringWriter out = new StringWriter(256);
+        try {
+            writeCSV(new RecordEncoder(out));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // StringWriter doesn't throw
+        }
+        return out.toString();
     }
 
-    private String escapeCSV(String value) {
-        if (value == null) return "";
-        return value.replace("\"", "\"\"").replace("\n", " ").replace("\r", " ");
+    // Streams one crawl_results.csv row (no line terminator) without building it as a String
+    public void writeCSV(RecordEncoder out) throws IOException {
+        out.csvField(url).raw(',').csvField(title).raw(',').csvField(description).raw(',')
+            .number(wordCount).raw(',')
+            .number(linkCount).raw(',')
+            .number(imageCount).raw(',')
+            .number(headings.size()).raw(',')
+            .number(emails.size()).raw(',')
+            .number(phoneNumbers.size()).raw(',')
+            .csvField(domain).raw(',')
+            .bool(hasContactForm).raw(',')
+            .number(depth).raw(',')
+            .timestamp(crawlTime);
+    }
+
+    // The row above plus one column per extra field name; fields this page lacks are left empty
+    public void writeCSV(RecordEncoder out, List<String> extraColumns) throws IOException {
+        writeCSV(out);
+        for (String column : extraColumns) {
+            out.raw(',');
+            Object value = extraFields.get(column);
+            if (value instanceof List) {
+                out.raw('"');
+                List<?> values = (List<?>) value;
+                for (int i = 0; i < values.size(); i++) {
+                    if (i > 0) out.raw("; ");
+                    out.csvEscaped(String.valueOf(values.get(i)));
+                }
+                out.raw('"');
+            } else if (value != null) {
+                writeValue(out, value, true);
+            }
+        }
     }
 
     public String toJSON() {
-        StringBuilder json = new StringBuilder();
-        json.append("{\n");
-        json.append(String.format("  \"url\": \"%s\",\n", escapeJSON(url)));
-        json.append(String.format("  \"title\": \"%s\",\n", escapeJSON(title)));
-        json.append(String.format("  \"description\": \"%s\",\n", escapeJSON(description)));
-        json.append(String.format("  \"domain\": \"%s\",\n", escapeJSON(domain)));
-        json.append(String.format("  \"depth\": %d,\n", depth));
-        json.append(String.format("  \"wordCount\": %d,\n", wordCount));
-        json.append(String.format("  \"linkCount\": %d,\n", linkCount));
-        json.append(String.format("  \"imageCount\": %d,\n", imageCount));
-        json.append(String.format("  \"headingCount\": %d,\n", headings.size()));
-        json.append(String.format("  \"emailCount\": %d,\n", emails.size()));
-        json.append(String.format("  \"phoneCount\": %d,\n", phoneNumbers.size()));
-        json.append(String.format("  \"hasContactForm\": %b,\n", hasContactForm));
-        json.append(String.format("  \"contentLength\": %d,\n", contentLength));
-        json.append(String.format("  \"crawlTime\": \"%s\",\n", new java.util.Date(crawlTime)));
-        
+        StringWriter out = new StringWriter(1024);
+        try {
+            writeJSON(new RecordEncoder(out));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toString();
+    }
+
+    // Streams the pretty-printed JSON object for this page
+    public void writeJSON(RecordEncoder out) throws IOException {
+        out.raw("{\n");
+        out.raw("  \"url\": ").jsonString(url).raw(",\n");
+        out.raw("  \"title\": ").jsonString(title).raw(",\n");
+        out.raw("  \"description\": ").jsonString(description).raw(",\n");
+        out.raw("  \"domain\": ").jsonString(domain).raw(",\n");
+        out.raw("  \"depth\": ").number(depth).raw(",\n");
+        out.raw("  \"wordCount\": ").number(wordCount).raw(",\n");
+        out.raw("  \"linkCount\": ").number(linkCount).raw(",\n");
+        out.raw("  \"imageCount\": ").number(imageCount).raw(",\n");
+        out.raw("  \"headingCount\": ").number(headings.size()).raw(",\n");
+        out.raw("  \"emailCount\": ").number(emails.size()).raw(",\n");
+        out.raw("  \"phoneCount\": ").number(phoneNumbers.size()).raw(",\n");
+        out.raw("  \"hasContactForm\": ").bool(hasContactForm).raw(",\n");
+        out.raw("  \"contentLength\": ").number(contentLength).raw(",\n");
+        out.raw("  \"crawlTime\": \"").timestamp(crawlTime).raw("\",\n");
+        if (lastModified > 0) {
+            out.raw("  \"lastModified\": \"").raw(java.time.Instant.ofEpochMilli(lastModified).toString()).raw("\",\n");
+        }
+        if (!extraFields.isEmpty()) {
+            out.raw("  \"extra\": {");
+            boolean first = true;
+            for (Map.Entry<String, Object> field : extraFields.entrySet()) {
+                out.raw(first ? "" : ", ").jsonString(field.getKey()).raw(": ");
+                if (field.getValue() instanceof List) {
+                    List<?> values = (List<?>) field.getValue();
+                    out.raw('[');
+                    for (int i = 0; i < values.size(); i++) {
+                        if (i > 0) out.raw(", ");
+                        writeValue(out, values.get(i), false);
+                    }
+                    out.raw(']');
+                } else {
+                    writeValue(out, field.getValue(), false);
+                }
+                first = false;
+            }
+            out.raw("},\n");
+        }
+
         // Add arrays
-        json.append("  \"headings\": [" + listToJSON(headings) + "],\n");
-        json.append("  \"emails\": [" + listToJSON(emails) + "],\n");
-        json.append("  \"phoneNumbers\": [" + listToJSON(phoneNumbers) + "],\n");
-        json.append("  \"links\": [" + listToJSON(links) + "],\n");
-        json.append("  \"images\": [" + listToJSON(images) + "]\n");
-        
-        json.append("}");
-        return json.toString();
+        writeJSONArray(out, "headings", headings).raw(",\n");
+        writeJSONArray(out, "emails", emails).raw(",\n");
+        writeJSONArray(out, "phoneNumbers", phoneNumbers).raw(",\n");
+        writeJSONArray(out, "links", links).raw(",\n");
+        writeJSONArray(out, "images", images).raw("\n");
+
+        out.raw("}");
     }
 
-    private String escapeJSON(String value) {
-        if (value == null) return "";
-        return value.replace("\\", "\\\\")
-                   .replace("\"", "\\\"")
-                   .replace("\n", "\\n")
-                   .replace("\r", "\\r")
-                   .replace("\t", "\\t");
+    private static void writeValue(RecordEncoder out, Object value, boolean csv) throws IOException {
+        if (value instanceof Long || value instanceof Integer) {
+            out.number(((Number) value).longValue());
+        } else if (value instanceof Number) {
+            out.decimal(((Number) value).doubleValue());
+        } else if (value instanceof Boolean) {
+            out.bool((Boolean) value);
+        } else if (csv) {
+            out.csvField(String.valueOf(value));
+        } else {
+            out.jsonString(String.valueOf(value));
+        }
     }
 
-    private String listToJSON(List<String> list) {
-        if (list.isEmpty()) return "";
-        StringBuilder sb = new StringBuilder();
+    private static RecordEncoder writeJSONArray(RecordEncoder out, String name, List<String> list) throws IOException {
+        out.raw("  \"").raw(name).raw("\": [");
         for (int i = 0; i < list.size(); i++) {
-            if (i > 0) sb.append(", ");
-            sb.append("\"").append(escapeJSON(list.get(i))).append("\"");
+            if (i > 0) out.raw(", ");
+            out.jsonString(list.get(i));
         }
-        return sb.toString();
+        return out.raw(']');
     }
-}
\ No newline at end of file
+}
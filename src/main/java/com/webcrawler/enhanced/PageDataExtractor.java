@@ -0,0 +1,126 @@
+package com.webcrawler.enhanced;
+
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.select.Elements;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.webcrawler.engine.Extractor;
+import com.webcrawler.engine.PageContext;
+import com.webcrawler.rules.CompiledRules;
+
+// Extract stage of the enhanced crawler: builds the full PageData record for a page
+public class PageDataExtractor implements Extractor {
+    private final CompiledRules rules;
+
+    public PageDataExtractor() {
+        this(CompiledRules.NONE);
+    }
+
+    // Rules are compiled once per crawl and shared by every extract thread
+    public PageDataExtractor(CompiledRules rules) {
+        this.rules = rules;
+    }
+
+    // Regular expressions for data extraction
+    private static final Pattern EMAIL_PATTERN = Pattern.compile(
+        "\\b[A-Za-z0-9._%+-]+@[A-Za-z0-9.-]+\\.[A-Z|a-z]{2,}\\b"
+    );
+
+    private static final Pattern PHONE_PATTERN = Pattern.compile(
+        "(?:\\+?1[-. ]?)?\\(?([0-9]{3})\\)?[-. ]?([0-9]{3})[-. ]?([0-9]{4})\\b|" +
+        "\\b\\d{3}[-.]?\\d{3}[-.]?\\d{4}\\b"
+    );
+
+    @Override
+    public void extract(PageContext page) {
+        PageData pageData = extractPageData(page.getUrl(), page.getDocument(), rules, page.getText());
+        pageData.setDepth(page.getDepth());
+        pageData.setLastModified(page.getRequest().getLastModified());
+        page.put(PageData.class, pageData);
+    }
+
+    // Also used to re-extract stored pages offline
+    public static PageData extractPageData(String url, Document document) {
+        return extractPageData(url, document, CompiledRules.NONE);
+    }
+
+    public static PageData extractPageData(String url, Document document, CompiledRules rules) {
+        return extractPageData(url, document, rules, document.text());
+    }
+
+    // pageText is document.text(), passed in when an earlier stage already computed it
+    private static PageData extractPageData(String url, Document document, CompiledRules rules, String pageText) {
+        PageData pageData = new PageData(url);
+        if (!rules.isEmpty()) {
+            pageData.setExtraFields(rules.extract(document));
+        }
+
+        // Extract basic information
+        pageData.setTitle(document.select("title").text());
+        pageData.setContent(pageText);
+
+        // Extract meta description
+        String description = document.select("meta[name=description]").attr("content");
+        if (description.isEmpty()) {
+            description = document.select("meta[property=og:description]").attr("content");
+        }
+        pageData.setDescription(description);
+
+        // Extract headings
+        Elements headings = document.select("h1, h2, h3, h4, h5, h6");
+        for (Element heading : headings) {
+            String text = heading.text().trim();
+            if (!text.isEmpty()) {
+                pageData.addHeading(heading.tagName() + ": " + text);
+            }
+        }
+
+        // Extract links
+        Elements links = document.select("a[href]");
+        pageData.setLinkCount(links.size());
+        for (Element link : links) {
+            String href = link.absUrl("href");
+            if (!href.isEmpty()) {
+                pageData.addLink(href);
+            }
+        }
+
+        // Extract images
+        Elements images = document.select("img[src]");
+        pageData.setImageCount(images.size());
+        for (Element img : images) {
+            String src = img.absUrl("src");
+            if (!src.isEmpty()) {
+                pageData.addImage(src);
+            }
+        }
+
+        // Extract emails
+        Matcher emailMatcher = EMAIL_PATTERN.matcher(pageText);
+        while (emailMatcher.find()) {
+            String email = emailMatcher.group().toLowerCase();
+            pageData.addEmail(email);
+        }
+
+        // Extract phone numbers
+        Matcher phoneMatcher = PHONE_PATTERN.matcher(pageText);
+        while (phoneMatcher.find()) {
+            String phone = phoneMatcher.group();
+            pageData.addPhoneNumber(phone);
+        }
+
+        // Check for contact forms
+        String lowerText = pageText.toLowerCase();
+        boolean hasContactForm = !document.select("form").isEmpty() &&
+            (lowerText.contains("contact") ||
+             lowerText.contains("email") ||
+             document.select("input[type=email]").size() > 0 ||
+             document.select("textarea").size() > 0);
+        pageData.setHasContactForm(hasContactForm);
+
+        return pageData;
+    }
+}
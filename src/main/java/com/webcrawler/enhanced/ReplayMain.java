@@ -0,0 +1,28 @@
+package com.webcrawler.enhanced;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import com.webcrawler.rules.CompiledRules;
+import com.webcrawler.rules.ExtractionRules;
+
+public class ReplayMain {
+    public static void main(String[] args) {
+        // Re-extract a previous crawl after changing extraction logic; no network needed
+        Path sourceDir = Paths.get(args.length > 0 ? args[0] : "crawler_output");
+        Path outputDir = args.length > 1 ? Paths.get(args[1]) : sourceDir;
+
+        try {
+            // Optional rules file: adds custom fields to pages crawled before the rules existed
+            CompiledRules rules = args.length > 2
+                ? CompiledRules.compile(ExtractionRules.load(Paths.get(args[2])))
+                : CompiledRules.NONE;
+            System.out.println("⏪ Replaying stored pages from '" + sourceDir + "'...");
+            int pages = new CrawlReplay(sourceDir, outputDir, Runtime.getRuntime().availableProcessors(), rules).run();
+            System.out.println("✅ Re-extracted " + pages + " pages; reports written to '" + outputDir + "'");
+        } catch (Exception e) {
+            System.err.println("❌ Replay failed: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+}
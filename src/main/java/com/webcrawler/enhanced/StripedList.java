@@ -0,0 +1,64 @@
+package com.webcrawler.enhanced;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Append-mostly list split into independently locked shards. Each thread appends to
+ * the shard picked by its id, so concurrent writers rarely share a lock; readers merge
+ * the shards on demand. Iteration order across shards is unspecified.
+ */
+final class StripedList<E> {
+    private final Shard<E>[] shards;
+    private final int mask;
+    private final LongAdder size = new LongAdder();
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    StripedList() {
+        int target = Runtime.getRuntime().availableProcessors() * 2;
+        int count = Integer.highestOneBit(Math.max(2, target - 1)) << 1;
+        this.shards = new Shard[count];
+        for (int i = 0; i < count; i++) {
+            shards[i] = new Shard<>();
+        }
+        this.mask = count - 1;
+    }
+
+    void add(E element) {
+        Shard<E> shard = shards[mix(Thread.currentThread().getId()) & mask];
+        synchronized (shard) {
+            shard.items.add(element);
+        }
+        size.increment();
+    }
+
+    int size() {
+        return (int) size.sum();
+    }
+
+    boolean isEmpty() {
+        return size.sum() == 0;
+    }
+
+    // Merged copy of every shard
+    List<E> snapshot() {
+        List<E> merged = new ArrayList<>(size());
+        for (Shard<E> shard : shards) {
+            synchronized (shard) {
+                merged.addAll(shard.items);
+            }
+        }
+        return merged;
+    }
+
+    // Thread ids are sequential; spread them so neighbouring threads land on different shards
+    private static int mix(long id) {
+        long h = id * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private static final class Shard<E> {
+        final List<E> items = new ArrayList<>();
+    }
+}
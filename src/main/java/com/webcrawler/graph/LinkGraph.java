@@ -0,0 +1,254 @@
+package com.webcrawler.graph;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.stream.IntStream;
+
+/**
+ * Read-only link graph written by {@link LinkGraphBuilder}. The CSR arrays are memory
+ * mapped, so a 10M-edge graph costs ~40 MB of page cache rather than a map of strings;
+ * PageRank adds a transposed copy and a few per-node arrays on the heap.
+ * Analyses split the node range across the fork-join common pool.
+ */
+public class LinkGraph {
+    private static final int SPLIT_THRESHOLD = 4096;
+
+    private final int nodeCount;
+    private final int edgeCount;
+    private final IntBuffer offsets;
+    private final IntBuffer targets;
+    private final List<String> urls;
+
+    private LinkGraph(int nodeCount, int edgeCount, IntBuffer offsets, IntBuffer targets, List<String> urls) {
+        this.nodeCount = nodeCount;
+        this.edgeCount = edgeCount;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.urls = urls;
+    }
+
+    public static LinkGraph open(Path directory) throws IOException {
+        Path file = directory.resolve(LinkGraphBuilder.GRAPH_FILE);
+        IntBuffer ints;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Link graph too large to map: " + file);
+            }
+            ints = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).asIntBuffer();
+        }
+        if (ints.limit() < 3 || ints.get(0) != LinkGraphBuilder.MAGIC) {
+            throw new IOException("Not a link graph: " + file);
+        }
+        int nodes = ints.get(1);
+        int edges = ints.get(2);
+        IntBuffer offsets = slice(ints, 3, nodes + 1);
+        IntBuffer targets = slice(ints, 3 + nodes + 1, edges);
+        return new LinkGraph(nodes, edges, offsets, targets, readUrls(directory.resolve(LinkGraphBuilder.URLS_FILE), nodes));
+    }
+
+    public int getNodeCount() { return nodeCount; }
+    public int getEdgeCount() { return edgeCount; }
+    public String getUrl(int node) { return urls.get(node); }
+
+    public int outDegree(int node) {
+        return offsets.get(node + 1) - offsets.get(node);
+    }
+
+    public int[] outLinks(int node) {
+        int start = offsets.get(node);
+        int[] links = new int[offsets.get(node + 1) - start];
+        for (int i = 0; i < links.length; i++) {
+            links[i] = targets.get(start + i);
+        }
+        return links;
+    }
+
+    public int[] inDegrees() {
+        AtomicIntegerArray counts = new AtomicIntegerArray(nodeCount);
+        ForkJoinPool.commonPool().invoke(new RangeAction(0, nodeCount, (from, to) -> {
+            for (int i = offsets.get(from), end = offsets.get(to); i < end; i++) {
+                counts.incrementAndGet(targets.get(i));
+            }
+        }));
+        int[] degrees = new int[nodeCount];
+        for (int i = 0; i < nodeCount; i++) {
+            degrees[i] = counts.get(i);
+        }
+        return degrees;
+    }
+
+    /**
+     * Pull-based PageRank over the transposed graph. Rank from dangling pages (no
+     * outlinks) is spread evenly over all nodes. Stops after maxIterations or once the
+     * L1 change between iterations drops below tolerance. Ranks sum to 1.
+     */
+    public double[] pageRank(double damping, int maxIterations, double tolerance) {
+        int n = nodeCount;
+        if (n == 0) {
+            return new double[0];
+        }
+
+        // Transpose: in-links for every node
+        int[] inDegree = inDegrees();
+        int[] inOffsets = new int[n + 1];
+        for (int i = 0; i < n; i++) {
+            inOffsets[i + 1] = inOffsets[i] + inDegree[i];
+        }
+        int[] inSources = new int[edgeCount];
+        AtomicIntegerArray cursor = new AtomicIntegerArray(Arrays.copyOf(inOffsets, n));
+        ForkJoinPool.commonPool().invoke(new RangeAction(0, n, (from, to) -> {
+            for (int source = from; source < to; source++) {
+                for (int i = offsets.get(source), end = offsets.get(source + 1); i < end; i++) {
+                    inSources[cursor.getAndIncrement(targets.get(i))] = source;
+                }
+            }
+        }));
+
+        int[] outDegree = new int[n];
+        for (int i = 0; i < n; i++) {
+            outDegree[i] = outDegree(i);
+        }
+
+        double[] rank = new double[n];
+        double[] next = new double[n];
+        Arrays.fill(rank, 1.0 / n);
+        for (int iteration = 0; iteration < maxIterations; iteration++) {
+            double[] current = rank;
+            double dangling = ForkJoinPool.commonPool().invoke(new RangeSum(0, n, (from, to) -> {
+                double sum = 0;
+                for (int i = from; i < to; i++) {
+                    if (outDegree[i] == 0) sum += current[i];
+                }
+                return sum;
+            }));
+            double base = (1 - damping) / n + damping * dangling / n;
+
+            double[] target = next;
+            double delta = ForkJoinPool.commonPool().invoke(new RangeSum(0, n, (from, to) -> {
+                double change = 0;
+                for (int v = from; v < to; v++) {
+                    double sum = 0;
+                    for (int i = inOffsets[v]; i < inOffsets[v + 1]; i++) {
+                        int u = inSources[i];
+                        sum += current[u] / outDegree[u];
+                    }
+                    target[v] = base + damping * sum;
+                    change += Math.abs(target[v] - current[v]);
+                }
+                return change;
+            }));
+
+            next = rank;
+            rank = target;
+            if (delta < tolerance) {
+                break;
+            }
+        }
+        return rank;
+    }
+
+    // Node ids sorted by descending score, at most limit of them
+    public static int[] top(double[] scores, int limit) {
+        return IntStream.range(0, scores.length).boxed()
+            .sorted((a, b) -> Double.compare(scores[b], scores[a]))
+            .limit(limit)
+            .mapToInt(Integer::intValue)
+            .toArray();
+    }
+
+    private static IntBuffer slice(IntBuffer ints, int start, int length) {
+        IntBuffer view = ints.duplicate();
+        view.position(start);
+        view.limit(start + length);
+        return view.slice();
+    }
+
+    private static List<String> readUrls(Path file, int expected) throws IOException {
+        List<String> urls = new ArrayList<>(expected);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            while (urls.size() < expected) {
+                byte[] bytes = new byte[in.readInt()];
+                in.readFully(bytes);
+                urls.add(new String(bytes, StandardCharsets.UTF_8));
+            }
+        } catch (EOFException e) {
+            throw new IOException("URL table is shorter than the graph: " + file);
+        }
+        return urls;
+    }
+
+    @FunctionalInterface
+    private interface RangeBody {
+        void run(int from, int to);
+    }
+
+    @FunctionalInterface
+    private interface RangeReducer {
+        double apply(int from, int to);
+    }
+
+    private static final class RangeAction extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+        private final RangeBody body;
+
+        RangeAction(int from, int to, RangeBody body) {
+            this.from = from;
+            this.to = to;
+            this.body = body;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SPLIT_THRESHOLD) {
+                body.run(from, to);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new RangeAction(from, mid, body), new RangeAction(mid, to, body));
+        }
+    }
+
+    private static final class RangeSum extends RecursiveTask<Double> {
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+        private final RangeReducer reducer;
+
+        RangeSum(int from, int to, RangeReducer reducer) {
+            this.from = from;
+            this.to = to;
+            this.reducer = reducer;
+        }
+
+        @Override
+        protected Double compute() {
+            if (to - from <= SPLIT_THRESHOLD) {
+                return reducer.apply(from, to);
+            }
+            int mid = (from + to) >>> 1;
+            RangeSum left = new RangeSum(from, mid, reducer);
+            left.fork();
+            double right = new RangeSum(mid, to, reducer).compute();
+            return left.join() + right;
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.webcrawler.graph;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Collects the crawl's link graph with dense integer node ids. During the crawl each
+ * edge is appended to a flat (source, target) int file; {@link #close()} then builds the
+ * compressed sparse row form that {@link LinkGraph} maps:
+ *
+ *   int magic, int nodeCount, int edgeCount, int[nodeCount + 1] offsets, int[edgeCount] targets
+ *
+ * Targets within a row are sorted and de-duplicated. Node URLs are kept in urls.dat,
+ * length-prefixed UTF-8, in id order.
+ */
+public class LinkGraphBuilder implements Closeable {
+    static final int MAGIC = 0x43535231; // "CSR1"
+    static final String GRAPH_FILE = "graph.csr";
+    static final String URLS_FILE = "urls.dat";
+    private static final String EDGES_FILE = "edges.tmp";
+
+    private final Path directory;
+    private final ConcurrentHashMap<String, Integer> ids = new ConcurrentHashMap<>();
+    private final DataOutputStream urlsOut;
+    private final DataOutputStream edgesOut;
+    private int nextId;
+    private long edgeCount;
+    private boolean closed;
+
+    public LinkGraphBuilder(Path directory) throws IOException {
+        this.directory = directory;
+        Files.createDirectories(directory);
+        this.urlsOut = new DataOutputStream(new BufferedOutputStream(
+            Files.newOutputStream(directory.resolve(URLS_FILE))));
+        this.edgesOut = new DataOutputStream(new BufferedOutputStream(
+            Files.newOutputStream(directory.resolve(EDGES_FILE)), 1 << 16));
+    }
+
+    public int idOf(String url) {
+        Integer id = ids.get(url);
+        if (id != null) {
+            return id;
+        }
+        return ids.computeIfAbsent(url, this::assignId);
+    }
+
+    // Ids must match the order of urls.dat, so assignment and the write happen together
+    private int assignId(String url) {
+        synchronized (urlsOut) {
+            try {
+                byte[] bytes = url.getBytes(StandardCharsets.UTF_8);
+                urlsOut.writeInt(bytes.length);
+                urlsOut.write(bytes);
+            } catch (IOException e) {
+                throw new IllegalStateException("Failed to record URL id: " + e.getMessage(), e);
+            }
+            return nextId++;
+        }
+    }
+
+    public void addLinks(String source, Collection<String> targets) throws IOException {
+        int sourceId = idOf(source);
+        int[] targetIds = new int[targets.size()];
+        int count = 0;
+        for (String target : targets) {
+            targetIds[count++] = idOf(target);
+        }
+        synchronized (edgesOut) {
+            if (closed) {
+                throw new IOException("Link graph is closed");
+            }
+            for (int i = 0; i < count; i++) {
+                edgesOut.writeInt(sourceId);
+                edgesOut.writeInt(targetIds[i]);
+            }
+            edgeCount += count;
+        }
+    }
+
+    public int getNodeCount() {
+        return ids.size();
+    }
+
+    // Builds graph.csr from the edge log
+    @Override
+    public void close() throws IOException {
+        int nodes;
+        long edges;
+        synchronized (edgesOut) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            edgesOut.close();
+            edges = edgeCount;
+        }
+        synchronized (urlsOut) {
+            urlsOut.close();
+            nodes = nextId;
+        }
+        if (edges > Integer.MAX_VALUE) {
+            throw new IOException("Too many edges for a CSR file: " + edges);
+        }
+
+        Path edgeFile = directory.resolve(EDGES_FILE);
+        // Pass 1: out-degree per node, turned into row offsets
+        int[] offsets = new int[nodes + 1];
+        try (DataInputStream in = openEdges(edgeFile)) {
+            for (long i = 0; i < edges; i++) {
+                offsets[in.readInt() + 1]++;
+                in.readInt();
+            }
+        }
+        for (int i = 0; i < nodes; i++) {
+            offsets[i + 1] += offsets[i];
+        }
+
+        // Pass 2: scatter targets into their rows
+        int[] targets = new int[(int) edges];
+        int[] cursor = Arrays.copyOf(offsets, nodes);
+        try (DataInputStream in = openEdges(edgeFile)) {
+            for (long i = 0; i < edges; i++) {
+                int source = in.readInt();
+                targets[cursor[source]++] = in.readInt();
+            }
+        }
+
+        // Sort and de-duplicate each row in place, compacting as we go
+        int write = 0;
+        int rowStart = 0;
+        for (int node = 0; node < nodes; node++) {
+            int rowEnd = offsets[node + 1];
+            Arrays.sort(targets, rowStart, rowEnd);
+            offsets[node] = write;
+            for (int i = rowStart; i < rowEnd; i++) {
+                if (i == rowStart || targets[i] != targets[i - 1]) {
+                    targets[write++] = targets[i];
+                }
+            }
+            rowStart = rowEnd;
+        }
+        offsets[nodes] = write;
+
+        Path tmp = directory.resolve(GRAPH_FILE + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(tmp), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(nodes);
+            out.writeInt(write);
+            for (int offset : offsets) {
+                out.writeInt(offset);
+            }
+            for (int i = 0; i < write; i++) {
+                out.writeInt(targets[i]);
+            }
+        }
+        Files.move(tmp, directory.resolve(GRAPH_FILE), StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+        Files.deleteIfExists(edgeFile);
+    }
+
+    private static DataInputStream openEdges(Path file) throws IOException {
+        return new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16));
+    }
+}
@@ -0,0 +1,508 @@
+package com.webcrawler.index;
+
+import com.webcrawler.CrawlLogger;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Incremental on-disk full-text index of crawled pages.
+ *
+ * Documents are buffered in memory and flushed every {@code flushDocs} pages as an
+ * immutable segment (see {@link SegmentWriter}). Once {@code mergeFactor} segments exist a
+ * background thread merges the cheapest adjacent run into one, so lookups stay at a
+ * handful of memory-mapped files. Doc ids are dense and assigned in add order; their URLs
+ * live in docs.dat as length-prefixed UTF-8. Search only sees flushed documents.
+ * The constructor reopens whatever index the directory holds; a crawl uses
+ * {@link #create} so re-runs into the same directory don't add every page again.
+ */
+public class InvertedIndex implements Closeable {
+    private static final CrawlLogger LOG = CrawlLogger.get();
+
+    private static final String DOCS_FILE = "docs.dat";
+    private static final String SEGMENT_PREFIX = "seg-";
+    private static final String SEGMENT_SUFFIX = ".idx";
+    private static final long MAX_MERGED_BYTES = 1L << 30; // segments are mapped whole
+
+    private final Path directory;
+    private final int flushDocs;
+    private final int mergeFactor;
+
+    // Guards the document buffer, doc ids and docs.dat
+    private final Object writeLock = new Object();
+    private final List<String> urls = new ArrayList<>();
+    private final DataOutputStream docsOut;
+    private Map<String, PostingBuffer> buffer = new HashMap<>();
+    private int bufferedDocs;
+    private int bufferMinDoc;
+
+    // Serializes flushes so segments are published in doc order
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final Object segmentLock = new Object();
+    private volatile List<Segment> segments = Collections.emptyList();
+    private int nextGeneration;
+
+    private final ExecutorService merger;
+    private final AtomicBoolean mergeScheduled = new AtomicBoolean(false);
+    private volatile boolean closed;
+
+    public InvertedIndex(Path directory) throws IOException {
+        this(directory, 1000, 8);
+    }
+
+    public InvertedIndex(Path directory, int flushDocs, int mergeFactor) throws IOException {
+        this.directory = directory;
+        this.flushDocs = Math.max(1, flushDocs);
+        this.mergeFactor = Math.max(2, mergeFactor);
+        Files.createDirectories(directory);
+
+        loadDocuments();
+        loadSegments();
+        this.bufferMinDoc = urls.size();
+        this.docsOut = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(
+            directory.resolve(DOCS_FILE), StandardOpenOption.CREATE, StandardOpenOption.APPEND)));
+
+        this.merger = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "index-merger");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduleMerge();
+    }
+
+    // Deletes any index already in the directory and starts an empty one
+    public static InvertedIndex create(Path directory) throws IOException {
+        if (Files.isDirectory(directory)) {
+            Files.deleteIfExists(directory.resolve(DOCS_FILE));
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*")) {
+                for (Path file : files) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+        return new InvertedIndex(directory);
+    }
+
+    // Tokenizes outside the lock; only the id assignment and buffer update are serialized
+    public void addDocument(String url, String text) throws IOException {
+        if (closed) {
+            throw new IOException("Index is closed");
+        }
+        Map<String, Integer> frequencies = Tokenizer.termFrequencies(text);
+        boolean flushNeeded;
+        synchronized (writeLock) {
+            int docId = urls.size();
+            urls.add(url);
+            byte[] urlBytes = url.getBytes(StandardCharsets.UTF_8);
+            docsOut.writeInt(urlBytes.length);
+            docsOut.write(urlBytes);
+            for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+                buffer.computeIfAbsent(entry.getKey(), k -> new PostingBuffer()).add(docId, entry.getValue());
+            }
+            bufferedDocs++;
+            flushNeeded = bufferedDocs >= flushDocs;
+        }
+        if (flushNeeded) {
+            flush();
+        }
+    }
+
+    // Writes buffered documents as a new segment; they become searchable once this returns
+    public void flush() throws IOException {
+        flushLock.lock();
+        try {
+            Map<String, PostingBuffer> toWrite;
+            int minDoc;
+            int maxDoc;
+            synchronized (writeLock) {
+                if (bufferedDocs == 0) {
+                    return;
+                }
+                toWrite = buffer;
+                minDoc = bufferMinDoc;
+                maxDoc = urls.size() - 1;
+                buffer = new HashMap<>();
+                bufferedDocs = 0;
+                bufferMinDoc = urls.size();
+                docsOut.flush(); // segments never reference ids missing from docs.dat
+            }
+
+            Path file = writeSegment(toWrite, minDoc, maxDoc);
+            Segment segment = Segment.open(file);
+            synchronized (segmentLock) {
+                List<Segment> updated = new ArrayList<>(segments);
+                updated.add(segment);
+                segments = Collections.unmodifiableList(updated);
+            }
+            LOG.debug("🔎 Index flushed %d terms for docs %d-%d", toWrite.size(), minDoc, maxDoc);
+        } finally {
+            flushLock.unlock();
+        }
+        scheduleMerge();
+    }
+
+    /**
+     * Returns up to {@code limit} URLs matching any query term, best first. Scores are
+     * tf-idf: each matching term adds (1 + ln tf) * ln(1 + N / df).
+     */
+    public List<SearchHit> search(String query, int limit) {
+        Set<String> terms = new LinkedHashSet<>(Tokenizer.tokenize(query));
+        List<Segment> current = segments;
+        if (terms.isEmpty() || current.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+
+        int totalDocs = current.get(current.size() - 1).getMaxDoc() + 1;
+        Map<Integer, double[]> scores = new HashMap<>();
+        for (String term : terms) {
+            byte[] key = term.getBytes(StandardCharsets.UTF_8);
+            int[] entries = new int[current.size()];
+            long docFreq = 0;
+            for (int i = 0; i < current.size(); i++) {
+                entries[i] = current.get(i).find(key);
+                if (entries[i] >= 0) {
+                    docFreq += current.get(i).docFreq(entries[i]);
+                }
+            }
+            if (docFreq == 0) {
+                continue;
+            }
+
+            double idf = Math.log(1.0 + (double) totalDocs / docFreq);
+            for (int i = 0; i < current.size(); i++) {
+                if (entries[i] >= 0) {
+                    current.get(i).readPostings(entries[i], (docId, tf) ->
+                        scores.computeIfAbsent(docId, d -> new double[1])[0] += (1 + Math.log(tf)) * idf);
+                }
+            }
+        }
+
+        // Keep only the top hits
+        PriorityQueue<Map.Entry<Integer, double[]>> top =
+            new PriorityQueue<>(Comparator.comparingDouble(e -> e.getValue()[0]));
+        for (Map.Entry<Integer, double[]> entry : scores.entrySet()) {
+            top.offer(entry);
+            if (top.size() > limit) {
+                top.poll();
+            }
+        }
+
+        List<SearchHit> hits = new ArrayList<>(top.size());
+        synchronized (writeLock) {
+            while (!top.isEmpty()) {
+                Map.Entry<Integer, double[]> entry = top.poll();
+                hits.add(new SearchHit(urls.get(entry.getKey()), entry.getValue()[0]));
+            }
+        }
+        Collections.reverse(hits);
+        return hits;
+    }
+
+    public int getDocumentCount() {
+        synchronized (writeLock) {
+            return urls.size();
+        }
+    }
+
+    public int getSegmentCount() {
+        return segments.size();
+    }
+
+    // Flushes the buffer and waits for pending merges; search keeps working afterwards
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        flush();
+        closed = true;
+        merger.shutdown();
+        try {
+            if (!merger.awaitTermination(60, TimeUnit.SECONDS)) {
+                LOG.warn("⚠️ Index merge did not finish in time");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (writeLock) {
+            docsOut.close();
+        }
+    }
+
+    private void scheduleMerge() {
+        if (closed || segments.size() < mergeFactor || !mergeScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            merger.submit(() -> {
+                try {
+                    while (mergeOnce()) {
+                        // keep merging while there is a run worth merging
+                    }
+                } catch (IOException e) {
+                    LOG.warn("⚠️ Index merge failed: " + e.getMessage());
+                } finally {
+                    mergeScheduled.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            mergeScheduled.set(false);
+        }
+    }
+
+    // Merges the adjacent run of mergeFactor segments with the fewest bytes
+    private boolean mergeOnce() throws IOException {
+        List<Segment> current = segments;
+        if (current.size() < mergeFactor) {
+            return false;
+        }
+        int bestStart = -1;
+        long bestBytes = Long.MAX_VALUE;
+        for (int start = 0; start + mergeFactor <= current.size(); start++) {
+            long bytes = 0;
+            for (int i = start; i < start + mergeFactor; i++) {
+                bytes += current.get(i).getSizeBytes();
+            }
+            if (bytes < bestBytes) {
+                bestBytes = bytes;
+                bestStart = start;
+            }
+        }
+        if (bestBytes > MAX_MERGED_BYTES) {
+            return false;
+        }
+
+        List<Segment> run = new ArrayList<>(current.subList(bestStart, bestStart + mergeFactor));
+        Path merged = mergeSegments(run);
+        Segment mergedSegment = Segment.open(merged);
+
+        synchronized (segmentLock) {
+            List<Segment> updated = new ArrayList<>(segments);
+            int at = updated.indexOf(run.get(0));
+            updated.removeAll(run);
+            updated.add(at, mergedSegment);
+            segments = Collections.unmodifiableList(updated);
+        }
+        // Readers holding the old list keep their mappings; on POSIX the data stays until unmapped
+        for (Segment old : run) {
+            Files.deleteIfExists(old.getFile());
+        }
+        LOG.debug("🔎 Merged %d index segments into %s", run.size(), merged.getFileName());
+        return true;
+    }
+
+    private Path mergeSegments(List<Segment> run) throws IOException {
+        Path tmp = directory.resolve(SEGMENT_PREFIX + allocateGeneration() + ".tmp");
+        PriorityQueue<TermCursor> queue = new PriorityQueue<>();
+        for (int i = 0; i < run.size(); i++) {
+            TermCursor cursor = new TermCursor(run.get(i), i);
+            if (cursor.advance()) {
+                queue.add(cursor);
+            }
+        }
+
+        try (SegmentWriter writer = new SegmentWriter(tmp)) {
+            List<TermCursor> same = new ArrayList<>();
+            while (!queue.isEmpty()) {
+                same.clear();
+                TermCursor first = queue.poll();
+                same.add(first);
+                while (!queue.isEmpty() && Arrays.equals(queue.peek().term, first.term)) {
+                    same.add(queue.poll());
+                }
+                // Segments cover ascending doc ranges, so concatenating in run order keeps postings sorted
+                same.sort(Comparator.comparingInt(c -> c.order));
+
+                int docFreq = 0;
+                for (TermCursor cursor : same) {
+                    docFreq += cursor.segment.docFreq(cursor.entry);
+                }
+                writer.startTerm(first.term, docFreq);
+                IOException[] failure = new IOException[1];
+                for (TermCursor cursor : same) {
+                    cursor.segment.readPostings(cursor.entry, (docId, tf) -> {
+                        if (failure[0] != null) return;
+                        try {
+                            writer.addPosting(docId, tf);
+                        } catch (IOException e) {
+                            failure[0] = e;
+                        }
+                    });
+                }
+                if (failure[0] != null) {
+                    throw failure[0];
+                }
+                for (TermCursor cursor : same) {
+                    if (cursor.advance()) {
+                        queue.add(cursor);
+                    }
+                }
+            }
+            writer.finish(run.get(0).getMinDoc(), run.get(run.size() - 1).getMaxDoc());
+        }
+
+        Path target = directory.resolve(tmp.getFileName().toString().replace(".tmp", SEGMENT_SUFFIX));
+        Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+        return target;
+    }
+
+    private Path writeSegment(Map<String, PostingBuffer> postings, int minDoc, int maxDoc) throws IOException {
+        List<Map.Entry<byte[], PostingBuffer>> terms = new ArrayList<>(postings.size());
+        for (Map.Entry<String, PostingBuffer> entry : postings.entrySet()) {
+            terms.add(new AbstractMap.SimpleImmutableEntry<>(
+                entry.getKey().getBytes(StandardCharsets.UTF_8), entry.getValue()));
+        }
+        terms.sort((a, b) -> Segment.compareBytes(a.getKey(), b.getKey()));
+
+        Path tmp = directory.resolve(SEGMENT_PREFIX + allocateGeneration() + ".tmp");
+        try (SegmentWriter writer = new SegmentWriter(tmp)) {
+            for (Map.Entry<byte[], PostingBuffer> term : terms) {
+                PostingBuffer list = term.getValue();
+                writer.startTerm(term.getKey(), list.size);
+                for (int i = 0; i < list.size; i++) {
+                    writer.addPosting(list.docs[i], list.freqs[i]);
+                }
+            }
+            writer.finish(minDoc, maxDoc);
+        }
+        Path target = directory.resolve(tmp.getFileName().toString().replace(".tmp", SEGMENT_SUFFIX));
+        Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+        return target;
+    }
+
+    private int allocateGeneration() {
+        synchronized (segmentLock) {
+            return nextGeneration++;
+        }
+    }
+
+    private void loadDocuments() throws IOException {
+        Path docsFile = directory.resolve(DOCS_FILE);
+        if (!Files.exists(docsFile)) {
+            return;
+        }
+        long validLength = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(docsFile)))) {
+            while (true) {
+                byte[] urlBytes = new byte[in.readInt()];
+                in.readFully(urlBytes);
+                urls.add(new String(urlBytes, StandardCharsets.UTF_8));
+                validLength += 4 + urlBytes.length;
+            }
+        } catch (EOFException e) {
+            // end of file, or a record cut short by a crash
+        }
+        if (validLength < Files.size(docsFile)) {
+            try (FileChannel channel = FileChannel.open(docsFile, StandardOpenOption.WRITE)) {
+                channel.truncate(validLength);
+            }
+        }
+    }
+
+    private void loadSegments() throws IOException {
+        List<Segment> loaded = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*")) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(".tmp")) {
+                    Files.deleteIfExists(file); // unfinished flush or merge
+                    continue;
+                }
+                if (!name.endsWith(SEGMENT_SUFFIX)) {
+                    continue;
+                }
+                int generation = Integer.parseInt(
+                    name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+                nextGeneration = Math.max(nextGeneration, generation + 1);
+                loaded.add(Segment.open(file));
+            }
+        }
+
+        // A crash between publishing a merge and deleting its inputs leaves covered segments behind
+        loaded.sort(Comparator.comparingInt(Segment::getMinDoc)
+            .thenComparing(Comparator.comparingInt(Segment::getMaxDoc).reversed()));
+        List<Segment> live = new ArrayList<>();
+        for (Segment segment : loaded) {
+            Segment last = live.isEmpty() ? null : live.get(live.size() - 1);
+            if (last != null && segment.getMaxDoc() <= last.getMaxDoc()) {
+                Files.deleteIfExists(segment.getFile());
+            } else {
+                live.add(segment);
+            }
+        }
+        segments = Collections.unmodifiableList(live);
+    }
+
+    // Growable (doc, tf) arrays for one term in the in-memory buffer
+    private static final class PostingBuffer {
+        int[] docs = new int[4];
+        int[] freqs = new int[4];
+        int size;
+
+        void add(int docId, int termFrequency) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                freqs = Arrays.copyOf(freqs, size * 2);
+            }
+            docs[size] = docId;
+            freqs[size] = termFrequency;
+            size++;
+        }
+    }
+
+    private static final class TermCursor implements Comparable<TermCursor> {
+        final Segment segment;
+        final int order;
+        int entry = -1;
+        byte[] term;
+
+        TermCursor(Segment segment, int order) {
+            this.segment = segment;
+            this.order = order;
+        }
+
+        boolean advance() {
+            entry++;
+            if (entry >= segment.getTermCount()) {
+                return false;
+            }
+            term = segment.term(entry);
+            return true;
+        }
+
+        @Override
+        public int compareTo(TermCursor other) {
+            int cmp = Segment.compareBytes(term, other.term);
+            return cmp != 0 ? cmp : Integer.compare(order, other.order);
+        }
+    }
+}
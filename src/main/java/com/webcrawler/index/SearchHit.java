@@ -0,0 +1,19 @@
+package com.webcrawler.index;
+
+public class SearchHit {
+    private final String url;
+    private final double score;
+
+    public SearchHit(String url, double score) {
+        this.url = url;
+        this.score = score;
+    }
+
+    public String getUrl() { return url; }
+    public double getScore() { return score; }
+
+    @Override
+    public String toString() {
+        return String.format("%.3f %s", score, url);
+    }
+}
@@ -0,0 +1,134 @@
+package com.webcrawler.index;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Read-only view of a segment written by {@link SegmentWriter}. The whole file is memory
+ * mapped, so term lookups are a binary search over the entry table and postings are
+ * decoded straight from the page cache without copying into the heap.
+ */
+final class Segment {
+    interface PostingVisitor {
+        void visit(int docId, int termFrequency);
+    }
+
+    private final Path file;
+    private final MappedByteBuffer buffer;
+    private final int termCount;
+    private final int entriesOffset;
+    private final int termsOffset;
+    private final int minDoc;
+    private final int maxDoc;
+    private final long sizeBytes;
+
+    private Segment(Path file, MappedByteBuffer buffer, long sizeBytes) throws IOException {
+        this.file = file;
+        this.buffer = buffer;
+        this.sizeBytes = sizeBytes;
+        int footer = (int) sizeBytes - SegmentWriter.FOOTER_BYTES;
+        if (footer < 0 || buffer.getInt(footer + 28) != SegmentWriter.MAGIC) {
+            throw new IOException("Not an index segment: " + file);
+        }
+        this.termCount = buffer.getInt(footer);
+        this.entriesOffset = (int) buffer.getLong(footer + 4);
+        this.termsOffset = (int) buffer.getLong(footer + 12);
+        this.minDoc = buffer.getInt(footer + 20);
+        this.maxDoc = buffer.getInt(footer + 24);
+    }
+
+    static Segment open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Segment too large to map: " + file);
+            }
+            // The mapping stays valid after the channel is closed
+            return new Segment(file, channel.map(FileChannel.MapMode.READ_ONLY, 0, size), size);
+        }
+    }
+
+    Path getFile() { return file; }
+    int getTermCount() { return termCount; }
+    int getMinDoc() { return minDoc; }
+    int getMaxDoc() { return maxDoc; }
+    long getSizeBytes() { return sizeBytes; }
+
+    // Entry index of the term, or -1
+    int find(byte[] term) {
+        int low = 0;
+        int high = termCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = compareTerm(mid, term);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    byte[] term(int entry) {
+        int base = entriesOffset + entry * SegmentWriter.ENTRY_BYTES;
+        byte[] term = new byte[buffer.getInt(base + 4)];
+        ByteBuffer view = buffer.duplicate();
+        view.position(termsOffset + buffer.getInt(base));
+        view.get(term);
+        return term;
+    }
+
+    int docFreq(int entry) {
+        return buffer.getInt(entriesOffset + entry * SegmentWriter.ENTRY_BYTES + 16);
+    }
+
+    void readPostings(int entry, PostingVisitor visitor) {
+        int base = entriesOffset + entry * SegmentWriter.ENTRY_BYTES;
+        int count = buffer.getInt(base + 16);
+        ByteBuffer view = buffer.duplicate(); // private cursor; safe for concurrent readers
+        view.position((int) buffer.getLong(base + 8));
+        int doc = 0;
+        for (int i = 0; i < count; i++) {
+            doc += readVarInt(view);
+            visitor.visit(doc, readVarInt(view));
+        }
+    }
+
+    private int compareTerm(int entry, byte[] term) {
+        int base = entriesOffset + entry * SegmentWriter.ENTRY_BYTES;
+        int offset = termsOffset + buffer.getInt(base);
+        int length = buffer.getInt(base + 4);
+        int common = Math.min(length, term.length);
+        for (int i = 0; i < common; i++) {
+            int cmp = Integer.compare(buffer.get(offset + i) & 0xFF, term[i] & 0xFF);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return Integer.compare(length, term.length);
+    }
+
+    private static int readVarInt(ByteBuffer view) {
+        int b = view.get();
+        int value = b & 0x7F;
+        int shift = 7;
+        while ((b & 0x80) != 0) {
+            b = view.get();
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        }
+        return value;
+    }
+
+    static int compareBytes(byte[] a, byte[] b) {
+        return Arrays.compareUnsigned(a, b);
+    }
+}
@@ -0,0 +1,111 @@
+package com.webcrawler.index;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Streams one immutable segment file. Terms must be added in unsigned byte order with
+ * their postings in ascending doc order. Layout:
+ *
+ *   postings   per term: (varint docDelta, varint tf) * docFreq
+ *   entries    per term: int termOffset, int termLength, long postingsOffset, int docFreq
+ *   terms      concatenated UTF-8 term bytes
+ *   footer     int termCount, long entriesOffset, long termsOffset, int minDoc, int maxDoc, int magic
+ */
+final class SegmentWriter implements Closeable {
+    static final int MAGIC = 0x49445831; // "IDX1"
+    static final int ENTRY_BYTES = 20;
+    static final int FOOTER_BYTES = 32;
+
+    private final OutputStream out;
+    private final ByteArrayOutputStream termBytes = new ByteArrayOutputStream();
+    private final ByteArrayOutputStream entries = new ByteArrayOutputStream();
+    private final byte[] scratch = new byte[8];
+    private long position;
+    private int termCount;
+    private int lastDoc;
+    private int remainingInTerm;
+
+    SegmentWriter(Path file) throws IOException {
+        this.out = new BufferedOutputStream(Files.newOutputStream(file), 1 << 16);
+    }
+
+    void startTerm(byte[] term, int docFreq) throws IOException {
+        if (remainingInTerm != 0) {
+            throw new IllegalStateException("Previous term is missing " + remainingInTerm + " postings");
+        }
+        writeInt(entries, termBytes.size());
+        writeInt(entries, term.length);
+        writeLong(entries, position);
+        writeInt(entries, docFreq);
+        termBytes.write(term);
+        termCount++;
+        lastDoc = 0;
+        remainingInTerm = docFreq;
+    }
+
+    void addPosting(int docId, int termFrequency) throws IOException {
+        writeVarInt(docId - lastDoc);
+        writeVarInt(termFrequency);
+        lastDoc = docId;
+        remainingInTerm--;
+    }
+
+    void finish(int minDoc, int maxDoc) throws IOException {
+        long entriesOffset = position;
+        entries.writeTo(out);
+        position += entries.size();
+        long termsOffset = position;
+        termBytes.writeTo(out);
+        position += termBytes.size();
+
+        ByteArrayOutputStream footer = new ByteArrayOutputStream(FOOTER_BYTES);
+        writeInt(footer, termCount);
+        writeLong(footer, entriesOffset);
+        writeLong(footer, termsOffset);
+        writeInt(footer, minDoc);
+        writeInt(footer, maxDoc);
+        writeInt(footer, MAGIC);
+        footer.writeTo(out);
+        position += FOOTER_BYTES;
+        out.flush();
+    }
+
+    long size() {
+        return position;
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    private void writeVarInt(int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+            position++;
+        }
+        out.write(value);
+        position++;
+    }
+
+    private void writeInt(OutputStream target, int value) throws IOException {
+        for (int i = 0; i < 4; i++) {
+            scratch[i] = (byte) (value >>> (24 - 8 * i));
+        }
+        target.write(scratch, 0, 4);
+    }
+
+    private void writeLong(OutputStream target, long value) throws IOException {
+        for (int i = 0; i < 8; i++) {
+            scratch[i] = (byte) (value >>> (56 - 8 * i));
+        }
+        target.write(scratch, 0, 8);
+    }
+}
@@ -0,0 +1,49 @@
+package com.webcrawler.index;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Consumer;
+
+// Splits text into lower-cased runs of letters and digits; very short or very long runs are dropped
+public final class Tokenizer {
+    static final int MIN_LENGTH = 2;
+    static final int MAX_LENGTH = 40;
+
+    private Tokenizer() {
+    }
+
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        scan(text, token -> tokens.add(token));
+        return tokens;
+    }
+
+    public static Map<String, Integer> termFrequencies(String text) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        scan(text, token -> frequencies.merge(token, 1, Integer::sum));
+        return frequencies;
+    }
+
+    private static void scan(String text, Consumer<String> sink) {
+        if (text == null) {
+            return;
+        }
+        int length = text.length();
+        int start = -1;
+        for (int i = 0; i <= length; i++) {
+            boolean wordChar = i < length && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar) {
+                if (start < 0) start = i;
+            } else if (start >= 0) {
+                int tokenLength = i - start;
+                if (tokenLength >= MIN_LENGTH && tokenLength <= MAX_LENGTH) {
+                    sink.accept(text.substring(start, i).toLowerCase(Locale.ROOT));
+                }
+                start = -1;
+            }
+        }
+    }
+}
@@ -0,0 +1,477 @@
+package com.webcrawler.rules;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.jsoup.nodes.Attribute;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.Node;
+import org.jsoup.select.NodeTraversor;
+import org.jsoup.select.NodeVisitor;
+
+import com.webcrawler.CrawlLogger;
+import com.webcrawler.JsonReader;
+
+/**
+ * A crawl's extraction rules combined into one matcher that visits each DOM node once.
+ * CSS rules are indexed by the id, class, tag or attribute their selector's rightmost
+ * compound requires, so an element is only tested against rules that could match it;
+ * meta rules are a hash lookup on the element's property/name key, and JSON-LD blocks are
+ * parsed once and shared by every JSON-LD rule. Per-page cost therefore tracks the
+ * document and the matches, not the number of rules. Immutable and thread-safe.
+ */
+public final class CompiledRules {
+    private static final CrawlLogger LOG = CrawlLogger.get();
+
+    public static final CompiledRules NONE = compile(Collections.emptyList());
+
+    private static final Pattern NUMBER = Pattern.compile("-?\\d[\\d,]*(?:\\.\\d+)?");
+    private static final String[] META_KEYS = { "property", "name", "itemprop" };
+
+    private final ExtractionRule[] rules;
+    private final List<String> columns;
+    private final Map<String, int[]> byId = new HashMap<>();
+    private final Map<String, int[]> byClass = new HashMap<>();
+    private final Map<String, int[]> byTag = new HashMap<>();
+    private final Map<String, int[]> byAttribute = new HashMap<>();
+    private final Map<String, int[]> byMetaKey = new HashMap<>();
+    private final int[] wildcard;
+    private final int[] jsonLd;
+
+    private CompiledRules(List<ExtractionRule> rules) {
+        this.rules = rules.toArray(new ExtractionRule[0]);
+        List<String> names = new ArrayList<>();
+        List<Integer> anyElement = new ArrayList<>();
+        List<Integer> jsonLdRules = new ArrayList<>();
+        for (int i = 0; i < this.rules.length; i++) {
+            ExtractionRule rule = this.rules[i];
+            if (names.contains(rule.getName())) {
+                throw new IllegalArgumentException("Duplicate extraction rule name: " + rule.getName());
+            }
+            names.add(rule.getName());
+            switch (rule.getSource()) {
+                case META:
+                    add(byMetaKey, rule.getQuery().toLowerCase(), i);
+                    break;
+                case JSON_LD:
+                    jsonLdRules.add(i);
+                    break;
+                default:
+                    // An element matching any alternative of "a, b" is found through that alternative's key
+                    for (String alternative : splitTopLevel(rule.getQuery())) {
+                        String key = indexKey(alternative);
+                        if (key == null) {
+                            anyElement.add(i);
+                        } else if (key.charAt(0) == '#') {
+                            add(byId, key.substring(1), i);
+                        } else if (key.charAt(0) == '.') {
+                            add(byClass, key.substring(1).toLowerCase(), i);
+                        } else if (key.charAt(0) == '[') {
+                            add(byAttribute, key.substring(1).toLowerCase(), i);
+                        } else {
+                            add(byTag, key.toLowerCase(), i);
+                        }
+                    }
+            }
+        }
+        this.columns = Collections.unmodifiableList(names);
+        this.wildcard = anyElement.stream().mapToInt(Integer::intValue).distinct().toArray();
+        this.jsonLd = jsonLdRules.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    public static CompiledRules compile(List<ExtractionRule> rules) {
+        return new CompiledRules(rules);
+    }
+
+    public boolean isEmpty() {
+        return rules.length == 0;
+    }
+
+    // Column names in rule order
+    public List<String> getColumns() {
+        return columns;
+    }
+
+    // Values keyed by rule name, in rule order; rules that found nothing are absent (BOOLEAN rules read false)
+    public Map<String, Object> extract(Document document) {
+        if (rules.length == 0) {
+            return Collections.emptyMap();
+        }
+        Pass pass = new Pass(document);
+        NodeTraversor.traverse(pass, document);
+
+        Map<String, Object> values = new LinkedHashMap<>();
+        for (int i = 0; i < rules.length; i++) {
+            Object value = pass.values[i];
+            if (value == null && rules[i].getType() == ExtractionRule.Type.BOOLEAN && !rules[i].isAll()) {
+                value = Boolean.FALSE;
+            }
+            if (value != null) {
+                values.put(rules[i].getName(), value);
+            }
+        }
+        return values;
+    }
+
+    // Per-page state of the single traversal
+    private final class Pass implements NodeVisitor {
+        private final Document document;
+        private final Object[] values = new Object[rules.length];
+        // Element sequence number at which each rule was last tested, so a rule reached
+        // through two keys (e.g. tag and class) is tested once per element
+        private final int[] testedAt = new int[rules.length];
+        private int element;
+
+        Pass(Document document) {
+            this.document = document;
+        }
+
+        @Override
+        public void head(Node node, int depth) {
+            if (!(node instanceof Element)) {
+                return;
+            }
+            Element el = (Element) node;
+            element++;
+            String tag = el.normalName();
+            test(el, byTag.get(tag));
+            if (!byId.isEmpty()) {
+                String id = el.id();
+                if (!id.isEmpty()) {
+                    test(el, byId.get(id));
+                }
+            }
+            if (!byClass.isEmpty() && el.hasAttr("class")) {
+                testClasses(el, el.attr("class"));
+            }
+            if (!byAttribute.isEmpty() && el.attributesSize() > 0) {
+                for (Attribute attribute : el.attributes()) {
+                    test(el, byAttribute.get(attribute.getKey().toLowerCase()));
+                }
+            }
+            test(el, wildcard);
+
+            if (tag.equals("meta") && !byMetaKey.isEmpty()) {
+                for (String key : META_KEYS) {
+                    String value = el.attr(key);
+                    if (!value.isEmpty()) {
+                        int[] matching = byMetaKey.get(value.toLowerCase());
+                        if (matching != null) {
+                            for (int rule : matching) {
+                                accept(rule, el.attr("content"));
+                            }
+                        }
+                    }
+                }
+            } else if (tag.equals("script") && jsonLd.length > 0
+                    && el.attr("type").trim().equalsIgnoreCase("application/ld+json")) {
+                readJsonLd(el.data());
+            }
+        }
+
+        private void testClasses(Element el, String classAttr) {
+            int length = classAttr.length();
+            int start = -1;
+            for (int i = 0; i <= length; i++) {
+                boolean space = i == length || Character.isWhitespace(classAttr.charAt(i));
+                if (!space && start < 0) {
+                    start = i;
+                } else if (space && start >= 0) {
+                    test(el, byClass.get(classAttr.substring(start, i).toLowerCase()));
+                    start = -1;
+                }
+            }
+        }
+
+        private void test(Element el, int[] candidates) {
+            if (candidates == null) {
+                return;
+            }
+            for (int i : candidates) {
+                if (testedAt[i] == element || (values[i] != null && !rules[i].isAll())) {
+                    continue;
+                }
+                testedAt[i] = element;
+                if (rules[i].getEvaluator().matches(document, el)) {
+                    accept(i, read(rules[i], el));
+                }
+            }
+        }
+
+        private void readJsonLd(String json) {
+            Object parsed;
+            try {
+                parsed = JsonReader.parse(json.trim());
+            } catch (IllegalArgumentException e) {
+                LOG.debug("Skipping malformed JSON-LD on %s: %s", document.location(), e.getMessage());
+                return;
+            }
+            List<Object> objects = new ArrayList<>();
+            collectObjects(parsed, objects);
+            for (int rule : jsonLd) {
+                for (Object object : objects) {
+                    if (values[rule] != null && !rules[rule].isAll()) {
+                        break;
+                    }
+                    if (hasType(object, rules[rule].getJsonLdType())) {
+                        walk(rule, object, rules[rule].getPath(), 0);
+                    }
+                }
+            }
+        }
+
+        private void walk(int rule, Object node, String[] path, int index) {
+            if (node instanceof List) {
+                for (Object item : (List<?>) node) {
+                    walk(rule, item, path, index);
+                }
+            } else if (index == path.length) {
+                if (node != null && !(node instanceof Map)) {
+                    accept(rule, node);
+                }
+            } else if (node instanceof Map) {
+                walk(rule, ((Map<?, ?>) node).get(path[index]), path, index + 1);
+            }
+        }
+
+        private void accept(int rule, Object raw) {
+            ExtractionRule r = rules[rule];
+            if (values[rule] != null && !r.isAll()) {
+                return;
+            }
+            Object value = convert(r, raw);
+            if (value == null) {
+                return;
+            }
+            if (!r.isAll()) {
+                values[rule] = value;
+                return;
+            }
+            @SuppressWarnings("unchecked")
+            List<Object> list = (List<Object>) values[rule];
+            if (list == null) {
+                list = new ArrayList<>();
+                values[rule] = list;
+            }
+            list.add(value);
+        }
+    }
+
+    private static String read(ExtractionRule rule, Element el) {
+        switch (rule.getRead()) {
+            case OWN_TEXT: return el.ownText();
+            case HTML: return el.html();
+            case ATTRIBUTE: return el.attr(rule.getAttribute());
+            default: return el.text();
+        }
+    }
+
+    // Applies the rule's regex and type; null drops the value
+    private static Object convert(ExtractionRule rule, Object raw) {
+        if (raw instanceof Number && rule.getRegex() == null) {
+            if (rule.getType() == ExtractionRule.Type.INTEGER) {
+                return ((Number) raw).longValue();
+            }
+            if (rule.getType() == ExtractionRule.Type.DECIMAL) {
+                double value = ((Number) raw).doubleValue();
+                return Double.isFinite(value) ? value : null;
+            }
+        }
+        String text = raw.toString().trim();
+        if (rule.getRegex() != null) {
+            Matcher matcher = rule.getRegex().matcher(text);
+            if (!matcher.find()) {
+                return null;
+            }
+            text = matcher.groupCount() > 0 && matcher.group(1) != null ? matcher.group(1) : matcher.group();
+        }
+        switch (rule.getType()) {
+            case INTEGER:
+            case DECIMAL: {
+                Matcher number = NUMBER.matcher(text);
+                if (!number.find()) {
+                    return null;
+                }
+                String digits = number.group().replace(",", "");
+                try {
+                    double parsed = Double.parseDouble(digits);
+                    if (Double.isInfinite(parsed)) {
+                        return null;
+                    }
+                    return rule.getType() == ExtractionRule.Type.INTEGER ? (Object) (long) parsed : (Object) parsed;
+                } catch (NumberFormatException e) {
+                    return null;
+                }
+            }
+            case BOOLEAN:
+                return !(text.equalsIgnoreCase("false") || text.equals("0") || text.equalsIgnoreCase("no"));
+            default:
+                return text.isEmpty() ? null : text;
+        }
+    }
+
+    // Top-level JSON-LD may be one object, an array of them, or an object holding an @graph
+    private static void collectObjects(Object node, List<Object> out) {
+        if (node instanceof List) {
+            for (Object item : (List<?>) node) {
+                collectObjects(item, out);
+            }
+        } else if (node instanceof Map) {
+            out.add(node);
+            Object graph = ((Map<?, ?>) node).get("@graph");
+            if (graph != null) {
+                collectObjects(graph, out);
+            }
+        }
+    }
+
+    private static boolean hasType(Object object, String type) {
+        if (type == null) {
+            return true;
+        }
+        Object declared = ((Map<?, ?>) object).get("@type");
+        if (declared instanceof List) {
+            return ((List<?>) declared).contains(type);
+        }
+        return type.equals(declared);
+    }
+
+    private static void add(Map<String, int[]> index, String key, int rule) {
+        int[] existing = index.get(key);
+        if (existing == null) {
+            index.put(key, new int[] { rule });
+        } else if (existing[existing.length - 1] != rule) {
+            int[] grown = java.util.Arrays.copyOf(existing, existing.length + 1);
+            grown[existing.length] = rule;
+            index.put(key, grown);
+        }
+    }
+
+    // Splits "a, b > c" at commas outside brackets, parentheses and quotes
+    static List<String> splitTopLevel(String selector) {
+        List<String> parts = new ArrayList<>();
+        int depth = 0;
+        char quote = 0;
+        int start = 0;
+        for (int i = 0; i < selector.length(); i++) {
+            char c = selector.charAt(i);
+            if (quote != 0) {
+                if (c == quote) quote = 0;
+            } else if (c == '"' || c == '\'') {
+                quote = c;
+            } else if (c == '[' || c == '(') {
+                depth++;
+            } else if (c == ']' || c == ')') {
+                depth--;
+            } else if (c == ',' && depth == 0) {
+                parts.add(selector.substring(start, i).trim());
+                start = i + 1;
+            }
+        }
+        parts.add(selector.substring(start).trim());
+        return parts;
+    }
+
+    // What an element must have to match the selector's rightmost compound: "#id", ".class",
+    // "tag" or "[attr"; null when nothing cheap is required (then every element is tested)
+    static String indexKey(String selector) {
+        int depth = 0;
+        char quote = 0;
+        int compoundStart = 0;
+        for (int i = 0; i < selector.length(); i++) {
+            char c = selector.charAt(i);
+            if (quote != 0) {
+                if (c == quote) quote = 0;
+            } else if (c == '"' || c == '\'') {
+                quote = c;
+            } else if (c == '[' || c == '(') {
+                depth++;
+            } else if (c == ']' || c == ')') {
+                depth--;
+            } else if (depth == 0 && (Character.isWhitespace(c) || c == '>' || c == '+' || c == '~')) {
+                compoundStart = i + 1;
+            }
+        }
+        String compound = selector.substring(compoundStart);
+        if (compound.isEmpty() || compound.indexOf('|') >= 0 || compound.indexOf('\\') >= 0) {
+            return null; // namespaced, escaped or malformed: test every element rather than guess
+        }
+
+        Set<String> keys = new LinkedHashSet<>();
+        int tagEnd = identifierEnd(compound, 0);
+        String tag = tagEnd > 0 ? compound.substring(0, tagEnd) : null;
+        int i = tagEnd;
+        while (i < compound.length()) {
+            char c = compound.charAt(i);
+            if (c == '#' || c == '.') {
+                int end = identifierEnd(compound, i + 1);
+                if (end > i + 1) {
+                    keys.add(c + compound.substring(i + 1, end));
+                }
+                i = Math.max(end, i + 1);
+            } else if (c == '[') {
+                int end = identifierEnd(compound, i + 1);
+                if (end > i + 1 && compound.charAt(i + 1) != '^') {
+                    keys.add("[" + compound.substring(i + 1, end));
+                }
+                i = skipGroup(compound, i, '[', ']');
+            } else if (c == '(') {
+                i = skipGroup(compound, i, '(', ')');
+            } else {
+                i++; // pseudo-class names and the like
+            }
+        }
+        for (String key : keys) {
+            if (key.charAt(0) == '#') return key;
+        }
+        for (String key : keys) {
+            if (key.charAt(0) == '.') return key;
+        }
+        if (tag != null && !tag.equals("*")) {
+            return tag;
+        }
+        for (String key : keys) {
+            if (key.charAt(0) == '[') return key;
+        }
+        return null;
+    }
+
+    private static int identifierEnd(String s, int from) {
+        int i = from;
+        while (i < s.length()) {
+            char c = s.charAt(i);
+            if (!(Character.isLetterOrDigit(c) || c == '-' || c == '_' || (c == '*' && i == 0))) {
+                break;
+            }
+            i++;
+        }
+        return i;
+    }
+
+    private static int skipGroup(String s, int from, char open, char close) {
+        int depth = 0;
+        char quote = 0;
+        for (int i = from; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (quote != 0) {
+                if (c == quote) quote = 0;
+            } else if (c == '"' || c == '\'') {
+                quote = c;
+            } else if (c == open) {
+                depth++;
+            } else if (c == close && --depth == 0) {
+                return i + 1;
+            }
+        }
+        return s.length();
+    }
+}
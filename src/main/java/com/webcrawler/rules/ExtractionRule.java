@@ -0,0 +1,179 @@
+package com.webcrawler.rules;
+
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import org.jsoup.select.Evaluator;
+import org.jsoup.select.QueryParser;
+import org.jsoup.select.Selector;
+
+/**
+ * One custom field to pull out of every page: where to find it (a CSS selector, a meta or
+ * OpenGraph key, or a JSON-LD path), what to read from the match, an optional regex, and
+ * the column type. Rules are immutable; {@link CompiledRules} combines a crawl's rules
+ * into a single DOM pass.
+ *
+ * <pre>
+ *   ExtractionRule.css("price", ".product .price").regex("([\\d.,]+)").as(Type.DECIMAL).build()
+ *   ExtractionRule.meta("image", "og:image").build()
+ *   ExtractionRule.jsonLd("brand", "brand.name").ofType("Product").build()
+ * </pre>
+ */
+public final class ExtractionRule {
+    public enum Source { CSS, META, JSON_LD }
+
+    // What a CSS match contributes; META always reads the content attribute
+    public enum Read { TEXT, OWN_TEXT, HTML, ATTRIBUTE }
+
+    public enum Type { TEXT, INTEGER, DECIMAL, BOOLEAN }
+
+    private final String name;
+    private final Source source;
+    private final String query;
+    private final Evaluator evaluator;
+    private final String[] path;
+    private final String jsonLdType;
+    private final Read read;
+    private final String attribute;
+    private final Pattern regex;
+    private final Type type;
+    private final boolean all;
+
+    private ExtractionRule(Builder builder) {
+        this.name = builder.name;
+        this.source = builder.source;
+        this.query = builder.query;
+        this.jsonLdType = builder.jsonLdType;
+        this.read = builder.read;
+        this.attribute = builder.attribute;
+        this.regex = builder.regex;
+        this.type = builder.type;
+        this.all = builder.all;
+        this.evaluator = source == Source.CSS ? parseSelector(name, query) : null;
+        this.path = source == Source.JSON_LD ? query.split("\\.") : null;
+    }
+
+    public static Builder css(String name, String selector) {
+        return new Builder(name, Source.CSS, selector);
+    }
+
+    // <meta property|name|itemprop="key" content="...">, which covers OpenGraph and Twitter cards
+    public static Builder meta(String name, String key) {
+        return new Builder(name, Source.META, key);
+    }
+
+    // Dotted path into each JSON-LD object on the page; arrays along the path are flattened
+    public static Builder jsonLd(String name, String path) {
+        return new Builder(name, Source.JSON_LD, path);
+    }
+
+    public String getName() { return name; }
+    public Source getSource() { return source; }
+    public String getQuery() { return query; }
+    public Read getRead() { return read; }
+    public String getAttribute() { return attribute; }
+    public Pattern getRegex() { return regex; }
+    public Type getType() { return type; }
+    public boolean isAll() { return all; }
+    // Null unless the rule is restricted to JSON-LD objects of one @type
+    public String getJsonLdType() { return jsonLdType; }
+
+    Evaluator getEvaluator() { return evaluator; }
+    String[] getPath() { return path; }
+
+    private static Evaluator parseSelector(String name, String selector) {
+        try {
+            return QueryParser.parse(selector);
+        } catch (Selector.SelectorParseException e) {
+            throw new IllegalArgumentException("Rule '" + name + "': bad selector '" + selector + "': " + e.getMessage());
+        }
+    }
+
+    @Override
+    public String toString() {
+        return name + " " + type.name().toLowerCase() + (all ? "*" : "") + " "
+            + source.name().toLowerCase().replace("_", "") + " " + query;
+    }
+
+    public static class Builder {
+        private final String name;
+        private final Source source;
+        private final String query;
+        private String jsonLdType;
+        private Read read = Read.TEXT;
+        private String attribute;
+        private Pattern regex;
+        private Type type = Type.TEXT;
+        private boolean all;
+
+        private Builder(String name, Source source, String query) {
+            if (name == null || !name.matches("[A-Za-z_][A-Za-z0-9_]*")) {
+                throw new IllegalArgumentException("Rule name must be a plain identifier: " + name);
+            }
+            if (query == null || query.trim().isEmpty()) {
+                throw new IllegalArgumentException("Rule '" + name + "' needs a " + source.name().toLowerCase() + " query");
+            }
+            this.name = name;
+            this.source = source;
+            this.query = query.trim();
+        }
+
+        public Builder text() {
+            this.read = Read.TEXT;
+            return this;
+        }
+
+        public Builder ownText() {
+            this.read = Read.OWN_TEXT;
+            return this;
+        }
+
+        public Builder html() {
+            this.read = Read.HTML;
+            return this;
+        }
+
+        // "abs:href" resolves the attribute against the page URL, as in jsoup
+        public Builder attr(String attribute) {
+            this.read = Read.ATTRIBUTE;
+            this.attribute = attribute;
+            return this;
+        }
+
+        // Keeps group 1 if the pattern has a group, else the whole match; values that don't match are dropped
+        public Builder regex(String pattern) {
+            try {
+                this.regex = Pattern.compile(pattern);
+            } catch (PatternSyntaxException e) {
+                throw new IllegalArgumentException("Rule '" + name + "': bad regex: " + e.getDescription());
+            }
+            return this;
+        }
+
+        public Builder as(Type type) {
+            this.type = type;
+            return this;
+        }
+
+        // Keep every match as a list instead of only the first
+        public Builder all() {
+            this.all = true;
+            return this;
+        }
+
+        public Builder ofType(String jsonLdType) {
+            this.jsonLdType = jsonLdType;
+            return this;
+        }
+
+        public ExtractionRule build() {
+            if (source != Source.CSS && read != Read.TEXT) {
+                throw new IllegalArgumentException("Rule '" + name + "': text/attr/html only apply to css rules");
+            }
+            if (jsonLdType != null && source != Source.JSON_LD) {
+                throw new IllegalArgumentException("Rule '" + name + "': ofType only applies to jsonld rules");
+            }
+            return new ExtractionRule(this);
+        }
+    }
+}
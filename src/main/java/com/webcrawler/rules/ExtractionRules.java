@@ -0,0 +1,125 @@
+package com.webcrawler.rules;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads extraction rules from a plain-text file, one rule per line:
+ *
+ * <pre>
+ *   # name    type[*]  source  query                 [| step ...]
+ *   price     decimal  css     .product .price       | regex ([\d.,]+)
+ *   sku       text     css     [itemprop=sku]        | attr content
+ *   tags      text*    css     a[rel=tag]
+ *   image     text     meta    og:image
+ *   brand     text     jsonld  Product:brand.name
+ *   in_stock  boolean  css     .availability.in-stock
+ * </pre>
+ *
+ * Types are text, integer, decimal and boolean; a trailing {@code *} keeps every match.
+ * Steps are {@code text}, {@code owntext}, {@code html}, {@code attr NAME} and
+ * {@code regex PATTERN}. A JSON-LD query may start with {@code Type:} to only read objects
+ * of that @type.
+ */
+public final class ExtractionRules {
+    private ExtractionRules() {
+    }
+
+    public static List<ExtractionRule> load(Path file) throws IOException {
+        return parse(new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+    }
+
+    // Throws IllegalArgumentException naming the offending line
+    public static List<ExtractionRule> parse(String text) {
+        List<ExtractionRule> rules = new ArrayList<>();
+        String[] lines = text.split("\r?\n");
+        for (int n = 0; n < lines.length; n++) {
+            String line = lines[n].trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            try {
+                rules.add(parseLine(line));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Rule line " + (n + 1) + ": " + e.getMessage());
+            }
+        }
+        return rules;
+    }
+
+    private static ExtractionRule parseLine(String line) {
+        String[] steps = line.split("\\s+\\|\\s*");
+        String[] head = steps[0].split("\\s+", 4);
+        if (head.length < 4) {
+            throw new IllegalArgumentException("expected 'name type source query'");
+        }
+        String name = head[0];
+        String typeName = head[1];
+        boolean all = typeName.endsWith("*");
+        ExtractionRule.Type type = parseType(all ? typeName.substring(0, typeName.length() - 1) : typeName);
+        String query = head[3];
+
+        ExtractionRule.Builder rule;
+        switch (head[2].toLowerCase()) {
+            case "css":
+                rule = ExtractionRule.css(name, query);
+                break;
+            case "meta":
+            case "og":
+                rule = ExtractionRule.meta(name, query);
+                break;
+            case "jsonld":
+            case "json-ld": {
+                int colon = query.indexOf(':');
+                rule = colon > 0
+                    ? ExtractionRule.jsonLd(name, query.substring(colon + 1)).ofType(query.substring(0, colon))
+                    : ExtractionRule.jsonLd(name, query);
+                break;
+            }
+            default:
+                throw new IllegalArgumentException("unknown source '" + head[2] + "' (css, meta or jsonld)");
+        }
+        rule.as(type);
+        if (all) {
+            rule.all();
+        }
+
+        for (int i = 1; i < steps.length; i++) {
+            String[] step = steps[i].trim().split("\\s+", 2);
+            switch (step[0].toLowerCase()) {
+                case "text": rule.text(); break;
+                case "owntext": rule.ownText(); break;
+                case "html": rule.html(); break;
+                case "attr":
+                    rule.attr(argument(step));
+                    break;
+                case "regex":
+                    rule.regex(argument(step));
+                    break;
+                default:
+                    throw new IllegalArgumentException("unknown step '" + step[0] + "'");
+            }
+        }
+        return rule.build();
+    }
+
+    private static ExtractionRule.Type parseType(String name) {
+        for (ExtractionRule.Type type : ExtractionRule.Type.values()) {
+            if (type.name().equalsIgnoreCase(name)) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("unknown type '" + name + "' (text, integer, decimal or boolean)");
+    }
+
+    private static String argument(String[] step) {
+        if (step.length < 2 || step[1].isEmpty()) {
+            throw new IllegalArgumentException("'" + step[0] + "' needs an argument");
+        }
+        return step[1];
+    }
+}
@@ -0,0 +1,177 @@
+package com.webcrawler.server;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+
+import com.webcrawler.CrawlLogger;
+import com.webcrawler.Crawler;
+import com.webcrawler.CrawlerConfig;
+import com.webcrawler.CrawlerStats;
+import com.webcrawler.HostPoliteness;
+import com.webcrawler.PageFetcher;
+import com.webcrawler.RecordEncoder;
+import com.webcrawler.WebCrawler;
+import com.webcrawler.enhanced.EnhancedWebCrawler;
+
+/**
+ * One crawl submitted to the {@link CrawlServer}. The crawler is only built when a job
+ * slot picks the job up, so queued jobs hold no files or threads; it then runs on that
+ * slot's thread until it finishes or is cancelled, writing to its own output directory.
+ */
+public class CrawlJob {
+    private static final CrawlLogger LOG = CrawlLogger.get();
+
+    public enum Mode { BASIC, ENHANCED }
+
+    public enum State { QUEUED, RUNNING, PAUSED, FINISHED, CANCELLED, FAILED }
+
+    private final String id;
+    private final String seedUrl;
+    private final Mode mode;
+    private final CrawlerConfig config;
+    private final Path outputDir;
+    private final long submittedAt = System.currentTimeMillis();
+
+    private volatile State state = State.QUEUED;
+    private volatile Crawler crawler;
+    private volatile long startedAt;
+    private volatile long finishedAt;
+    private volatile String error;
+    private volatile boolean cancelRequested;
+
+    CrawlJob(String id, String seedUrl, Mode mode, CrawlerConfig config, Path outputDir) {
+        this.id = id;
+        this.seedUrl = seedUrl;
+        this.mode = mode;
+        this.config = config;
+        this.outputDir = outputDir;
+    }
+
+    // Runs on a job slot thread; returns once the crawl has drained and written its results
+    void run(PageFetcher sharedFetcher, HostPoliteness politeness) {
+        synchronized (this) {
+            if (state != State.QUEUED) {
+                return; // cancelled while waiting for a slot
+            }
+            startedAt = System.currentTimeMillis();
+            try {
+                crawler = mode == Mode.ENHANCED
+                    ? new EnhancedWebCrawler(config, outputDir, sharedFetcher, politeness)
+                    : new WebCrawler(config, outputDir, sharedFetcher, politeness);
+            } catch (RuntimeException e) {
+                fail(e);
+                return;
+            }
+            state = State.RUNNING;
+        }
+        LOG.info("▶️ Job %s started: %s -> %s", id, seedUrl, outputDir);
+        try {
+            crawler.startCrawling(seedUrl);
+            // Not crawler.isCancelled(): shutting the engine down cancels it even when the crawl completed
+            state = cancelRequested ? State.CANCELLED : State.FINISHED;
+        } catch (InterruptedException e) {
+            state = State.CANCELLED;
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            fail(e);
+            return;
+        } finally {
+            finishedAt = System.currentTimeMillis();
+        }
+        LOG.info("⏹️ Job %s %s: %d pages", id, state.name().toLowerCase(), crawler.getStats().getPagesCrawled());
+    }
+
+    private void fail(RuntimeException e) {
+        error = e.getMessage() != null ? e.getMessage() : e.toString();
+        finishedAt = System.currentTimeMillis();
+        state = State.FAILED;
+        LOG.warn("❌ Job %s failed: %s", id, error);
+    }
+
+    // False if the job isn't running
+    public synchronized boolean pause() {
+        if (state != State.RUNNING) {
+            return false;
+        }
+        crawler.pause();
+        return true;
+    }
+
+    public synchronized boolean resume() {
+        if (state != State.RUNNING) {
+            return false;
+        }
+        crawler.resume();
+        return true;
+    }
+
+    // False if the job has already ended
+    public synchronized boolean cancel() {
+        if (state == State.QUEUED) {
+            state = State.CANCELLED;
+            finishedAt = System.currentTimeMillis();
+            return true;
+        }
+        if (state != State.RUNNING) {
+            return false;
+        }
+        cancelRequested = true;
+        crawler.cancel(); // run() records CANCELLED once the pipeline has drained
+        return true;
+    }
+
+    public String getId() { return id; }
+    public String getSeedUrl() { return seedUrl; }
+    public Mode getMode() { return mode; }
+    public Path getOutputDir() { return outputDir; }
+
+    public State getState() {
+        State current = state;
+        Crawler running = crawler;
+        return current == State.RUNNING && running.isPaused() ? State.PAUSED : current;
+    }
+
+    public boolean isDone() {
+        State current = state;
+        return current == State.FINISHED || current == State.CANCELLED || current == State.FAILED;
+    }
+
+    void writeJson(RecordEncoder out) throws IOException {
+        Crawler running = isDone() ? null : crawler;
+        CrawlerStats stats = crawler != null ? crawler.getStats() : null;
+        out.raw("{\"id\": ").jsonString(id)
+            .raw(", \"seed\": ").jsonString(seedUrl)
+            .raw(", \"mode\": ").jsonString(mode.name().toLowerCase())
+            .raw(", \"state\": ").jsonString(getState().name().toLowerCase())
+            .raw(", \"outputDir\": ").jsonString(outputDir.toString())
+            .raw(", \"maxPages\": ").number(config.getMaxPages())
+            .raw(", \"maxDepth\": ").number(config.getMaxDepth())
+            .raw(", \"threads\": ").number(running != null ? running.getWorkerCount() : config.getMaxThreads())
+            .raw(", \"delay\": ").number(running != null ? running.getDelayBetweenRequests() : config.getDelayBetweenRequests())
+            .raw(", \"pagesCrawled\": ").number(stats != null ? stats.getPagesCrawled() : 0)
+            .raw(", \"pagesQueued\": ").number(stats != null ? stats.getPagesQueued() : 0)
+            .raw(", \"failedPages\": ").number(stats != null ? stats.getFailedPages() : 0);
+        out.raw(", \"submittedAt\": ");
+        instant(out, submittedAt);
+        out.raw(", \"startedAt\": ");
+        instant(out, startedAt);
+        out.raw(", \"finishedAt\": ");
+        instant(out, finishedAt);
+        out.raw(", \"error\": ");
+        if (error != null) {
+            out.jsonString(error);
+        } else {
+            out.raw("null");
+        }
+        out.raw('}');
+    }
+
+    private static void instant(RecordEncoder out, long millis) throws IOException {
+        if (millis == 0) {
+            out.raw("null");
+        } else {
+            out.jsonString(Instant.ofEpochMilli(millis).toString());
+        }
+    }
+}
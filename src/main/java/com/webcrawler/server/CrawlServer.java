@@ -0,0 +1,297 @@
+package com.webcrawler.server;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.webcrawler.CrawlLogger;
+import com.webcrawler.CrawlerConfig;
+import com.webcrawler.HostPoliteness;
+import com.webcrawler.PageFetcher;
+import com.webcrawler.RecordEncoder;
+import com.webcrawler.engine.LinkScope;
+
+/**
+ * Long-running crawl daemon with a local HTTP/JSON control API. Every job shares one
+ * {@link PageFetcher} (DNS cache, circuit breakers, latency history, hedge pool) and one
+ * {@link HostPoliteness} gate, so two jobs on the same host are spaced out together, and
+ * each job writes to its own directory (pages, data, event log) under {@code <root>/jobs/<id>}.
+ * A job's config is the server's config with only its scope, threads and delay overridden.
+ *
+ * <pre>
+ *   POST /jobs                 {"seed": "https://example.com", "mode": "enhanced",
+ *                               "maxPages": 100, "maxDepth": 3, "threads": 4, "delay": 1000}
+ *   GET  /jobs                 list all jobs
+ *   GET  /jobs/{id}            one job
+ *   POST /jobs/{id}/pause      also: resume, cancel
+ * </pre>
+ */
+public class CrawlServer implements Closeable {
+    private static final CrawlLogger LOG = CrawlLogger.get();
+
+    private static final int MAX_BODY = 64 * 1024;
+
+    private final CrawlerConfig config;
+    private final Path rootDir;
+    private final PageFetcher fetcher;
+    private final HostPoliteness politeness = new HostPoliteness();
+    private final ExecutorService jobSlots;
+    private final HttpServer http;
+    private final ConcurrentSkipListMap<String, CrawlJob> jobs = new ConcurrentSkipListMap<>();
+    private final AtomicInteger nextId;
+
+    // Binds to the loopback interface only: the API can start crawls and has no authentication
+    public CrawlServer(CrawlerConfig config, Path rootDir, int port, int maxConcurrentJobs) throws IOException {
+        this.config = config;
+        this.rootDir = rootDir;
+        Files.createDirectories(rootDir.resolve("jobs"));
+        this.nextId = new AtomicInteger(highestJobId(rootDir.resolve("jobs")) + 1);
+        this.fetcher = new PageFetcher(config, rootDir);
+
+        AtomicInteger slotIds = new AtomicInteger(0);
+        this.jobSlots = Executors.newFixedThreadPool(maxConcurrentJobs,
+            r -> new Thread(r, "crawl-job-" + slotIds.incrementAndGet()));
+
+        this.http = HttpServer.create(new InetSocketAddress(java.net.InetAddress.getLoopbackAddress(), port), 0);
+        this.http.createContext("/jobs", this::handle);
+        this.http.setExecutor(Executors.newFixedThreadPool(2, r -> {
+            Thread thread = new Thread(r, "crawl-api");
+            thread.setDaemon(true);
+            return thread;
+        }));
+    }
+
+    public void start() {
+        http.start();
+        LOG.info("🛰️ Crawl server listening on http://%s:%d/jobs (jobs under %s)",
+            http.getAddress().getHostString(), http.getAddress().getPort(), rootDir.resolve("jobs"));
+    }
+
+    public int getPort() {
+        return http.getAddress().getPort();
+    }
+
+    public CrawlJob submit(String seedUrl, CrawlJob.Mode mode, CrawlerConfig jobConfig) {
+        String id = String.format("%04d", nextId.getAndIncrement());
+        CrawlJob job = new CrawlJob(id, seedUrl, mode, jobConfig, rootDir.resolve("jobs").resolve(id));
+        jobs.put(id, job);
+        jobSlots.execute(() -> job.run(fetcher, politeness));
+        LOG.info("📥 Job %s queued: %s (%s)", id, seedUrl, mode.name().toLowerCase());
+        return job;
+    }
+
+    public CrawlJob getJob(String id) {
+        return jobs.get(id);
+    }
+
+    // Stops accepting requests, cancels every job and waits for them to drain and write results
+    @Override
+    public void close() {
+        http.stop(0);
+        for (CrawlJob job : jobs.values()) {
+            job.cancel();
+        }
+        jobSlots.shutdown();
+        try {
+            if (!jobSlots.awaitTermination(2, TimeUnit.MINUTES)) {
+                LOG.warn("⚠️ Crawl jobs did not drain in time");
+                jobSlots.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            jobSlots.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        fetcher.shutdown();
+        LOG.flush();
+    }
+
+    // Routes /jobs, /jobs/{id} and /jobs/{id}/{action}
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            String[] parts = exchange.getRequestURI().getPath().replaceAll("/+$", "").split("/");
+            String method = exchange.getRequestMethod();
+            if (parts.length == 2) {
+                if (method.equals("GET")) {
+                    listJobs(exchange);
+                } else if (method.equals("POST")) {
+                    submitJob(exchange);
+                } else {
+                    sendError(exchange, 405, "Use GET or POST on /jobs");
+                }
+                return;
+            }
+
+            CrawlJob job = parts.length <= 4 ? jobs.get(parts[2]) : null;
+            if (job == null) {
+                sendError(exchange, 404, "No such job");
+            } else if (parts.length == 3) {
+                if (method.equals("GET")) {
+                    sendJob(exchange, 200, job);
+                } else {
+                    sendError(exchange, 405, "Use GET on /jobs/{id}");
+                }
+            } else if (!method.equals("POST")) {
+                sendError(exchange, 405, "Use POST for job actions");
+            } else {
+                control(exchange, job, parts[3]);
+            }
+        } catch (RuntimeException e) {
+            LOG.warn("⚠️ Crawl API error: " + e.getMessage());
+            sendError(exchange, 500, String.valueOf(e.getMessage()));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void control(HttpExchange exchange, CrawlJob job, String action) throws IOException {
+        boolean applied;
+        switch (action) {
+            case "pause": applied = job.pause(); break;
+            case "resume": applied = job.resume(); break;
+            case "cancel": applied = job.cancel(); break;
+            default:
+                sendError(exchange, 404, "Unknown action '" + action + "'");
+                return;
+        }
+        if (!applied) {
+            sendError(exchange, 409, "Job " + job.getId() + " is " + job.getState().name().toLowerCase());
+            return;
+        }
+        LOG.info("🎛️ Job %s: %s", job.getId(), action);
+        sendJob(exchange, 200, job);
+    }
+
+    private void submitJob(HttpExchange exchange) throws IOException {
+        Map<String, String> fields;
+        CrawlJob.Mode mode;
+        CrawlerConfig jobConfig;
+        String seed;
+        try {
+            fields = JsonBody.parseObject(readBody(exchange));
+            seed = fields.get("seed");
+            String domain = seed != null ? LinkScope.extractDomain(seed) : null;
+            if (domain == null || domain.isEmpty() || !seed.matches("(?i)https?://.*")) {
+                throw new IllegalArgumentException("'seed' must be an http(s) URL");
+            }
+            mode = parseMode(fields.getOrDefault("mode", "basic"));
+            // Everything else (storage, traps, index, event log, ...) follows the server's config
+            jobConfig = config.toBuilder()
+                .maxPages(intField(fields, "maxPages", config.getMaxPages()))
+                .maxDepth(intField(fields, "maxDepth", config.getMaxDepth()))
+                .maxThreads(intField(fields, "threads", config.getMaxThreads()))
+                .delayBetweenRequests(intField(fields, "delay", (int) config.getDelayBetweenRequests()))
+                .build();
+        } catch (IllegalArgumentException e) {
+            sendError(exchange, 400, e.getMessage());
+            return;
+        }
+        sendJob(exchange, 201, submit(seed, mode, jobConfig));
+    }
+
+    private static CrawlJob.Mode parseMode(String value) {
+        for (CrawlJob.Mode mode : CrawlJob.Mode.values()) {
+            if (mode.name().equalsIgnoreCase(value)) {
+                return mode;
+            }
+        }
+        throw new IllegalArgumentException("'mode' must be basic or enhanced");
+    }
+
+    private static int intField(Map<String, String> fields, String name, int defaultValue) {
+        String value = fields.get(name);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            int parsed = Integer.parseInt(value);
+            if (parsed < 0) {
+                throw new IllegalArgumentException("'" + name + "' must not be negative");
+            }
+            return parsed;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("'" + name + "' must be an integer");
+        }
+    }
+
+    private void listJobs(HttpExchange exchange) throws IOException {
+        StringWriter body = new StringWriter();
+        RecordEncoder out = new RecordEncoder(body);
+        out.raw("{\"jobs\": [");
+        boolean first = true;
+        for (CrawlJob job : jobs.values()) {
+            out.raw(first ? "\n  " : ",\n  ");
+            job.writeJson(out);
+            first = false;
+        }
+        out.raw(first ? "]}\n" : "\n]}\n");
+        send(exchange, 200, body.toString());
+    }
+
+    private void sendJob(HttpExchange exchange, int status, CrawlJob job) throws IOException {
+        StringWriter body = new StringWriter();
+        job.writeJson(new RecordEncoder(body));
+        body.write('\n');
+        send(exchange, status, body.toString());
+    }
+
+    private void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        StringWriter body = new StringWriter();
+        new RecordEncoder(body).raw("{\"error\": ").jsonString(message).raw("}\n");
+        send(exchange, status, body.toString());
+    }
+
+    private static void send(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static String readBody(HttpExchange exchange) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        try (InputStream in = exchange.getRequestBody()) {
+            int n;
+            while ((n = in.read(buffer)) > 0) {
+                body.write(buffer, 0, n);
+                if (body.size() > MAX_BODY) {
+                    throw new IllegalArgumentException("Request body over " + MAX_BODY + " bytes");
+                }
+            }
+        }
+        return body.toString(StandardCharsets.UTF_8);
+    }
+
+    // Job ids keep counting up across restarts so a new job never reuses an old directory
+    private static int highestJobId(Path jobsDir) throws IOException {
+        int highest = 0;
+        try (DirectoryStream<Path> dirs = Files.newDirectoryStream(jobsDir)) {
+            for (Path dir : dirs) {
+                try {
+                    highest = Math.max(highest, Integer.parseInt(dir.getFileName().toString()));
+                } catch (NumberFormatException e) {
+                    // not a job directory
+                }
+            }
+        }
+        return highest;
+    }
+}
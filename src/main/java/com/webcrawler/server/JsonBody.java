@@ -0,0 +1,30 @@
+package com.webcrawler.server;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.webcrawler.JsonReader;
+
+// The flat JSON objects the control API accepts: string, number, boolean and null values only
+final class JsonBody {
+    private JsonBody() {
+    }
+
+    // Values come back as strings (null for JSON null); throws IllegalArgumentException on malformed input
+    static Map<String, String> parseObject(String text) {
+        Object parsed = JsonReader.parse(text);
+        if (!(parsed instanceof Map)) {
+            throw new IllegalArgumentException("Expected a JSON object");
+        }
+        Map<String, String> fields = new LinkedHashMap<>();
+        for (Map.Entry<?, ?> field : ((Map<?, ?>) parsed).entrySet()) {
+            Object value = field.getValue();
+            if (value instanceof Map || value instanceof List) {
+                throw new IllegalArgumentException("'" + field.getKey() + "': nested values are not supported");
+            }
+            fields.put((String) field.getKey(), value == null ? null : value.toString());
+        }
+        return fields;
+    }
+}
@@ -0,0 +1,35 @@
+package com.webcrawler.server;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import com.webcrawler.CrawlerConfig;
+
+public class ServerMain {
+    public static void main(String[] args) {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8090;
+        Path rootDir = Paths.get(args.length > 1 ? args[1] : "crawler_output");
+
+        // Settings every job inherits; a job request overrides only pages, depth, threads and delay
+        CrawlerConfig config = new CrawlerConfig.Builder()
+            .maxThreads(4)
+            .maxPages(100)
+            .maxDepth(3)
+            .delayBetweenRequests(1000) // per host, across all jobs
+            .connectTimeout(15000) // ceiling for the adaptive per-host deadlines
+            .pageLayout(CrawlerConfig.PageLayout.HASHED)
+            .build();
+
+        try {
+            CrawlServer server = new CrawlServer(config, rootDir, port, 4);
+            Runtime.getRuntime().addShutdownHook(new Thread(server::close, "crawl-server-shutdown"));
+            server.start();
+            System.out.println("🛰️  Crawl server ready. Submit a job with:");
+            System.out.println("   curl -X POST localhost:" + server.getPort()
+                + "/jobs -d '{\"seed\": \"https://example.com\", \"mode\": \"enhanced\"}'");
+        } catch (Exception e) {
+            System.err.println("❌ Crawl server failed to start: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+}
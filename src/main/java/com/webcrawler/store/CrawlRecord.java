@@ -0,0 +1,53 @@
+package com.webcrawler.store;
+
+// One page manifest line: where a URL's body is stored and what it contained at fetch time
+public class CrawlRecord {
+    private final String urlHash;
+    private final String url;
+    private final String path;
+    private final long bytes;
+    private final String sha256;
+    private final long fetchedAt;
+    private final int depth;
+    private final long manifestOffset;
+
+    CrawlRecord(String urlHash, String url, String path, long bytes, String sha256,
+                long fetchedAt, int depth, long manifestOffset) {
+        this.urlHash = urlHash;
+        this.url = url;
+        this.path = path;
+        this.bytes = bytes;
+        this.sha256 = sha256;
+        this.fetchedAt = fetchedAt;
+        this.depth = depth;
+        this.manifestOffset = manifestOffset;
+    }
+
+    public String getUrlHash() { return urlHash; }
+    public String getUrl() { return url; }
+    // Relative to the crawl output directory, '/'-separated
+    public String getPath() { return path; }
+    public long getBytes() { return bytes; }
+    public String getSha256() { return sha256; }
+    public long getFetchedAt() { return fetchedAt; }
+    // Crawl depth, or -1 for manifests written before depth was recorded
+    public int getDepth() { return depth; }
+    long getManifestOffset() { return manifestOffset; }
+
+    // Text files mirror the page path under content/, always as .txt (gzip is detected on read)
+    String getTextPath() {
+        String text = path.startsWith("pages/") ? "content/" + path.substring("pages/".length()) : path;
+        if (text.endsWith(".gz")) {
+            text = text.substring(0, text.length() - 3);
+        }
+        if (text.endsWith(".html")) {
+            text = text.substring(0, text.length() - ".html".length());
+        }
+        return text + ".txt";
+    }
+
+    @Override
+    public String toString() {
+        return url + " -> " + path + " (" + bytes + " bytes)";
+    }
+}
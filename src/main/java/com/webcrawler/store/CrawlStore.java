@@ -0,0 +1,473 @@
+package com.webcrawler.store;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+
+import com.webcrawler.CompressedFiles;
+import com.webcrawler.CrawlLogger;
+import com.webcrawler.PageStore;
+import com.webcrawler.enhanced.PageData;
+import com.webcrawler.enhanced.PageDataExtractor;
+import com.webcrawler.rules.CompiledRules;
+
+/**
+ * Random-access reader over a crawl output directory. The append-only page manifest is
+ * indexed into data/page_manifest.idx: a header followed by fixed 24-byte entries
+ * (url hash high, url hash low, manifest offset) sorted by hash, one per URL, pointing at
+ * the URL's latest manifest line. The index is memory mapped, so a lookup is a binary
+ * search over the page cache plus one positional read of a single manifest line; neither
+ * file is ever loaded whole. The index is rebuilt by one streaming pass whenever the
+ * manifest has grown since it was written. Lookups are safe from any number of threads.
+ * <p>
+ * In the FLAT layout distinct URLs can sanitize to the same file name, so a later page may
+ * have overwritten an earlier one's files. Bodies not named by their URL hash are checked
+ * against the manifest's length and SHA-256 on read; a mismatch surfaces as
+ * {@link StaleRecordException}, and the URL-keyed getters treat it as not stored.
+ */
+public class CrawlStore implements Closeable {
+    private static final CrawlLogger LOG = CrawlLogger.get();
+
+    public static final String INDEX_FILE = "page_manifest.idx";
+
+    private static final int MAGIC = 0x43534958; // "CSIX"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 32;
+    private static final int ENTRY_BYTES = 24;
+
+    // Visits manifest records; return false to stop early
+    @FunctionalInterface
+    public interface RecordConsumer {
+        boolean accept(CrawlRecord record) throws IOException;
+    }
+
+    private final Path outputDir;
+    private final FileChannel manifest;
+    private final long manifestLength;
+    private final MappedByteBuffer index;
+    private final int count;
+
+    private CrawlStore(Path outputDir, FileChannel manifest, long manifestLength, MappedByteBuffer index) {
+        this.outputDir = outputDir;
+        this.manifest = manifest;
+        this.manifestLength = manifestLength;
+        this.index = index;
+        this.count = (int) index.getLong(16);
+    }
+
+    public static CrawlStore open(Path outputDir) throws IOException {
+        Path manifestFile = outputDir.resolve("data").resolve(PageStore.MANIFEST_FILE);
+        if (!Files.exists(manifestFile)) {
+            throw new IOException("No page manifest in " + outputDir);
+        }
+        Path indexFile = manifestFile.resolveSibling(INDEX_FILE);
+        FileChannel manifest = FileChannel.open(manifestFile, StandardOpenOption.READ);
+        try {
+            MappedByteBuffer index = mapIndex(indexFile, manifest.size());
+            if (index == null) {
+                buildIndex(manifestFile, indexFile);
+                index = mapIndex(indexFile, -1);
+            }
+            return new CrawlStore(outputDir, manifest, index.getLong(8), index);
+        } catch (IOException | RuntimeException e) {
+            manifest.close();
+            throw e;
+        }
+    }
+
+    // Number of distinct URLs in the store
+    public int size() {
+        return count;
+    }
+
+    public Path getOutputDir() {
+        return outputDir;
+    }
+
+    // Latest record for the URL, or null if it was never stored
+    public CrawlRecord find(String url) throws IOException {
+        String hash = PageStore.urlHash(url);
+        long hi = Long.parseUnsignedLong(hash.substring(0, 16), 16);
+        long lo = Long.parseUnsignedLong(hash.substring(16, 32), 16);
+        long offset = lookup(hi, lo);
+        if (offset < 0) {
+            return null;
+        }
+        CrawlRecord record = parse(readLine(offset), offset);
+        return record != null && record.getUrl().equals(url) ? record : null;
+    }
+
+    public boolean contains(String url) throws IOException {
+        return find(url) != null;
+    }
+
+    // Raw response body exactly as fetched, or null if the URL isn't stored (or was overwritten)
+    public byte[] getPage(String url) throws IOException {
+        CrawlRecord record = find(url);
+        try {
+            return record == null ? null : readPage(record);
+        } catch (StaleRecordException e) {
+            LOG.debug(e.getMessage());
+            return null;
+        }
+    }
+
+    public String getText(String url) throws IOException {
+        CrawlRecord record = find(url);
+        try {
+            return record == null ? null : readText(record);
+        } catch (StaleRecordException e) {
+            LOG.debug(e.getMessage());
+            return null;
+        }
+    }
+
+    public PageData getPageData(String url) throws IOException {
+        CrawlRecord record = find(url);
+        try {
+            return record == null ? null : readPageData(record);
+        } catch (StaleRecordException e) {
+            LOG.debug(e.getMessage());
+            return null;
+        }
+    }
+
+    // Throws StaleRecordException if the file now holds another URL's body
+    public byte[] readPage(CrawlRecord record) throws IOException {
+        byte[] body = CompressedFiles.readAllBytes(outputDir.resolve(record.getPath()));
+        if (!isHashNamed(record)
+                && (body.length != record.getBytes() || !PageStore.bodyDigest(body).equals(record.getSha256()))) {
+            throw new StaleRecordException(record);
+        }
+        return body;
+    }
+
+    // The text file shares the body's name, so the body's digest vouches for it too
+    public String readText(CrawlRecord record) throws IOException {
+        if (!isHashNamed(record)) {
+            readPage(record);
+        }
+        return CompressedFiles.readString(outputDir.resolve(record.getTextPath()));
+    }
+
+    // Re-extracts the PageData fields from the stored body; sitemap lastmod isn't stored
+    public PageData readPageData(CrawlRecord record) throws IOException {
+        return readPageData(record, CompiledRules.NONE);
+    }
+
+    // Same, also applying extraction rules, e.g. ones written after the crawl
+    public PageData readPageData(CrawlRecord record, CompiledRules rules) throws IOException {
+        Document document = Jsoup.parse(new ByteArrayInputStream(readPage(record)), null, record.getUrl());
+        PageData pageData = PageDataExtractor.extractPageData(record.getUrl(), document, rules);
+        pageData.setCrawlTime(record.getFetchedAt());
+        pageData.setDepth(Math.max(record.getDepth(), 0));
+        return pageData;
+    }
+
+    // Streams the manifest in storage order, skipping lines superseded by a later fetch
+    public int forEachRecord(RecordConsumer consumer) throws IOException {
+        int visited = 0;
+        try (InputStream in = Files.newInputStream(outputDir.resolve("data").resolve(PageStore.MANIFEST_FILE))) {
+            LineReader lines = new LineReader(in, manifestLength);
+            byte[] line;
+            while ((line = lines.next()) != null) {
+                CrawlRecord record = parse(line, lines.lineStart);
+                if (record == null) {
+                    continue;
+                }
+                long hi = Long.parseUnsignedLong(record.getUrlHash().substring(0, 16), 16);
+                long lo = Long.parseUnsignedLong(record.getUrlHash().substring(16, 32), 16);
+                if (lookup(hi, lo) != lines.lineStart) {
+                    continue;
+                }
+                visited++;
+                if (!consumer.accept(record)) {
+                    break;
+                }
+            }
+        }
+        return visited;
+    }
+
+    @Override
+    public void close() throws IOException {
+        manifest.close();
+    }
+
+    // HASHED layout files are named by the URL hash, so no other URL can have written them
+    private static boolean isHashNamed(CrawlRecord record) {
+        String path = record.getPath();
+        return path.startsWith(record.getUrlHash(), path.lastIndexOf('/') + 1);
+    }
+
+    // Binary search over the mapped entries; returns the manifest offset or -1
+    private long lookup(long hi, long lo) {
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int at = HEADER_BYTES + mid * ENTRY_BYTES;
+            int cmp = Long.compareUnsigned(index.getLong(at), hi);
+            if (cmp == 0) {
+                cmp = Long.compareUnsigned(index.getLong(at + 8), lo);
+            }
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return index.getLong(at + 16);
+            }
+        }
+        return -1;
+    }
+
+    // Positional reads don't move the channel, so concurrent lookups need no lock
+    private byte[] readLine(long offset) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(512);
+        ByteArrayOutputStream line = new ByteArrayOutputStream(512);
+        long position = offset;
+        while (position < manifestLength) {
+            buffer.clear();
+            int read = manifest.read(buffer, position);
+            if (read <= 0) {
+                break;
+            }
+            byte[] chunk = buffer.array();
+            for (int i = 0; i < read; i++) {
+                if (chunk[i] == '\n') {
+                    line.write(chunk, 0, i);
+                    return line.toByteArray();
+                }
+            }
+            line.write(chunk, 0, read);
+            position += read;
+        }
+        return line.toByteArray();
+    }
+
+    private static CrawlRecord parse(byte[] line, long offset) {
+        // URLs never contain tabs; six columns is the layout from before depth was recorded
+        String[] fields = new String(line, StandardCharsets.UTF_8).split("\t");
+        if (fields.length < 6 || fields.length > 7 || fields[0].length() != 32 || fields[0].equals("url_hash")) {
+            return null;
+        }
+        try {
+            int depth = fields.length == 7 ? Integer.parseInt(fields[5]) : -1;
+            return new CrawlRecord(fields[0], fields[fields.length - 1], fields[1], Long.parseLong(fields[2]),
+                fields[3], Long.parseLong(fields[4]), depth, offset);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    // Maps the index if it covers exactly the current manifest (or unconditionally when length < 0)
+    private static MappedByteBuffer mapIndex(Path indexFile, long manifestLength) throws IOException {
+        if (!Files.exists(indexFile)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(indexFile, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES) {
+                return null;
+            }
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Manifest index too large to map: " + indexFile);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION
+                    || size != HEADER_BYTES + buffer.getLong(16) * ENTRY_BYTES) {
+                return null;
+            }
+            if (manifestLength >= 0 && buffer.getLong(8) != manifestLength) {
+                return null; // manifest has grown (or been replaced) since the index was built
+            }
+            return buffer;
+        }
+    }
+
+    // One streaming pass over the manifest, then sort by hash keeping each URL's last line
+    private static void buildIndex(Path manifestFile, Path indexFile) throws IOException {
+        long start = System.currentTimeMillis();
+        long[] entries = new long[3 * 1024];
+        int n = 0;
+        long indexedLength;
+        try (FileChannel channel = FileChannel.open(manifestFile, StandardOpenOption.READ);
+             InputStream in = Files.newInputStream(manifestFile)) {
+            LineReader lines = new LineReader(in, channel.size());
+            byte[] line;
+            while ((line = lines.next()) != null) {
+                if (line.length < 33 || line[32] != '\t') {
+                    continue; // header or damaged line
+                }
+                long hi;
+                long lo;
+                try {
+                    String hash = new String(line, 0, 32, StandardCharsets.US_ASCII);
+                    hi = Long.parseUnsignedLong(hash.substring(0, 16), 16);
+                    lo = Long.parseUnsignedLong(hash.substring(16), 16);
+                } catch (NumberFormatException e) {
+                    continue;
+                }
+                if ((n + 1) * 3 > entries.length) {
+                    long[] grown = new long[entries.length * 2];
+                    System.arraycopy(entries, 0, grown, 0, n * 3);
+                    entries = grown;
+                }
+                entries[n * 3] = hi;
+                entries[n * 3 + 1] = lo;
+                entries[n * 3 + 2] = lines.lineStart;
+                n++;
+            }
+            indexedLength = lines.consumed;
+        }
+
+        sort(entries, 0, n - 1);
+        // Equal hashes are ordered by offset, so the last of each run is the newest line
+        int unique = 0;
+        for (int i = 0; i < n; i++) {
+            boolean superseded = i + 1 < n && entries[i * 3] == entries[(i + 1) * 3]
+                && entries[i * 3 + 1] == entries[(i + 1) * 3 + 1];
+            if (!superseded) {
+                System.arraycopy(entries, i * 3, entries, unique * 3, 3);
+                unique++;
+            }
+        }
+        if ((long) HEADER_BYTES + (long) unique * ENTRY_BYTES > Integer.MAX_VALUE) {
+            throw new IOException("Too many pages to index: " + unique);
+        }
+
+        Path tmp = indexFile.resolveSibling(indexFile.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+            buffer.putInt(MAGIC).putInt(VERSION).putLong(indexedLength).putLong(unique).putLong(0);
+            for (int i = 0; i < unique; i++) {
+                if (buffer.remaining() < ENTRY_BYTES) {
+                    drain(out, buffer);
+                }
+                buffer.putLong(entries[i * 3]).putLong(entries[i * 3 + 1]).putLong(entries[i * 3 + 2]);
+            }
+            drain(out, buffer);
+            out.force(false);
+        }
+        Files.move(tmp, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        LOG.info("🗂️ Indexed %d pages (%d manifest lines) in %dms",
+            unique, n, System.currentTimeMillis() - start);
+    }
+
+    private static void drain(FileChannel out, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    // In-place quicksort of (hi, lo, offset) triples, hashes compared unsigned
+    private static void sort(long[] a, int low, int high) {
+        while (high - low > 16) {
+            int mid = (low + high) >>> 1;
+            long pHi = a[mid * 3];
+            long pLo = a[mid * 3 + 1];
+            long pOff = a[mid * 3 + 2];
+            int i = low;
+            int j = high;
+            while (i <= j) {
+                while (compare(a, i, pHi, pLo, pOff) < 0) i++;
+                while (compare(a, j, pHi, pLo, pOff) > 0) j--;
+                if (i <= j) {
+                    swap(a, i++, j--);
+                }
+            }
+            // Recurse into the smaller side to bound stack depth
+            if (j - low < high - i) {
+                sort(a, low, j);
+                low = i;
+            } else {
+                sort(a, i, high);
+                high = j;
+            }
+        }
+        for (int i = low + 1; i <= high; i++) {
+            for (int j = i; j > low && compare(a, j, a[(j - 1) * 3], a[(j - 1) * 3 + 1], a[(j - 1) * 3 + 2]) < 0; j--) {
+                swap(a, j, j - 1);
+            }
+        }
+    }
+
+    private static int compare(long[] a, int i, long hi, long lo, long offset) {
+        int cmp = Long.compareUnsigned(a[i * 3], hi);
+        if (cmp == 0) {
+            cmp = Long.compareUnsigned(a[i * 3 + 1], lo);
+        }
+        return cmp != 0 ? cmp : Long.compare(a[i * 3 + 2], offset);
+    }
+
+    private static void swap(long[] a, int i, int j) {
+        for (int k = 0; k < 3; k++) {
+            long t = a[i * 3 + k];
+            a[i * 3 + k] = a[j * 3 + k];
+            a[j * 3 + k] = t;
+        }
+    }
+
+    // Newline-delimited lines with their byte offsets; a trailing partial line is ignored
+    private static final class LineReader {
+        private final InputStream in;
+        private final long limit;
+        private final byte[] buffer = new byte[64 * 1024];
+        private final ByteArrayOutputStream line = new ByteArrayOutputStream(256);
+        private int pos;
+        private int end;
+        private long position;
+        long lineStart;
+        long consumed;
+
+        LineReader(InputStream in, long limit) {
+            this.in = in;
+            this.limit = limit;
+        }
+
+        byte[] next() throws IOException {
+            line.reset();
+            lineStart = position;
+            while (position < limit) {
+                if (pos == end) {
+                    end = in.read(buffer, 0, (int) Math.min(buffer.length, limit - position));
+                    pos = 0;
+                    if (end <= 0) {
+                        end = 0;
+                        return null;
+                    }
+                }
+                int start = pos;
+                while (pos < end && buffer[pos] != '\n') {
+                    pos++;
+                }
+                line.write(buffer, start, pos - start);
+                position += pos - start;
+                if (pos < end) {
+                    pos++;
+                    position++;
+                    consumed = position;
+                    return line.toByteArray();
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.webcrawler.store;
+
+import java.io.IOException;
+
+// A manifest record whose stored body no longer matches it: another URL's page was written over it
+public class StaleRecordException extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    private final CrawlRecord record;
+
+    public StaleRecordException(CrawlRecord record) {
+        super("Stored body for " + record.getUrl() + " was overwritten by another page (" + record.getPath() + ")");
+        this.record = record;
+    }
+
+    public CrawlRecord getRecord() {
+        return record;
+    }
+}